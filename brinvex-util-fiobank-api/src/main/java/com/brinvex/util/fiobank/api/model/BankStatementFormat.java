@@ -0,0 +1,38 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.api.model;
+
+/**
+ * The formats of the bank statements provided by the Fio API.
+ */
+public enum BankStatementFormat {
+
+    /**
+     * The XML statement with all the columns of the transactions.
+     */
+    XML,
+
+    /**
+     * The JSON statement with the same columns as the XML one.
+     */
+    JSON,
+
+    /**
+     * The fixed-width GPC (ABO) statement, cheaper to parse but without the Fio transaction type
+     * and with fewer columns.
+     */
+    GPC
+}
@@ -19,9 +19,12 @@ import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class Portfolio implements Serializable {
 
@@ -37,6 +40,39 @@ public class Portfolio implements Serializable {
 
     private List<Transaction> transactions = new ArrayList<>();
 
+    /**
+     * Index of {@link #transactions} by ID.
+     * It is not serialized, it is built lazily on the first lookup
+     * and then only catches up with the transactions appended to the list since the previous lookup.
+     */
+    private transient Map<String, Transaction> transactionsById;
+
+    /**
+     * IDs shared by more than one transaction of {@link #transactions}.
+     */
+    private transient Set<String> duplicateTransactionIds;
+
+    /**
+     * The list instance, its size and its last element the index was last synchronized with.
+     */
+    private transient List<Transaction> indexedTransactions;
+
+    private transient int indexedTransactionCount;
+
+    private transient Transaction lastIndexedTransaction;
+
+    /**
+     * Index of {@link #positions} by symbol, maintained the same way as {@link #transactionsById}.
+     * A symbol maps to more positions only if it is traded in more countries (or if the positions are corrupted).
+     */
+    private transient Map<String, List<Position>> positionsBySymbol;
+
+    private transient List<Position> indexedPositions;
+
+    private transient int indexedPositionCount;
+
+    private transient Position lastIndexedPosition;
+
     public String getAccountNumber() {
         return accountNumber;
     }
@@ -73,16 +109,91 @@ public class Portfolio implements Serializable {
         return positions;
     }
 
+    /**
+     * Sets the positions and drops their symbol index, also when the same list is set again after changing it in place.
+     */
     public void setPositions(List<Position> positions) {
         this.positions = positions;
+        this.indexedPositions = null;
     }
 
     public List<Transaction> getTransactions() {
         return transactions;
     }
 
+    /**
+     * Sets the transactions and drops their ID index, also when the same list is set again after changing it in place.
+     */
     public void setTransactions(List<Transaction> transactions) {
         this.transactions = transactions;
+        this.indexedTransactions = null;
+    }
+
+    /**
+     * Returns true if any transaction of {@link #getTransactions()} other than the given one has the same ID.
+     * The index only catches up with the transactions appended since the previous call.
+     * It is rebuilt if the list shrank or its last indexed element was removed or replaced,
+     * other in-place changes of the list are not detected - after them call {@link #setTransactions(List)}.
+     */
+    public boolean hasTransactionIdConflict(Transaction tran) {
+        syncTransactionIndex();
+        String tranId = tran.getId();
+        if (duplicateTransactionIds.contains(tranId)) {
+            return true;
+        }
+        Transaction indexedTran = transactionsById.get(tranId);
+        return indexedTran != null && indexedTran != tran;
+    }
+
+    private void syncTransactionIndex() {
+        List<Transaction> trans = transactions;
+        int size = trans.size();
+        if (indexedTransactions != trans
+            || indexedTransactionCount > size
+            || indexedTransactionCount > 0 && trans.get(indexedTransactionCount - 1) != lastIndexedTransaction) {
+            transactionsById = new HashMap<>(Math.max(16, size * 2));
+            duplicateTransactionIds = new HashSet<>();
+            indexedTransactions = trans;
+            indexedTransactionCount = 0;
+        }
+        for (int i = indexedTransactionCount; i < size; i++) {
+            Transaction tran = trans.get(i);
+            String tranId = tran.getId();
+            Transaction indexedTran = transactionsById.putIfAbsent(tranId, tran);
+            if (indexedTran != null && indexedTran != tran) {
+                duplicateTransactionIds.add(tranId);
+            }
+        }
+        indexedTransactionCount = size;
+        lastIndexedTransaction = size > 0 ? trans.get(size - 1) : null;
+    }
+
+    /**
+     * Returns all positions of {@link #getPositions()} with the given symbol, in the order of the list.
+     * The positions are not expected to change their symbol,
+     * the index only catches up with the positions appended since the previous call.
+     * It is rebuilt if the list shrank or its last indexed element was removed or replaced,
+     * other in-place changes of the list are not detected - after them call {@link #setPositions(List)}.
+     */
+    public List<Position> findPositionsBySymbol(String symbol) {
+        List<Position> ps = positions;
+        int size = ps.size();
+        if (indexedPositions != ps
+            || indexedPositionCount > size
+            || indexedPositionCount > 0 && ps.get(indexedPositionCount - 1) != lastIndexedPosition) {
+            positionsBySymbol = new HashMap<>();
+            indexedPositions = ps;
+            indexedPositionCount = 0;
+        }
+        for (int i = indexedPositionCount; i < size; i++) {
+            Position position = ps.get(i);
+            positionsBySymbol.computeIfAbsent(position.getSymbol(), k -> new ArrayList<>(1)).add(position);
+        }
+        indexedPositionCount = size;
+        lastIndexedPosition = size > 0 ? ps.get(size - 1) : null;
+
+        List<Position> results = positionsBySymbol.get(symbol);
+        return results == null ? Collections.emptyList() : Collections.unmodifiableList(results);
     }
 
     @Override
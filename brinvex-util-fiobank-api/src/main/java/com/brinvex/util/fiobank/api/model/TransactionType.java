@@ -16,340 +16,288 @@
 package com.brinvex.util.fiobank.api.model;
 
 import java.math.BigDecimal;
-import java.util.List;
-import java.util.function.Predicate;
-
-import static java.math.BigDecimal.ZERO;
-import static java.util.Objects.requireNonNullElse;
 
 @SuppressWarnings({"UnnecessaryLocalVariable", "DuplicatedCode"})
 public enum TransactionType {
 
     BUY {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue().compareTo(ZERO) < 0,
-                    t -> t.getSymbol() != null,
-                    t -> t.getQty().compareTo(ZERO) > 0,
-                    t -> t.getPrice().compareTo(ZERO) > 0,
-                    t -> t.getFees().compareTo(ZERO) <= 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) == 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue().signum() < 0
+                   && t.getSymbol() != null
+                   && t.getQty().signum() > 0
+                   && t.getPrice().signum() > 0
+                   && t.getFees().signum() <= 0
+                   && signumOrZero(t.getTax()) == 0;
         }
     },
     SELL {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue().compareTo(ZERO) > 0,
-                    t -> t.getSymbol() != null,
-                    t -> t.getQty().compareTo(ZERO) < 0,
-                    t -> t.getPrice().compareTo(ZERO) > 0,
-                    t -> t.getFees().compareTo(ZERO) <= 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) <= 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue().signum() > 0
+                   && t.getSymbol() != null
+                   && t.getQty().signum() < 0
+                   && t.getPrice().signum() > 0
+                   && t.getFees().signum() <= 0
+                   && signumOrZero(t.getTax()) <= 0;
         }
     },
     DEPOSIT {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue().compareTo(ZERO) > 0,
-                    t -> t.getSymbol() == null,
-                    t -> t.getQty().compareTo(ZERO) == 0,
-                    t -> t.getPrice() == null,
-                    t -> t.getFees().compareTo(ZERO) <= 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) == 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue().signum() > 0
+                   && t.getSymbol() == null
+                   && t.getQty().signum() == 0
+                   && t.getPrice() == null
+                   && t.getFees().signum() <= 0
+                   && signumOrZero(t.getTax()) == 0;
         }
     },
     WITHDRAWAL {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue().compareTo(ZERO) < 0,
-                    t -> t.getSymbol() == null,
-                    t -> t.getQty().compareTo(ZERO) == 0,
-                    t -> t.getPrice() == null,
-                    t -> t.getFees().compareTo(ZERO) <= 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) == 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue().signum() < 0
+                   && t.getSymbol() == null
+                   && t.getQty().signum() == 0
+                   && t.getPrice() == null
+                   && t.getFees().signum() <= 0
+                   && signumOrZero(t.getTax()) == 0;
         }
     },
     CASH_DIVIDEND {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue().compareTo(ZERO) > 0,
-                    t -> t.getSymbol() != null,
-                    t -> t.getQty().compareTo(ZERO) == 0,
-                    t -> t.getPrice() == null,
-                    t -> t.getFees().compareTo(ZERO) <= 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) <= 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue().signum() > 0
+                   && t.getSymbol() != null
+                   && t.getQty().signum() == 0
+                   && t.getPrice() == null
+                   && t.getFees().signum() <= 0
+                   && signumOrZero(t.getTax()) <= 0;
         }
     },
     CAPITAL_DIVIDEND {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue().compareTo(ZERO) > 0,
-                    t -> t.getSymbol() != null,
-                    t -> t.getQty().compareTo(ZERO) == 0,
-                    t -> t.getPrice() == null,
-                    t -> t.getFees().compareTo(ZERO) <= 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) == 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue().signum() > 0
+                   && t.getSymbol() != null
+                   && t.getQty().signum() == 0
+                   && t.getPrice() == null
+                   && t.getFees().signum() <= 0
+                   && signumOrZero(t.getTax()) == 0;
         }
     },
     STOCK_DIVIDEND {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> requireNonNullElse(t.getNetValue(), ZERO).compareTo(ZERO) >= 0,
-                    t -> t.getSymbol() != null,
-                    t -> t.getQty().compareTo(ZERO) >= 0,
-                    t -> t.getPrice() == null,
-                    t -> t.getFees().compareTo(ZERO) <= 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) == 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return signumOrZero(t.getNetValue()) >= 0
+                   && t.getSymbol() != null
+                   && t.getQty().signum() >= 0
+                   && t.getPrice() == null
+                   && t.getFees().signum() <= 0
+                   && signumOrZero(t.getTax()) == 0;
         }
     },
     DIVIDEND_REVERSAL {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue().compareTo(ZERO) < 0,
-                    t -> t.getSymbol() != null,
-                    t -> t.getQty().compareTo(ZERO) == 0,
-                    t -> t.getPrice() == null,
-                    t -> t.getFees().compareTo(ZERO) >= 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) >= 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue().signum() < 0
+                   && t.getSymbol() != null
+                   && t.getQty().signum() == 0
+                   && t.getPrice() == null
+                   && t.getFees().signum() >= 0
+                   && signumOrZero(t.getTax()) >= 0;
         }
     },
     INTEREST {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue().compareTo(ZERO) > 0,
-                    t -> t.getQty().compareTo(ZERO) == 0,
-                    t -> t.getPrice() == null,
-                    t -> t.getFees().compareTo(ZERO) <= 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) <= 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue().signum() > 0
+                   && t.getQty().signum() == 0
+                   && t.getPrice() == null
+                   && t.getFees().signum() <= 0
+                   && signumOrZero(t.getTax()) <= 0;
         }
     },
     FX_BUY {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue().compareTo(ZERO) < 0,
-                    t -> t.getSymbol() != null,
-                    t -> t.getQty().compareTo(ZERO) > 0,
-                    t -> t.getPrice().compareTo(ZERO) > 0,
-                    t -> t.getFees().compareTo(ZERO) <= 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) == 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue().signum() < 0
+                   && t.getSymbol() != null
+                   && t.getQty().signum() > 0
+                   && t.getPrice().signum() > 0
+                   && t.getFees().signum() <= 0
+                   && signumOrZero(t.getTax()) == 0;
         }
     },
     FX_SELL {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue().compareTo(ZERO) > 0,
-                    t -> t.getSymbol() != null,
-                    t -> t.getQty().compareTo(ZERO) < 0,
-                    t -> t.getPrice().compareTo(ZERO) > 0,
-                    t -> t.getFees().compareTo(ZERO) <= 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) == 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue().signum() > 0
+                   && t.getSymbol() != null
+                   && t.getQty().signum() < 0
+                   && t.getPrice().signum() > 0
+                   && t.getFees().signum() <= 0
+                   && signumOrZero(t.getTax()) == 0;
         }
     },
     FEE {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue().compareTo(ZERO) < 0,
-                    t -> t.getQty().compareTo(ZERO) == 0,
-                    t -> t.getPrice() == null,
-                    t -> t.getFees().compareTo(ZERO) < 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) == 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue().signum() < 0
+                   && t.getQty().signum() == 0
+                   && t.getPrice() == null
+                   && t.getFees().signum() < 0
+                   && signumOrZero(t.getTax()) == 0;
         }
     },
     TAX {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue().compareTo(ZERO) < 0,
-                    t -> t.getQty().compareTo(ZERO) == 0,
-                    t -> t.getPrice() == null,
-                    t -> t.getFees().compareTo(ZERO) == 0,
-                    t -> t.getTax().compareTo(ZERO) < 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue().signum() < 0
+                   && t.getQty().signum() == 0
+                   && t.getPrice() == null
+                   && t.getFees().signum() == 0
+                   && t.getTax().signum() < 0;
         }
     },
     TAX_REFUND {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue().compareTo(ZERO) > 0,
-                    t -> t.getSymbol() != null,
-                    t -> t.getQty().compareTo(ZERO) == 0,
-                    t -> t.getPrice() == null,
-                    t -> t.getFees().compareTo(ZERO) == 0,
-                    t -> t.getTax().compareTo(ZERO) > 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue().signum() > 0
+                   && t.getSymbol() != null
+                   && t.getQty().signum() == 0
+                   && t.getPrice() == null
+                   && t.getFees().signum() == 0
+                   && t.getTax().signum() > 0;
         }
     },
     RECLAMATION {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue().compareTo(ZERO) > 0,
-                    t -> t.getSymbol() == null,
-                    t -> t.getQty().compareTo(ZERO) == 0,
-                    t -> t.getPrice() == null,
-                    t -> t.getFees().compareTo(ZERO) == 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) == 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue().signum() > 0
+                   && t.getSymbol() == null
+                   && t.getQty().signum() == 0
+                   && t.getPrice() == null
+                   && t.getFees().signum() == 0
+                   && signumOrZero(t.getTax()) == 0;
         }
     },
 
     INSTRUMENT_CHANGE_PARENT {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue().compareTo(ZERO) == 0,
-                    t -> t.getSymbol() != null,
-                    t -> t.getQty().compareTo(ZERO) <= 0,
-                    t -> t.getPrice() == null,
-                    t -> t.getFees().compareTo(ZERO) == 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) == 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue().signum() == 0
+                   && t.getSymbol() != null
+                   && t.getQty().signum() <= 0
+                   && t.getPrice() == null
+                   && t.getFees().signum() == 0
+                   && signumOrZero(t.getTax()) == 0;
         }
     },
 
     INSTRUMENT_CHANGE_CHILD {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue().compareTo(ZERO) == 0,
-                    t -> t.getSymbol() != null,
-                    t -> t.getQty().compareTo(ZERO) >= 0,
-                    t -> t.getPrice() == null,
-                    t -> t.getFees().compareTo(ZERO) == 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) == 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue().signum() == 0
+                   && t.getSymbol() != null
+                   && t.getQty().signum() >= 0
+                   && t.getPrice() == null
+                   && t.getFees().signum() == 0
+                   && signumOrZero(t.getTax()) == 0;
         }
     },
 
     SPINOFF_PARENT {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue() == null,
-                    t -> t.getSymbol() != null,
-                    t -> t.getQty().compareTo(ZERO) == 0,
-                    t -> t.getPrice() == null,
-                    t -> t.getFees().compareTo(ZERO) == 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) == 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue() == null
+                   && t.getSymbol() != null
+                   && t.getQty().signum() == 0
+                   && t.getPrice() == null
+                   && t.getFees().signum() == 0
+                   && signumOrZero(t.getTax()) == 0;
         }
     },
 
     SPINOFF_CHILD {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue() == null,
-                    t -> t.getSymbol() != null,
-                    t -> t.getQty().compareTo(ZERO) > 0,
-                    t -> t.getPrice() == null,
-                    t -> t.getFees().compareTo(ZERO) == 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) == 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue() == null
+                   && t.getSymbol() != null
+                   && t.getQty().signum() > 0
+                   && t.getPrice() == null
+                   && t.getFees().signum() == 0
+                   && signumOrZero(t.getTax()) == 0;
         }
     },
 
     SPINOFF_VALUE {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue().compareTo(ZERO) != 0,
-                    t -> t.getSymbol() != null,
-                    t -> t.getQty().compareTo(ZERO) == 0,
-                    t -> t.getPrice() == null,
-                    t -> t.getFees().compareTo(ZERO) == 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) == 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue().signum() != 0
+                   && t.getSymbol() != null
+                   && t.getQty().signum() == 0
+                   && t.getPrice() == null
+                   && t.getFees().signum() == 0
+                   && signumOrZero(t.getTax()) == 0;
         }
     },
 
     SPLIT {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue().compareTo(ZERO) == 0,
-                    t -> t.getSymbol() != null,
-                    t -> t.getQty().compareTo(ZERO) != 0,
-                    t -> t.getPrice() == null,
-                    t -> t.getFees().compareTo(ZERO) == 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) == 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue().signum() == 0
+                   && t.getSymbol() != null
+                   && t.getQty().signum() != 0
+                   && t.getPrice() == null
+                   && t.getFees().signum() == 0
+                   && signumOrZero(t.getTax()) == 0;
         }
     },
     LIQUIDATION {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue().compareTo(ZERO) >= 0,
-                    t -> t.getSymbol() != null,
-                    t -> t.getQty().compareTo(ZERO) < 0,
-                    t -> t.getPrice().compareTo(ZERO) == 0,
-                    t -> t.getFees().compareTo(ZERO) == 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) == 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue().signum() >= 0
+                   && t.getSymbol() != null
+                   && t.getQty().signum() < 0
+                   && t.getPrice().signum() == 0
+                   && t.getFees().signum() == 0
+                   && signumOrZero(t.getTax()) == 0;
         }
     },
 
     MERGER_PARENT {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue() == null,
-                    t -> t.getSymbol() != null,
-                    t -> t.getQty().compareTo(ZERO) < 0,
-                    t -> t.getPrice() == null,
-                    t -> t.getFees().compareTo(ZERO) == 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) == 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue() == null
+                   && t.getSymbol() != null
+                   && t.getQty().signum() < 0
+                   && t.getPrice() == null
+                   && t.getFees().signum() == 0
+                   && signumOrZero(t.getTax()) == 0;
         }
     },
 
     MERGER_CHILD {
         @Override
-        protected List<Predicate<Transaction>> predicates() {
-            return List.of(
-                    t -> t.getNetValue() == null,
-                    t -> t.getSymbol() != null,
-                    t -> t.getQty().compareTo(ZERO) > 0,
-                    t -> t.getPrice() == null,
-                    t -> t.getFees().compareTo(ZERO) == 0,
-                    t -> requireNonNullElse(t.getTax(), ZERO).compareTo(ZERO) == 0
-            );
+        protected boolean isValidForType(Transaction t) {
+            return t.getNetValue() == null
+                   && t.getSymbol() != null
+                   && t.getQty().signum() > 0
+                   && t.getPrice() == null
+                   && t.getFees().signum() == 0
+                   && signumOrZero(t.getTax()) == 0;
         }
     };
 
     private static final BigDecimal NUMBER_DIFF_TOLERANCE = new BigDecimal("0.005");
 
-    protected abstract List<Predicate<Transaction>> predicates();
-
-    private List<Predicate<Transaction>> predicates;
+    /**
+     * Checks the rules specific to the type as a single expression which stops at the first rule not satisfied.
+     */
+    protected abstract boolean isValidForType(Transaction t);
 
-    @SuppressWarnings({"RedundantIfStatement", "ForLoopReplaceableByForEach"})
+    @SuppressWarnings("RedundantIfStatement")
     public boolean isValid(Transaction t) {
         if (t.getDate() == null) {
             return false;
@@ -373,14 +321,8 @@ public enum TransactionType {
                 return false;
             }
         }
-        if (this.predicates == null) {
-            this.predicates = predicates();
-        }
-        for (int i = 0, predicatesSize = this.predicates.size(); i < predicatesSize; i++) {
-            Predicate<Transaction> predicate = this.predicates.get(i);
-            if (!predicate.test(t)) {
-                return false;
-            }
+        if (!isValidForType(t)) {
+            return false;
         }
         if (!grossValueNetValueIsValid(t)) {
             return false;
@@ -395,9 +337,24 @@ public enum TransactionType {
             return netValue == null;
         }
         BigDecimal fees = t.getFees();
-        BigDecimal tax = requireNonNullElse(t.getTax(), ZERO);
+        BigDecimal tax = t.getTax();
 
-        boolean isValid = grossValue.add(fees).add(tax).subtract(netValue).compareTo(NUMBER_DIFF_TOLERANCE) < 0;
+        // Zero terms are not added and the difference is computed only if the sum exceeds the net value
+        BigDecimal sum = grossValue;
+        if (fees.signum() != 0) {
+            sum = sum.add(fees);
+        }
+        if (tax != null && tax.signum() != 0) {
+            sum = sum.add(tax);
+        }
+        if (sum.compareTo(netValue) <= 0) {
+            return true;
+        }
+        boolean isValid = sum.subtract(netValue).compareTo(NUMBER_DIFF_TOLERANCE) < 0;
         return isValid;
     }
+
+    private static int signumOrZero(BigDecimal value) {
+        return value == null ? 0 : value.signum();
+    }
 }
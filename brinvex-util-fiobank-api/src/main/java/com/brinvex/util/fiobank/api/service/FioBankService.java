@@ -15,12 +15,15 @@
  */
 package com.brinvex.util.fiobank.api.service;
 
+import com.brinvex.util.fiobank.api.model.BankStatementFormat;
 import com.brinvex.util.fiobank.api.model.Portfolio;
 import com.brinvex.util.fiobank.api.model.RawBankTransactionList;
 
 import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -33,8 +36,20 @@ public interface FioBankService {
 
     RawBankTransactionList parseStatements(Stream<String> statementContents);
 
+    RawBankTransactionList parseStatements(Stream<String> statementContents, BankStatementFormat format);
+
+    /**
+     * Parses the statement files, a file named {@code *.json} as a JSON statement and any other as an XML one.
+     */
     RawBankTransactionList parseStatements(Collection<Path> statementFilePaths);
 
+    /**
+     * Same as {@link #parseStatements(Collection)} but reads and parses up to {@code parallelism} files at a time
+     * on the given executor, e.g. a {@link java.util.concurrent.ForkJoinPool}.
+     * The result is the same whatever order the files are finished in.
+     */
+    RawBankTransactionList parseStatements(Collection<Path> statementFilePaths, Executor executor, int parallelism);
+
     Portfolio processStatements(Collection<Path> statementFilePaths);
 
     Portfolio processStatements(Stream<String> statementContents);
@@ -45,8 +60,46 @@ public interface FioBankService {
 
     Portfolio processStatements(String apiKey, LocalDate fromDayIncl, LocalDate toDayIncl, Function<String, String> fetcher);
 
+    /**
+     * Same as {@link #processStatements(String, LocalDate, LocalDate, Function)} but fetches the statement in the given format.
+     * The {@link BankStatementFormat#GPC} statement carries no Fio transaction type,
+     * so its transactions are classified by the sign of their volume only.
+     */
+    Portfolio processStatements(
+            String apiKey,
+            LocalDate fromDayIncl,
+            LocalDate toDayIncl,
+            BankStatementFormat format,
+            Function<String, String> fetcher
+    );
+
     String fetchStatement(String apiKey, LocalDate fromDayIncl, LocalDate toDayIncl);
 
+    String fetchStatement(String apiKey, LocalDate fromDayIncl, LocalDate toDayIncl, BankStatementFormat format);
+
+    /**
+     * Same as {@link #fetchStatement(String, LocalDate, LocalDate, BankStatementFormat)}
+     * but completes once the whole statement is received, without blocking the calling thread.
+     */
+    CompletableFuture<String> fetchStatementAsync(String apiKey, LocalDate fromDayIncl, LocalDate toDayIncl, BankStatementFormat format);
+
+    /**
+     * Fetches the statement and parses its body as it arrives, without holding the whole statement in memory.
+     */
+    RawBankTransactionList fetchTransactions(String apiKey, LocalDate fromDayIncl, LocalDate toDayIncl, BankStatementFormat format);
+
+    /**
+     * Same as {@link #fetchTransactions(String, LocalDate, LocalDate, BankStatementFormat)} but without blocking
+     * the calling thread, the body is parsed on the given executor as it arrives.
+     */
+    CompletableFuture<RawBankTransactionList> fetchTransactionsAsync(
+            String apiKey,
+            LocalDate fromDayIncl,
+            LocalDate toDayIncl,
+            BankStatementFormat format,
+            Executor executor
+    );
+
     default String fetchStatement(String apiKey, LocalDate fromDayIncl) {
         return fetchStatement(apiKey, fromDayIncl, LocalDate.now());
     }
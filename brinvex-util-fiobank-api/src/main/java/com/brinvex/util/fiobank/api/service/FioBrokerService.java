@@ -17,6 +17,7 @@ package com.brinvex.util.fiobank.api.service;
 
 import com.brinvex.util.fiobank.api.model.Portfolio;
 import com.brinvex.util.fiobank.api.model.PortfolioValue;
+import com.brinvex.util.fiobank.api.model.RawBrokerTransaction;
 import com.brinvex.util.fiobank.api.model.RawBrokerTransactionList;
 
 import java.nio.charset.Charset;
@@ -24,6 +25,8 @@ import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
@@ -35,14 +38,41 @@ public interface FioBrokerService {
 
     RawBrokerTransactionList parseTransactionStatements(Stream<String> transactionStatementContents);
 
+    /**
+     * Larger files are memory-mapped and stay mapped until the mappings are garbage collected,
+     * on Windows they cannot be deleted or moved until then.
+     */
     RawBrokerTransactionList parseTransactionStatements(Collection<Path> transactionStatementFilePaths);
 
+    /**
+     * Same as {@link #parseTransactionStatements(Collection)} but reads and parses up to {@code parallelism} files at a time
+     * on the given executor, e.g. a {@link java.util.concurrent.ForkJoinPool}.
+     * The result is the same whatever order the files are finished in.
+     */
+    RawBrokerTransactionList parseTransactionStatements(Collection<Path> transactionStatementFilePaths, Executor executor, int parallelism);
+
+    /**
+     * Parses a single statement file without loading it into memory,
+     * passing each transaction to the consumer as soon as it is parsed, in the order of the statement (the newest first).
+     * Unlike {@link #parseTransactionStatements(Collection)}, the transactions are neither sorted nor deduplicated.
+     * The returned list carries the account number and the period, its transactions are null.
+     * A larger file is memory-mapped and stays mapped until the mapping is garbage collected,
+     * on Windows it cannot be deleted or moved until then.
+     */
+    RawBrokerTransactionList parseTransactionStatement(Path transactionStatementFilePath, Consumer<RawBrokerTransaction> rawTranConsumer);
+
     Portfolio processTransactionStatements(Stream<String> transactionStatementContents);
 
+    /**
+     * The files are read the same way as by {@link #parseTransactionStatements(Collection)}.
+     */
     Portfolio processTransactionStatements(Collection<Path> transactionStatementFilePaths);
 
     Portfolio processTransactionStatements(Portfolio ptf, Stream<String> transactionStatementContents);
 
+    /**
+     * The files are read the same way as by {@link #parseTransactionStatements(Collection)}.
+     */
     Portfolio processTransactionStatements(Portfolio ptf, Collection<Path> transactionStatementFilePaths);
 
     Map<LocalDate, PortfolioValue> getPortfolioValues(Stream<String> portfolioStatementContents);
@@ -0,0 +1,524 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates synthetic Fio bank account statements in the XML format of the Fio API
+ * which are accepted by {@link com.brinvex.util.fiobank.impl.bank.FioBankServiceImpl}.
+ * <p>
+ * Besides the columns the parser maps to {@link com.brinvex.util.fiobank.api.model.RawBankTransaction} properties,
+ * every transaction carries the requested number (0 - {@link #MAX_ADDITIONAL_COLUMN_COUNT})
+ * of the remaining Fio columns which end up in the additionals.
+ * Transaction IDs have a fixed width, so their string order matches the order of the transactions
+ * and an interest is always directly followed by its tax.
+ * <p>
+ * The same transactions can be written in the JSON format of the Fio API, with the same columns,
+ * and in the fixed-width GPC format, with the columns GPC carries.
+ */
+@SuppressWarnings("SpellCheckingInspection")
+public class BankStatementGenerator {
+
+    private static class LazyHolder {
+        private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ISO_OFFSET_DATE;
+
+        private static final DateTimeFormatter JSON_DAY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-ddxx");
+
+        private static final DateTimeFormatter GPC_DAY_FORMAT = DateTimeFormatter.ofPattern("ddMMyy");
+
+        private static final ZoneId FIO_TIME_ZONE = ZoneId.of("Europe/Prague");
+
+        private static final LocalDate START = LocalDate.parse("2019-01-01");
+
+        private static final long FIRST_ID = 20_000_000_000L;
+
+        private static final String[] COUNTER_ACCOUNT_NAMES = {
+                "Novak Jan", "Svobodova Eva", "Dvorak Petr", "Cerna Marie", "Prochazka Tomas", "Fio banka, a.s."
+        };
+
+        private static final String[] BANK_CODES = {"2010", "0100", "0300", "0800", "2700", "5500"};
+
+        private static final String[] BANK_NAMES = {
+                "Fio banka, a.s.", "Komercni banka, a.s.", "CSOB, a.s.", "Ceska sporitelna, a.s.", "UniCredit Bank", "Raiffeisenbank a.s."
+        };
+
+        private static final String[] BICS = {"FIOBCZPPXXX", "KOMBCZPPXXX", "CEKOCZPPXXX", "GIBACZPXXXX", "BACXCZPPXXX", "RZBCCZPPXXX"};
+
+        private static final String[] MERCHANTS = {"ALBERT", "BILLA", "LIDL", "TESCO", "ROHLIK", "BENZINA", "DATART", "IKEA"};
+    }
+
+    /**
+     * The columns of the Fio API statement which the parser keeps as additionals, in the order Fio writes them.
+     */
+    private enum AdditionalColumn {
+        COUNTER_ACCOUNT(2, "Protiúčet"),
+        COUNTER_ACCOUNT_NAME(10, "Název protiúčtu"),
+        BANK_CODE(3, "Kód banky"),
+        BANK_NAME(12, "Název banky"),
+        CONSTANT_SYMBOL(4, "KS"),
+        VARIABLE_SYMBOL(5, "VS"),
+        SPECIFIC_SYMBOL(6, "SS"),
+        USER_IDENTIFICATION(7, "Uživatelská identifikace"),
+        MESSAGE(16, "Zpráva pro příjemce"),
+        EXECUTOR(9, "Provedl"),
+        SPECIFICATION(18, "Upřesnění"),
+        COMMENT(25, "Komentář"),
+        BIC(26, "BIC"),
+        ORDER_ID(17, "ID pokynu"),
+        PAYER_REFERENCE(27, "Reference plátce");
+
+        private final int id;
+
+        private final String title;
+
+        AdditionalColumn(int id, String title) {
+            this.id = id;
+            this.title = title;
+        }
+    }
+
+    public static final int MAX_ADDITIONAL_COLUMN_COUNT = AdditionalColumn.values().length;
+
+    /**
+     * Fio writes the type column between the message and the executor columns.
+     */
+    private static final int TYPE_COLUMN_POSITION = AdditionalColumn.EXECUTOR.ordinal();
+
+    private static class Row {
+        private long id;
+        private LocalDate date;
+        private BigDecimal volume;
+        private String type;
+        private int counterparty;
+        private String message;
+    }
+
+    private final long seed;
+
+    private Random random;
+
+    private LocalDate today;
+
+    private long nextId;
+
+    public BankStatementGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public String generateStatement(String accountNumber, int transactionCount, int additionalColumnCount) {
+        StringBuilder sb = new StringBuilder(transactionCount * (200 + additionalColumnCount * 50) + 512);
+        writeStatement(sb, accountNumber, transactionCount, additionalColumnCount);
+        return sb.toString();
+    }
+
+    /**
+     * Writes the same statement as {@link #generateStatement(String, int, int)}
+     * without holding the whole content in memory.
+     */
+    public void writeStatement(Appendable out, String accountNumber, int transactionCount, int additionalColumnCount) {
+        List<Row> rows = generateRows(transactionCount);
+        LocalDate periodFrom = rows.get(0).date.withDayOfMonth(1);
+        LocalDate periodTo = rows.get(rows.size() - 1).date;
+        try {
+            formatStatement(out, accountNumber, periodFrom, periodTo, rows, additionalColumnCount);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Generates the same transactions as {@link #generateStatement(String, int, int)} in the JSON format.
+     */
+    public String generateJsonStatement(String accountNumber, int transactionCount, int additionalColumnCount) {
+        List<Row> rows = generateRows(transactionCount);
+        LocalDate periodFrom = rows.get(0).date.withDayOfMonth(1);
+        LocalDate periodTo = rows.get(rows.size() - 1).date;
+        StringBuilder sb = new StringBuilder(transactionCount * (250 + additionalColumnCount * 60) + 512);
+        formatJsonStatement(sb, accountNumber, periodFrom, periodTo, rows, additionalColumnCount);
+        return sb.toString();
+    }
+
+    /**
+     * Generates the same transactions as {@link #generateStatement(String, int, int)} in the GPC format.
+     */
+    public String generateGpcStatement(String accountNumber, int transactionCount) {
+        List<Row> rows = generateRows(transactionCount);
+        LocalDate periodFrom = rows.get(0).date.withDayOfMonth(1);
+        LocalDate periodTo = rows.get(rows.size() - 1).date;
+        StringBuilder sb = new StringBuilder((transactionCount + 1) * 130);
+        formatGpcStatement(sb, accountNumber, periodFrom, periodTo, rows);
+        return sb.toString();
+    }
+
+    /**
+     * Generates the same transactions as {@link #generateStatement(String, int, int)}
+     * but splits them into yearly statements with contiguous periods.
+     */
+    public Map<Integer, String> generateYearlyStatements(String accountNumber, int transactionCount, int additionalColumnCount) {
+        List<Row> rows = generateRows(transactionCount);
+        Map<Integer, List<Row>> yearRows = new LinkedHashMap<>();
+        for (Row row : rows) {
+            yearRows.computeIfAbsent(row.date.getYear(), k -> new ArrayList<>()).add(row);
+        }
+        LocalDate lastDay = rows.get(rows.size() - 1).date;
+        Map<Integer, String> results = new LinkedHashMap<>();
+        for (Map.Entry<Integer, List<Row>> e : yearRows.entrySet()) {
+            int year = e.getKey();
+            LocalDate periodFrom = LocalDate.of(year, 1, 1);
+            LocalDate periodTo = year == lastDay.getYear() ? lastDay : LocalDate.of(year, 12, 31);
+            StringBuilder sb = new StringBuilder();
+            try {
+                formatStatement(sb, accountNumber, periodFrom, periodTo, e.getValue(), additionalColumnCount);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            results.put(year, sb.toString());
+        }
+        return results;
+    }
+
+    private List<Row> generateRows(int transactionCount) {
+        if (transactionCount <= 0) {
+            throw new IllegalArgumentException("Expected positive transactionCount but got: " + transactionCount);
+        }
+        random = new Random(seed);
+        today = LazyHolder.START;
+        nextId = LazyHolder.FIRST_ID;
+
+        List<Row> rows = new ArrayList<>(transactionCount);
+        rows.add(newRow("Bezhotovostní příjem", randomAmount(20_000, 200_000)));
+        while (rows.size() < transactionCount) {
+            if (random.nextInt(8) == 0) {
+                LocalDate nextDay = today.plusDays(1);
+                if (nextDay.getMonthValue() != today.getMonthValue() && transactionCount - rows.size() >= 2) {
+                    addInterest(rows);
+                }
+                today = nextDay;
+                continue;
+            }
+            int dice = random.nextInt(100);
+            if (dice < 15) {
+                rows.add(newRow("Bezhotovostní příjem", randomAmount(1_000, 80_000)));
+            } else if (dice < 25) {
+                rows.add(newRow("Příjem převodem uvnitř banky", randomAmount(100, 20_000)));
+            } else if (dice < 70) {
+                Row row = newRow("Platba kartou", randomAmount(10, 3_000).negate());
+                row.message = LazyHolder.MERCHANTS[random.nextInt(LazyHolder.MERCHANTS.length)];
+                rows.add(row);
+            } else if (dice < 90) {
+                rows.add(newRow("Bezhotovostní platba", randomAmount(100, 15_000).negate()));
+            } else {
+                rows.add(newRow("Platba převodem uvnitř banky", randomAmount(100, 10_000).negate()));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Fio credits the interest on the last day of the month and withholds the tax immediately.
+     */
+    private void addInterest(List<Row> rows) {
+        BigDecimal interest = randomAmount(1, 500);
+        BigDecimal tax = interest.multiply(new BigDecimal("0.15")).setScale(2, RoundingMode.HALF_UP).max(new BigDecimal("0.01"));
+        rows.add(newRow("Připsaný úrok", interest));
+        rows.add(newRow("Odvod daně z úroků", tax.negate()));
+    }
+
+    private Row newRow(String type, BigDecimal volume) {
+        Row row = new Row();
+        row.id = nextId++;
+        row.date = today;
+        row.type = type;
+        row.volume = volume;
+        row.counterparty = random.nextInt(LazyHolder.COUNTER_ACCOUNT_NAMES.length);
+        return row;
+    }
+
+    private BigDecimal randomAmount(int min, int max) {
+        return BigDecimal.valueOf(min * 100L + random.nextInt((max - min) * 100)).movePointLeft(2);
+    }
+
+    private static void formatStatement(
+            Appendable out,
+            String accountNumber,
+            LocalDate periodFrom,
+            LocalDate periodTo,
+            List<Row> rows,
+            int additionalColumnCount
+    ) throws IOException {
+        if (additionalColumnCount < 0 || additionalColumnCount > MAX_ADDITIONAL_COLUMN_COUNT) {
+            throw new IllegalArgumentException(String.format("Expected additionalColumnCount between 0 and %s but got: %s",
+                    MAX_ADDITIONAL_COLUMN_COUNT, additionalColumnCount));
+        }
+        BigDecimal closingBalance = BigDecimal.ZERO;
+        for (Row row : rows) {
+            closingBalance = closingBalance.add(row.volume);
+        }
+
+        out.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.append("<AccountStatement>\n");
+        out.append("  <Info>\n");
+        appendElement(out, "accountId", accountNumber);
+        appendElement(out, "bankId", "2010");
+        appendElement(out, "currency", "CZK");
+        appendElement(out, "iban", "CZ652010000000" + accountNumber);
+        appendElement(out, "bic", "FIOBCZPPXXX");
+        appendElement(out, "openingBalance", "0.00");
+        appendElement(out, "closingBalance", closingBalance.toPlainString());
+        appendElement(out, "dateStart", formatDay(periodFrom));
+        appendElement(out, "dateEnd", formatDay(periodTo));
+        appendElement(out, "idFrom", String.valueOf(rows.get(0).id));
+        appendElement(out, "idTo", String.valueOf(rows.get(rows.size() - 1).id));
+        out.append("  </Info>\n");
+        out.append("  <TransactionList>\n");
+
+        AdditionalColumn[] additionalColumns = AdditionalColumn.values();
+        for (Row row : rows) {
+            out.append("    <Transaction>\n");
+            appendColumn(out, 22, "ID pohybu", String.valueOf(row.id));
+            appendColumn(out, 0, "Datum", formatDay(row.date));
+            appendColumn(out, 1, "Objem", row.volume.toPlainString());
+            appendColumn(out, 14, "Měna", "CZK");
+            for (int i = 0; i < additionalColumnCount; i++) {
+                if (i == TYPE_COLUMN_POSITION) {
+                    appendColumn(out, 8, "Typ", row.type);
+                }
+                AdditionalColumn column = additionalColumns[i];
+                appendColumn(out, column.id, column.title, additionalValue(column, row));
+            }
+            if (additionalColumnCount <= TYPE_COLUMN_POSITION) {
+                appendColumn(out, 8, "Typ", row.type);
+            }
+            out.append("    </Transaction>\n");
+        }
+
+        out.append("  </TransactionList>\n");
+        out.append("</AccountStatement>\n");
+    }
+
+    /**
+     * Writes the columns in the same order as the XML statement, the unused Fio columns as nulls.
+     */
+    private static void formatJsonStatement(
+            StringBuilder out,
+            String accountNumber,
+            LocalDate periodFrom,
+            LocalDate periodTo,
+            List<Row> rows,
+            int additionalColumnCount
+    ) {
+        if (additionalColumnCount < 0 || additionalColumnCount > MAX_ADDITIONAL_COLUMN_COUNT) {
+            throw new IllegalArgumentException(String.format("Expected additionalColumnCount between 0 and %s but got: %s",
+                    MAX_ADDITIONAL_COLUMN_COUNT, additionalColumnCount));
+        }
+        BigDecimal closingBalance = BigDecimal.ZERO;
+        for (Row row : rows) {
+            closingBalance = closingBalance.add(row.volume);
+        }
+
+        out.append("{\"accountStatement\":{\"info\":{");
+        out.append("\"accountId\":\"").append(accountNumber).append("\",");
+        out.append("\"bankId\":\"2010\",\"currency\":\"CZK\",");
+        out.append("\"iban\":\"CZ652010000000").append(accountNumber).append("\",\"bic\":\"FIOBCZPPXXX\",");
+        out.append("\"openingBalance\":0.00,\"closingBalance\":").append(closingBalance.toPlainString()).append(',');
+        out.append("\"dateStart\":\"").append(formatJsonDay(periodFrom)).append("\",");
+        out.append("\"dateEnd\":\"").append(formatJsonDay(periodTo)).append("\",");
+        out.append("\"yearList\":null,\"idList\":null,");
+        out.append("\"idFrom\":").append(rows.get(0).id).append(',');
+        out.append("\"idTo\":").append(rows.get(rows.size() - 1).id).append(',');
+        out.append("\"idLastDownload\":null},\n");
+        out.append("\"transactionList\":{\"transaction\":[\n");
+
+        AdditionalColumn[] additionalColumns = AdditionalColumn.values();
+        for (int r = 0; r < rows.size(); r++) {
+            Row row = rows.get(r);
+            if (r > 0) {
+                out.append(",\n");
+            }
+            out.append('{');
+            appendJsonColumn(out, 22, "ID pohybu", String.valueOf(row.id), false);
+            appendJsonColumn(out, 0, "Datum", formatJsonDay(row.date), true);
+            appendJsonColumn(out, 1, "Objem", row.volume.toPlainString(), false);
+            appendJsonColumn(out, 14, "Měna", "CZK", true);
+            for (int i = 0; i < additionalColumnCount; i++) {
+                if (i == TYPE_COLUMN_POSITION) {
+                    appendJsonColumn(out, 8, "Typ", row.type, true);
+                }
+                AdditionalColumn column = additionalColumns[i];
+                appendJsonColumn(out, column.id, column.title, additionalValue(column, row), true);
+            }
+            if (additionalColumnCount <= TYPE_COLUMN_POSITION) {
+                appendJsonColumn(out, 8, "Typ", row.type, true);
+            }
+            for (int i = additionalColumnCount; i < additionalColumns.length; i++) {
+                out.append(",\"column").append(additionalColumns[i].id).append("\":null");
+            }
+            out.append('}');
+        }
+
+        out.append("\n]}}}\n");
+    }
+
+    private static void appendJsonColumn(StringBuilder out, int id, String title, String value, boolean quoted) {
+        if (out.charAt(out.length() - 1) != '{') {
+            out.append(',');
+        }
+        out.append("\"column").append(id).append("\":{\"value\":");
+        if (quoted) {
+            out.append('"').append(value).append('"');
+        } else {
+            out.append(value);
+        }
+        out.append(",\"name\":\"").append(title).append("\",\"id\":").append(id).append('}');
+    }
+
+    private static String formatJsonDay(LocalDate day) {
+        return LazyHolder.JSON_DAY_FORMAT.format(day.atStartOfDay(LazyHolder.FIO_TIME_ZONE));
+    }
+
+    private static void formatGpcStatement(
+            StringBuilder out,
+            String accountNumber,
+            LocalDate periodFrom,
+            LocalDate periodTo,
+            List<Row> rows
+    ) {
+        long debitTurnover = 0;
+        long creditTurnover = 0;
+        for (Row row : rows) {
+            long amount = row.volume.movePointRight(2).longValueExact();
+            if (amount < 0) {
+                debitTurnover -= amount;
+            } else {
+                creditTurnover += amount;
+            }
+        }
+        long closingBalance = creditTurnover - debitTurnover;
+
+        out.append("074");
+        appendGpcNumber(out, accountNumber, 16);
+        appendGpcText(out, "Statement", 20);
+        out.append(LazyHolder.GPC_DAY_FORMAT.format(periodFrom.minusDays(1)));
+        appendGpcNumber(out, "0", 14).append('+');
+        appendGpcNumber(out, String.valueOf(Math.abs(closingBalance)), 14).append(closingBalance < 0 ? '-' : '+');
+        appendGpcNumber(out, String.valueOf(debitTurnover), 14).append('0');
+        appendGpcNumber(out, String.valueOf(creditTurnover), 14).append('0');
+        out.append("001");
+        out.append(LazyHolder.GPC_DAY_FORMAT.format(periodTo));
+        appendGpcText(out, "", 14);
+        out.append("\r\n");
+
+        for (Row row : rows) {
+            long amount = row.volume.movePointRight(2).longValueExact();
+            String day = LazyHolder.GPC_DAY_FORMAT.format(row.date);
+            out.append("075");
+            appendGpcNumber(out, accountNumber, 16);
+            appendGpcNumber(out, additionalValue(AdditionalColumn.COUNTER_ACCOUNT, row), 16);
+            appendGpcNumber(out, String.valueOf(row.id), 13);
+            appendGpcNumber(out, String.valueOf(Math.abs(amount)), 12);
+            out.append(amount < 0 ? '1' : '2');
+            appendGpcNumber(out, additionalValue(AdditionalColumn.VARIABLE_SYMBOL, row), 10);
+            out.append("00");
+            out.append(additionalValue(AdditionalColumn.BANK_CODE, row));
+            out.append(additionalValue(AdditionalColumn.CONSTANT_SYMBOL, row));
+            appendGpcNumber(out, additionalValue(AdditionalColumn.SPECIFIC_SYMBOL, row), 10);
+            out.append(day);
+            appendGpcText(out, additionalValue(AdditionalColumn.COUNTER_ACCOUNT_NAME, row), 20);
+            out.append('0');
+            out.append("0203");
+            out.append(day);
+            out.append("\r\n");
+        }
+    }
+
+    private static StringBuilder appendGpcNumber(StringBuilder out, String digits, int width) {
+        for (int i = digits.length(); i < width; i++) {
+            out.append('0');
+        }
+        return out.append(digits);
+    }
+
+    private static void appendGpcText(StringBuilder out, String text, int width) {
+        out.append(text, 0, Math.min(text.length(), width));
+        for (int i = text.length(); i < width; i++) {
+            out.append(' ');
+        }
+    }
+
+    private static String additionalValue(AdditionalColumn column, Row row) {
+        int counterparty = row.counterparty;
+        switch (column) {
+            case COUNTER_ACCOUNT:
+                return String.valueOf(2_900_000_000L + counterparty * 1_234_567L);
+            case COUNTER_ACCOUNT_NAME:
+                return LazyHolder.COUNTER_ACCOUNT_NAMES[counterparty];
+            case BANK_CODE:
+                return LazyHolder.BANK_CODES[counterparty];
+            case BANK_NAME:
+                return LazyHolder.BANK_NAMES[counterparty];
+            case CONSTANT_SYMBOL:
+                return "0558";
+            case VARIABLE_SYMBOL:
+                return String.valueOf(row.id % 1_000_000_000L);
+            case SPECIFIC_SYMBOL:
+                return String.valueOf(row.id % 10_000L);
+            case USER_IDENTIFICATION:
+                return row.message != null ? "Nákup: " + row.message : row.type;
+            case MESSAGE:
+                return row.message != null ? row.message : "Platba " + row.id;
+            case EXECUTOR:
+                return LazyHolder.COUNTER_ACCOUNT_NAMES[counterparty];
+            case SPECIFICATION:
+                return row.volume.abs().toPlainString() + " CZK";
+            case COMMENT:
+                return row.type;
+            case BIC:
+                return LazyHolder.BICS[counterparty];
+            case ORDER_ID:
+                return String.valueOf(row.id + 7_000_000_000L);
+            case PAYER_REFERENCE:
+                return "REF" + row.id;
+        }
+        throw new IllegalArgumentException("Unexpected value: " + column);
+    }
+
+    private static String formatDay(LocalDate day) {
+        return LazyHolder.DAY_FORMAT.format(day.atStartOfDay(LazyHolder.FIO_TIME_ZONE).toOffsetDateTime());
+    }
+
+    private static void appendElement(Appendable out, String name, String value) throws IOException {
+        out.append("    <").append(name).append('>').append(value).append("</").append(name).append(">\n");
+    }
+
+    private static void appendColumn(Appendable out, int id, String title, String value) throws IOException {
+        out.append("      <column_").append(String.valueOf(id))
+                .append(" name=\"").append(title).append("\" id=\"").append(String.valueOf(id)).append("\">")
+                .append(value)
+                .append("</column_").append(String.valueOf(id)).append(">\n");
+    }
+}
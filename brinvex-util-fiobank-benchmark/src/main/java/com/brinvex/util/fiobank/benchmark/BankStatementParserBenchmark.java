@@ -0,0 +1,108 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.benchmark;
+
+import com.brinvex.util.fiobank.api.model.RawBankTransactionList;
+import com.brinvex.util.fiobank.impl.bank.parser.BankStatementParser;
+import com.brinvex.util.fiobank.impl.bank.parser.JsonBankStatementParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link BankStatementParser#parseStatement(String)} on a synthetic Fio API statement
+ * and {@link BankStatementParser#parseStatement(InputStream)} on the same statement encoded in UTF-8,
+ * against {@link JsonBankStatementParser} on the JSON statement with the same transactions and columns.
+ * The additional columns all end up in {@link com.brinvex.util.fiobank.api.model.RawBankTransaction#getAdditionals()},
+ * so their count drives the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class BankStatementParserBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"0", "5", "15"})
+    public int additionalColumns;
+
+    private final BankStatementParser parser = new BankStatementParser();
+
+    private final JsonBankStatementParser jsonParser = new JsonBankStatementParser();
+
+    private String statementContent;
+
+    private byte[] statementBytes;
+
+    private String jsonStatementContent;
+
+    private byte[] jsonStatementBytes;
+
+    @Setup
+    public void setUp() {
+        statementContent = new BankStatementGenerator(BenchmarkData.SEED)
+                .generateStatement(BenchmarkData.ACCOUNT_NUMBER, rows, additionalColumns);
+        statementBytes = statementContent.getBytes(StandardCharsets.UTF_8);
+        jsonStatementContent = new BankStatementGenerator(BenchmarkData.SEED)
+                .generateJsonStatement(BenchmarkData.ACCOUNT_NUMBER, rows, additionalColumns);
+        jsonStatementBytes = jsonStatementContent.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public RawBankTransactionList parseStatement(RowCounter rowCounter) {
+        RawBankTransactionList rawTranList = parser.parseStatement(statementContent);
+        rowCounter.rows += rawTranList.getTransactions().size();
+        return rawTranList;
+    }
+
+    @Benchmark
+    public RawBankTransactionList parseStatementInputStream(RowCounter rowCounter) {
+        RawBankTransactionList rawTranList = parser.parseStatement(new ByteArrayInputStream(statementBytes));
+        rowCounter.rows += rawTranList.getTransactions().size();
+        return rawTranList;
+    }
+
+    @Benchmark
+    public RawBankTransactionList parseJsonStatement(RowCounter rowCounter) {
+        RawBankTransactionList rawTranList = jsonParser.parseStatement(jsonStatementContent);
+        rowCounter.rows += rawTranList.getTransactions().size();
+        return rawTranList;
+    }
+
+    @Benchmark
+    public RawBankTransactionList parseJsonStatementInputStream(RowCounter rowCounter) {
+        RawBankTransactionList rawTranList = jsonParser.parseStatement(new ByteArrayInputStream(jsonStatementBytes));
+        rowCounter.rows += rawTranList.getTransactions().size();
+        return rawTranList;
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.benchmark;
+
+/**
+ * Constants shared by the benchmarks, so that all of them work with the same synthetic data.
+ */
+final class BenchmarkData {
+
+    static final long SEED = 20230101L;
+
+    static final String ACCOUNT_NUMBER = "1234567890";
+
+    private BenchmarkData() {
+    }
+}
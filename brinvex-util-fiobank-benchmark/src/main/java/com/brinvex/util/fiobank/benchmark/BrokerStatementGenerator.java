@@ -0,0 +1,888 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.benchmark;
+
+import com.brinvex.util.fiobank.api.model.Country;
+import com.brinvex.util.fiobank.api.model.Currency;
+import com.brinvex.util.fiobank.api.model.Lang;
+import com.brinvex.util.fiobank.api.model.RawBrokerTranDirection;
+import com.brinvex.util.fiobank.impl.broker.parser.TranColumnDef;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static java.lang.String.format;
+
+/**
+ * Generates synthetic Fio e-Broker transaction statements (CSV) which are accepted
+ * by {@link com.brinvex.util.fiobank.impl.broker.FioBrokerServiceImpl}.
+ * <p>
+ * The statements contain every kind of row recognized by the transaction mapper:
+ * deposits, withdrawals, trades, currency conversions, dividends with their taxes and fees,
+ * tax refunds, dividend reversals, spin-offs, liquidations, ticker changes, reorganizations, splits and mergers.
+ * The generated rows depend only on the seed and the requested row count, not on the language,
+ * so statements generated in CZ, SK and EN describe the very same portfolio.
+ * <p>
+ * Each event gets its own minute in the trading hours 09:00-20:59,
+ * which keeps the generated transaction IDs unique.
+ */
+@SuppressWarnings({"SpellCheckingInspection", "DuplicatedCode"})
+public class BrokerStatementGenerator {
+
+    private static class LazyHolder {
+        private static final DateTimeFormatter TRADE_DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+        private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("d.M.yyyy");
+        private static final DateTimeFormatter TEXT_DAY_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+        private static final LocalDateTime START = LocalDateTime.parse("2019-01-02T09:00");
+        private static final int FIRST_HOUR = 9;
+        private static final int LAST_HOUR = 20;
+
+        private static final String COUNTER_ACCOUNT = "2900123456/2010";
+
+        private static final List<Instrument> INITIAL_INSTRUMENTS = List.of(
+                new Instrument("AAPL", Country.US, "NASDAQ", "150.00"),
+                new Instrument("MSFT", Country.US, "NASDAQ", "280.00"),
+                new Instrument("KO", Country.US, "NYSE", "60.00"),
+                new Instrument("PG", Country.US, "NYSE", "140.00"),
+                new Instrument("JNJ", Country.US, "NYSE", "160.00"),
+                new Instrument("XOM", Country.US, "NYSE", "90.00"),
+                new Instrument("SAP", Country.DE, "XETRA", "120.00"),
+                new Instrument("ALV", Country.DE, "XETRA", "210.00"),
+                new Instrument("BAS", Country.DE, "XETRA", "45.00"),
+                new Instrument("CEZ", Country.CZ, "BCPP", "950.00"),
+                new Instrument("KOMB", Country.CZ, "BCPP", "820.00"),
+                new Instrument("MONET", Country.CZ, "BCPP", "95.00")
+        );
+    }
+
+    private enum SpecialMarket {
+        FEE,
+        TRANSFORMATION
+    }
+
+    private static class Instrument {
+        private final String root;
+        private final String symbol;
+        private final Country country;
+        private final String market;
+        private BigDecimal price;
+        private BigDecimal held = BigDecimal.ZERO;
+
+        private Instrument(String symbol, Country country, String market, String price) {
+            this(symbol, symbol, country, market, new BigDecimal(price));
+        }
+
+        private Instrument(String root, String symbol, Country country, String market, BigDecimal price) {
+            this.root = root;
+            this.symbol = symbol;
+            this.country = country;
+            this.market = market;
+            this.price = price;
+        }
+    }
+
+    private static class Row {
+        private LocalDateTime tradeDate;
+        private RawBrokerTranDirection direction;
+        private String rawSymbol;
+        private BigDecimal price;
+        private BigDecimal shares;
+        private String currency;
+        private Currency volumeCcy;
+        private BigDecimal volume;
+        private BigDecimal fees;
+        private String market;
+        private SpecialMarket specialMarket;
+        private String instrumentName;
+        private LocalDate settlementDate;
+        private String orderId;
+        private String text;
+    }
+
+    /**
+     * The most rows a single generated event produces (spin-off).
+     */
+    private static final int MAX_EVENT_ROWS = 4;
+
+    private final long seed;
+
+    private Random random;
+
+    private List<Instrument> instruments;
+
+    private Map<String, Integer> symbolGenerations;
+
+    private Map<String, Country> symbolCountries;
+
+    private LocalDateTime now;
+
+    private long nextOrderId;
+
+    public BrokerStatementGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the countries of all symbols which appeared in the most recently generated statement.
+     */
+    public Map<String, Country> getSymbolCountries() {
+        return Collections.unmodifiableMap(symbolCountries);
+    }
+
+    public String generateTransactionStatement(String accountNumber, int rowCount) {
+        return generateTransactionStatement(accountNumber, rowCount, Lang.CZ);
+    }
+
+    public String generateTransactionStatement(String accountNumber, int rowCount, Lang lang) {
+        List<Row> rows = generateRows(rowCount);
+        LocalDate periodFrom = rows.get(0).tradeDate.toLocalDate().withDayOfMonth(1);
+        LocalDate periodTo = rows.get(rows.size() - 1).tradeDate.toLocalDate();
+        return formatStatement(accountNumber, lang, periodFrom, periodTo, rows);
+    }
+
+    /**
+     * Generates the same rows as {@link #generateTransactionStatement(String, int, Lang)}
+     * but splits them into yearly statements with contiguous periods, the way they are usually downloaded.
+     */
+    public Map<Integer, String> generateYearlyTransactionStatements(String accountNumber, int rowCount, Lang lang) {
+        List<Row> rows = generateRows(rowCount);
+        Map<Integer, List<Row>> yearRows = new LinkedHashMap<>();
+        for (Row row : rows) {
+            yearRows.computeIfAbsent(row.tradeDate.getYear(), k -> new ArrayList<>()).add(row);
+        }
+        LocalDate lastDay = rows.get(rows.size() - 1).tradeDate.toLocalDate();
+        Map<Integer, String> results = new LinkedHashMap<>();
+        for (Map.Entry<Integer, List<Row>> e : yearRows.entrySet()) {
+            int year = e.getKey();
+            LocalDate periodFrom = LocalDate.of(year, 1, 1);
+            LocalDate periodTo = year == lastDay.getYear() ? lastDay : LocalDate.of(year, 12, 31);
+            results.put(year, formatStatement(accountNumber, lang, periodFrom, periodTo, e.getValue()));
+        }
+        return results;
+    }
+
+    private List<Row> generateRows(int rowCount) {
+        if (rowCount <= 0) {
+            throw new IllegalArgumentException("Expected positive rowCount but got: " + rowCount);
+        }
+        random = new Random(seed);
+        instruments = new ArrayList<>();
+        symbolGenerations = new HashMap<>();
+        symbolCountries = new LinkedHashMap<>();
+        for (Instrument initialInstrument : LazyHolder.INITIAL_INSTRUMENTS) {
+            addInstrument(new Instrument(initialInstrument.root, initialInstrument.symbol,
+                    initialInstrument.country, initialInstrument.market, initialInstrument.price));
+        }
+        now = LazyHolder.START;
+        nextOrderId = 100_000_000L;
+
+        List<Row> rows = new ArrayList<>(rowCount);
+        addDeposit(rows, Currency.CZK);
+        while (rows.size() < rowCount) {
+            // Close to the requested size only single-row events are generated, so the row count is exact
+            int dice = rowCount - rows.size() < MAX_EVENT_ROWS ? random.nextInt(480) : random.nextInt(1000);
+            if (dice < 340) {
+                addBuy(rows);
+            } else if (dice < 480) {
+                addSell(rows);
+            } else if (dice < 530) {
+                addDeposit(rows, randomCurrency());
+            } else if (dice < 560) {
+                addWithdrawal(rows);
+            } else if (dice < 640) {
+                addFx(rows);
+            } else if (dice < 860) {
+                addCashDividend(rows);
+            } else if (dice < 870) {
+                addDividendTax(rows);
+            } else if (dice < 885) {
+                addCapitalDividend(rows);
+            } else if (dice < 900) {
+                addStockDividend(rows);
+            } else if (dice < 910) {
+                addDividendReversal(rows);
+            } else if (dice < 925) {
+                addTaxRefund(rows);
+            } else if (dice < 945) {
+                addAdrFee(rows);
+            } else if (dice < 950) {
+                addReclamation(rows);
+            } else if (dice < 960) {
+                addSpinOff(rows);
+            } else if (dice < 968) {
+                addLiquidation(rows);
+            } else if (dice < 979) {
+                addInstrumentChange(rows);
+            } else if (dice < 990) {
+                addSplit(rows);
+            } else {
+                addMerger(rows);
+            }
+        }
+        return rows;
+    }
+
+    private void addInstrument(Instrument instrument) {
+        instruments.add(instrument);
+        Country oldCountry = symbolCountries.put(instrument.symbol, instrument.country);
+        if (oldCountry != null && oldCountry != instrument.country) {
+            throw new IllegalStateException(format("Symbol %s used for %s and %s", instrument.symbol, oldCountry, instrument.country));
+        }
+    }
+
+    /**
+     * Creates a new instrument with a never used symbol derived from the given one.
+     */
+    private Instrument newSuccessor(Instrument instrument) {
+        int generation = symbolGenerations.merge(instrument.root, 1, Integer::sum);
+        return new Instrument(instrument.root, instrument.root + generation, instrument.country, instrument.market, instrument.price);
+    }
+
+    /**
+     * Removes the instrument from trading and lists a fresh one in its place, so that the pool never gets exhausted.
+     */
+    private void delist(Instrument instrument) {
+        instruments.remove(instrument);
+        addInstrument(newSuccessor(instrument));
+    }
+
+    private void advanceTime() {
+        now = now.plusMinutes(1 + random.nextInt(30));
+        if (now.getHour() > LazyHolder.LAST_HOUR) {
+            LocalDate nextDay = now.toLocalDate().plusDays(1);
+            while (nextDay.getDayOfWeek() == DayOfWeek.SATURDAY || nextDay.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                nextDay = nextDay.plusDays(1);
+            }
+            now = nextDay.atTime(LazyHolder.FIRST_HOUR, random.nextInt(60));
+        }
+    }
+
+    private Currency randomCurrency() {
+        Currency[] ccys = Currency.values();
+        return ccys[random.nextInt(ccys.length)];
+    }
+
+    private Instrument randomInstrument() {
+        return instruments.get(random.nextInt(instruments.size()));
+    }
+
+    private Instrument randomHeldInstrument(Country country) {
+        List<Instrument> held = new ArrayList<>();
+        for (Instrument instrument : instruments) {
+            if (instrument.held.signum() > 0 && (country == null || instrument.country == country)) {
+                held.add(instrument);
+            }
+        }
+        return held.isEmpty() ? null : held.get(random.nextInt(held.size()));
+    }
+
+    private BigDecimal randomAmount(int min, int max) {
+        return BigDecimal.valueOf(min * 100L + random.nextInt((max - min) * 100)).movePointLeft(2);
+    }
+
+    private BigDecimal randomDividend(Instrument instrument) {
+        BigDecimal perShare = BigDecimal.valueOf(10 + random.nextInt(290)).movePointLeft(2);
+        return instrument.held.multiply(perShare).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal percentOf(BigDecimal amount, String percent) {
+        return amount.multiply(new BigDecimal(percent)).movePointLeft(2).setScale(2, RoundingMode.HALF_UP).max(new BigDecimal("0.01"));
+    }
+
+    private Row newRow(String text) {
+        Row row = new Row();
+        row.tradeDate = now;
+        row.settlementDate = now.toLocalDate();
+        row.text = text;
+        return row;
+    }
+
+    private Row newCashRow(String text, Currency ccy, BigDecimal volume) {
+        Row row = newRow(text);
+        row.shares = BigDecimal.ZERO;
+        row.currency = ccy.name();
+        row.volumeCcy = ccy;
+        row.volume = volume;
+        return row;
+    }
+
+    private Row newFeeRow(String text, Currency ccy, BigDecimal fee) {
+        Row row = newCashRow(text, ccy, fee.negate());
+        row.specialMarket = SpecialMarket.FEE;
+        row.fees = fee;
+        return row;
+    }
+
+    private Row newInstrumentCashRow(String text, Instrument instrument, BigDecimal volume) {
+        Currency ccy = instrument.country.getCcy();
+        Row row = newRow(text);
+        row.rawSymbol = instrument.symbol;
+        row.price = BigDecimal.ONE;
+        row.shares = volume;
+        row.currency = ccy.name();
+        row.volumeCcy = ccy;
+        row.volume = volume;
+        return row;
+    }
+
+    private Row newTransformationRow(String text, RawBrokerTranDirection direction, String rawSymbol, BigDecimal shares) {
+        Row row = newRow(text);
+        row.specialMarket = SpecialMarket.TRANSFORMATION;
+        row.direction = direction;
+        row.rawSymbol = rawSymbol;
+        row.price = BigDecimal.ZERO;
+        row.shares = shares;
+        return row;
+    }
+
+    private void addDeposit(List<Row> rows, Currency ccy) {
+        advanceTime();
+        String text;
+        switch (random.nextInt(4)) {
+            case 0:
+                text = "Vklad Bezhotovostní vklad";
+                break;
+            case 1:
+                text = "v Bezhotovostní vklad";
+                break;
+            case 2:
+                text = "Převod z účtu " + LazyHolder.COUNTER_ACCOUNT;
+                break;
+            default:
+                text = "Vloženo na účet z " + LazyHolder.COUNTER_ACCOUNT + " Bezhotovostní vklad";
+        }
+        BigDecimal amount = ccy == Currency.CZK ? randomAmount(20_000, 200_000) : randomAmount(1_000, 10_000);
+        rows.add(newCashRow(text, ccy, amount));
+    }
+
+    private void addWithdrawal(List<Row> rows) {
+        advanceTime();
+        Currency ccy = randomCurrency();
+        Row row = newCashRow("Převod na účet " + LazyHolder.COUNTER_ACCOUNT, ccy, randomAmount(100, 5_000).negate());
+        row.direction = RawBrokerTranDirection.BANK_TRANSFER;
+        rows.add(row);
+        if (ccy != Currency.CZK) {
+            rows.add(newFeeRow("Poplatek za převod peněz", ccy, randomAmount(1, 5)));
+        }
+    }
+
+    private void addFx(List<Row> rows) {
+        advanceTime();
+        boolean buy = random.nextBoolean();
+        Currency foreignCcy = random.nextBoolean() ? Currency.USD : Currency.EUR;
+        BigDecimal rate = foreignCcy == Currency.USD ? randomAmount(20, 25) : randomAmount(23, 27);
+        BigDecimal amount = randomAmount(100, 10_000);
+        BigDecimal volume = amount.multiply(rate).setScale(2, RoundingMode.HALF_UP);
+        Row row = newCashRow(buy ? "Nákup" : "Prodej", Currency.CZK, buy ? volume.negate() : volume);
+        row.direction = RawBrokerTranDirection.CURRENCY_CONVERSION;
+        row.rawSymbol = foreignCcy.name();
+        row.price = rate;
+        row.shares = amount;
+        rows.add(row);
+    }
+
+    private Row newTradeRow(String text, Instrument instrument, BigDecimal shares) {
+        BigDecimal change = BigDecimal.valueOf(80 + random.nextInt(41)).movePointLeft(2);
+        BigDecimal price = instrument.price.multiply(change).setScale(2, RoundingMode.HALF_UP).max(new BigDecimal("0.01"));
+        BigDecimal volume = price.multiply(shares).setScale(2, RoundingMode.HALF_UP);
+        Currency ccy = instrument.country.getCcy();
+        Row row = newRow(text);
+        row.rawSymbol = instrument.symbol;
+        row.price = price;
+        row.shares = shares;
+        row.currency = ccy.name();
+        row.volumeCcy = ccy;
+        row.volume = volume;
+        row.fees = volume.multiply(new BigDecimal("0.0029")).setScale(2, RoundingMode.HALF_UP).max(new BigDecimal("1.00"));
+        row.market = instrument.market;
+        row.instrumentName = instrument.symbol + " Corp.";
+        row.settlementDate = now.toLocalDate().plusDays(2);
+        row.orderId = String.valueOf(nextOrderId++);
+        return row;
+    }
+
+    private void addBuy(List<Row> rows) {
+        advanceTime();
+        Instrument instrument = randomInstrument();
+        BigDecimal shares = BigDecimal.valueOf(1 + random.nextInt(50));
+        Row row = newTradeRow("Nákup", instrument, shares);
+        row.direction = RawBrokerTranDirection.BUY;
+        row.volume = row.volume.negate();
+        rows.add(row);
+        instrument.held = instrument.held.add(shares);
+    }
+
+    private void addSell(List<Row> rows) {
+        Instrument instrument = randomHeldInstrument(null);
+        if (instrument == null) {
+            addBuy(rows);
+            return;
+        }
+        advanceTime();
+        BigDecimal shares = BigDecimal.valueOf(1 + random.nextInt(instrument.held.intValueExact()));
+        Row row = newTradeRow("Prodej", instrument, shares);
+        row.direction = RawBrokerTranDirection.SELL;
+        rows.add(row);
+        instrument.held = instrument.held.subtract(shares);
+    }
+
+    private void addCashDividend(List<Row> rows) {
+        Instrument instrument = randomHeldInstrument(null);
+        if (instrument == null) {
+            addBuy(rows);
+            return;
+        }
+        advanceTime();
+        String symbol = instrument.symbol;
+        BigDecimal amount = randomDividend(instrument);
+
+        int variant = random.nextInt(6);
+        if (variant == 0) {
+            String taxRate = instrument.country == Country.DE ? "26,38" : "15";
+            String taxNote = random.nextBoolean() ? "čistá" : "po zdanění";
+            BigDecimal netAmount = amount.subtract(percentOf(amount, taxRate.replace(',', '.'))).max(new BigDecimal("0.01"));
+            rows.add(newInstrumentCashRow(format("%s - Dividenda (%s, daň %s %%)", symbol, taxNote, taxRate), instrument, netAmount));
+        } else if (variant == 1) {
+            rows.add(newInstrumentCashRow(format("%s - Divi. Cash Dividend", symbol), instrument, amount));
+        } else if (variant == 2) {
+            rows.add(newInstrumentCashRow(format("%s - Dividenda", symbol), instrument, amount));
+        } else if (variant == 3 || variant == 4) {
+            String taxText = variant == 3 ? "Daň z divid. zaplacená" : "Daň z dividend zaplacená";
+            rows.add(newInstrumentCashRow(format("%s - Dividenda", symbol), instrument, amount));
+            rows.add(newInstrumentCashRow(format("%s - %s", symbol, taxText), instrument, percentOf(amount, "15").negate()));
+        } else {
+            rows.add(newInstrumentCashRow(format("%s - Dividenda", symbol), instrument, amount));
+            rows.add(newFeeRow("Poplatek za připsání dividend", instrument.country.getCcy(), percentOf(amount, "5")));
+        }
+    }
+
+    private void addDividendTax(List<Row> rows) {
+        Instrument instrument = randomHeldInstrument(null);
+        if (instrument == null) {
+            addBuy(rows);
+            return;
+        }
+        advanceTime();
+        BigDecimal tax = percentOf(randomDividend(instrument), "15");
+        rows.add(newInstrumentCashRow(format("%s - Daň z divid. zaplacená", instrument.symbol), instrument, tax.negate()));
+    }
+
+    private void addCapitalDividend(List<Row> rows) {
+        Instrument instrument = randomHeldInstrument(null);
+        if (instrument == null) {
+            addBuy(rows);
+            return;
+        }
+        advanceTime();
+        rows.add(newInstrumentCashRow(format("%s - Return of Principal", instrument.symbol), instrument, randomDividend(instrument)));
+    }
+
+    private void addStockDividend(List<Row> rows) {
+        Instrument instrument = randomHeldInstrument(null);
+        if (instrument == null) {
+            addBuy(rows);
+            return;
+        }
+        advanceTime();
+        if (random.nextInt(3) == 0) {
+            BigDecimal compensation = randomAmount(1, 50);
+            rows.add(newInstrumentCashRow(format("%s - Finanční kompenzace - Stock Dividend", instrument.symbol), instrument, compensation));
+        } else {
+            BigDecimal shares = instrument.held.divide(BigDecimal.valueOf(20), 0, RoundingMode.DOWN).max(BigDecimal.ONE);
+            Row row = newRow(format("%s - Stock Dividend", instrument.symbol));
+            row.rawSymbol = instrument.symbol;
+            row.price = BigDecimal.ONE;
+            row.shares = shares;
+            rows.add(row);
+            instrument.held = instrument.held.add(shares);
+        }
+    }
+
+    private void addDividendReversal(List<Row> rows) {
+        Instrument instrument = randomHeldInstrument(null);
+        if (instrument == null) {
+            addBuy(rows);
+            return;
+        }
+        advanceTime();
+        String originalDay = LazyHolder.TEXT_DAY_FORMAT.format(now.toLocalDate().minusDays(7 + random.nextInt(60)));
+        BigDecimal amount = randomDividend(instrument);
+        rows.add(newInstrumentCashRow(format("%s - Oprava dividendy z %s", instrument.symbol, originalDay), instrument, amount.negate()));
+        rows.add(newInstrumentCashRow(format("%s - Oprava daně z dividendy z %s", instrument.symbol, originalDay), instrument, percentOf(amount, "15")));
+    }
+
+    private void addTaxRefund(List<Row> rows) {
+        Instrument instrument = randomHeldInstrument(null);
+        if (instrument == null) {
+            addBuy(rows);
+            return;
+        }
+        advanceTime();
+        String text = instrument.country == Country.US && random.nextBoolean()
+                ? format("%s - Refundable U.S. Fed Tax Reclassified By Issuer", instrument.symbol)
+                : format("%s - Tax Refund", instrument.symbol);
+        rows.add(newInstrumentCashRow(text, instrument, percentOf(randomDividend(instrument), "15")));
+    }
+
+    private void addAdrFee(List<Row> rows) {
+        Instrument instrument = randomHeldInstrument(Country.US);
+        if (instrument == null) {
+            addBuy(rows);
+            return;
+        }
+        advanceTime();
+        Row row = newCashRow(format("%s - ADR Fee", instrument.symbol), Currency.USD, percentOf(instrument.held, "2").negate());
+        row.specialMarket = SpecialMarket.FEE;
+        row.rawSymbol = instrument.symbol;
+        rows.add(row);
+    }
+
+    private void addReclamation(List<Row> rows) {
+        advanceTime();
+        rows.add(newCashRow("Reklamace poplatku", Currency.CZK, randomAmount(10, 200)));
+    }
+
+    /**
+     * Spin-off brings four rows: the pair with the fair market value, the tax and the shares of the child company.
+     * Fio reports the child symbol in the currency column of the parent row.
+     */
+    private void addSpinOff(List<Row> rows) {
+        Instrument parent = randomHeldInstrument(null);
+        if (parent == null) {
+            addBuy(rows);
+            return;
+        }
+        BigDecimal value = randomDividend(parent);
+        String valueText = format("%s - Spin-off Fair Market Value", parent.symbol);
+
+        advanceTime();
+        rows.add(newInstrumentCashRow(valueText, parent, value));
+        rows.add(newInstrumentCashRow(valueText, parent, value.negate()));
+
+        advanceTime();
+        rows.add(newInstrumentCashRow(format("%s - Spin-off - daň zaplacená", parent.symbol), parent, percentOf(value, "15").negate()));
+
+        advanceTime();
+        Instrument child = newSuccessor(parent);
+        child.price = parent.price.divide(BigDecimal.valueOf(5), 2, RoundingMode.HALF_UP).max(new BigDecimal("0.01"));
+        child.held = parent.held.divide(BigDecimal.valueOf(3), 0, RoundingMode.DOWN).max(BigDecimal.ONE);
+        Row row = newRow(format("%s - Spin-off %s", parent.symbol, child.symbol));
+        row.rawSymbol = parent.symbol;
+        row.currency = child.symbol;
+        row.price = BigDecimal.ONE;
+        row.shares = child.held;
+        rows.add(row);
+        addInstrument(child);
+    }
+
+    private void addLiquidation(List<Row> rows) {
+        Instrument instrument = randomHeldInstrument(null);
+        if (instrument == null) {
+            addBuy(rows);
+            return;
+        }
+        advanceTime();
+        if (random.nextBoolean()) {
+            BigDecimal payout = instrument.price.multiply(instrument.held).setScale(2, RoundingMode.HALF_UP);
+            rows.add(newInstrumentCashRow(format("%s - Security Liquidated", instrument.symbol), instrument, payout));
+            Row row = newRow(format("Security Liquidated - %s", instrument.symbol));
+            row.direction = RawBrokerTranDirection.SELL;
+            row.rawSymbol = instrument.symbol;
+            row.price = BigDecimal.ZERO;
+            row.shares = instrument.held;
+            row.currency = instrument.country.getCcy().name();
+            row.volumeCcy = instrument.country.getCcy();
+            row.market = instrument.market;
+            rows.add(row);
+        } else {
+            rows.add(newTransformationRow(format("%s - Security Deleted As Worthless", instrument.symbol),
+                    RawBrokerTranDirection.SELL, instrument.symbol, instrument.held));
+        }
+        instrument.held = BigDecimal.ZERO;
+        delist(instrument);
+    }
+
+    /**
+     * Ticker changes, listing changes, ISIN changes and reorganizations;
+     * the order of the parent and the child row varies as it does in real statements.
+     */
+    private void addInstrumentChange(List<Row> rows) {
+        Instrument parent = randomHeldInstrument(null);
+        if (parent == null) {
+            addBuy(rows);
+            return;
+        }
+        advanceTime();
+        BigDecimal shares = parent.held;
+        String parentRawSymbol = parent.symbol;
+        String childSymbol;
+        String text;
+        int variant = random.nextInt(4);
+        if (variant == 0 || variant == 1) {
+            Instrument child = newSuccessor(parent);
+            child.held = shares;
+            instruments.remove(parent);
+            addInstrument(child);
+            childSymbol = child.symbol;
+            String changeFormat = variant == 0 ? "%s - Ticker Change: %s -> %s" : "%s - Change of Listing: %s -> %s";
+            text = format(changeFormat, parent.symbol, parent.symbol, childSymbol);
+        } else if (variant == 2) {
+            childSymbol = parent.symbol;
+            text = format("%s - Change in Security ID (ISIN Change)", parent.symbol);
+        } else {
+            childSymbol = parent.symbol;
+            parentRawSymbol = parent.symbol + "*";
+            text = format("%s - Reorganization", parent.symbol);
+        }
+        Row parentRow = newTransformationRow(text, RawBrokerTranDirection.SELL, parentRawSymbol, shares);
+        Row childRow = newTransformationRow(text, RawBrokerTranDirection.BUY, childSymbol, shares);
+        if (random.nextBoolean()) {
+            rows.add(parentRow);
+            rows.add(childRow);
+        } else {
+            rows.add(childRow);
+            rows.add(parentRow);
+        }
+    }
+
+    private void addSplit(List<Row> rows) {
+        Instrument instrument = randomHeldInstrument(null);
+        if (instrument == null) {
+            addBuy(rows);
+            return;
+        }
+        advanceTime();
+        int ratio = 2 + random.nextInt(3);
+        BigDecimal newShares = instrument.held.multiply(BigDecimal.valueOf(ratio));
+        String text = format("%s - Stock Split %s for 1", instrument.symbol, ratio);
+        rows.add(newTransformationRow(text, RawBrokerTranDirection.SELL, instrument.symbol, instrument.held));
+        rows.add(newTransformationRow(text, RawBrokerTranDirection.BUY, instrument.symbol, newShares));
+        instrument.held = newShares;
+        instrument.price = instrument.price.divide(BigDecimal.valueOf(ratio), 2, RoundingMode.HALF_UP).max(new BigDecimal("0.01"));
+    }
+
+    /**
+     * The mapper expects the child (buy) row to be processed before the parent (sell) row.
+     */
+    private void addMerger(List<Row> rows) {
+        Instrument parent = randomHeldInstrument(null);
+        if (parent == null) {
+            addBuy(rows);
+            return;
+        }
+        List<Instrument> targets = new ArrayList<>();
+        for (Instrument instrument : instruments) {
+            if (instrument != parent && instrument.country == parent.country) {
+                targets.add(instrument);
+            }
+        }
+        if (targets.isEmpty()) {
+            addBuy(rows);
+            return;
+        }
+        advanceTime();
+        Instrument target = targets.get(random.nextInt(targets.size()));
+        BigDecimal childShares = parent.held.divide(BigDecimal.valueOf(2), 0, RoundingMode.DOWN).max(BigDecimal.ONE);
+        String text = format("%s - Stock Merger %s -> %s", parent.symbol, parent.symbol, target.symbol);
+        rows.add(newTransformationRow(text, RawBrokerTranDirection.BUY, target.symbol, childShares));
+        rows.add(newTransformationRow(text, RawBrokerTranDirection.SELL, parent.symbol, parent.held));
+        target.held = target.held.add(childShares);
+        parent.held = BigDecimal.ZERO;
+        delist(parent);
+    }
+
+    /**
+     * Fio lists the newest transactions first.
+     * Rows sharing a trade date are processed in the reverse order of their appearance,
+     * so the rows are simply written from the last one.
+     */
+    private String formatStatement(String accountNumber, Lang lang, LocalDate periodFrom, LocalDate periodTo, List<Row> rows) {
+        StringBuilder sb = new StringBuilder(rows.size() * 160 + 512);
+        sb.append(format(accountNumberLine(lang), accountNumber)).append("\r\n");
+        sb.append(createdLabel(lang)).append(LazyHolder.TRADE_DATE_FORMAT.format(LazyHolder.START)).append("\r\n");
+        sb.append(periodLabel(lang))
+                .append(LazyHolder.DAY_FORMAT.format(periodFrom))
+                .append(" - ")
+                .append(LazyHolder.DAY_FORMAT.format(periodTo))
+                .append("\r\n");
+        sb.append("\r\n");
+
+        TranColumnDef[] columns = TranColumnDef.values();
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                sb.append(';');
+            }
+            sb.append(columns[i].getTitle(lang));
+        }
+        sb.append("\r\n");
+
+        Map<TranColumnDef, String> cells = new EnumMap<>(TranColumnDef.class);
+        for (int r = rows.size() - 1; r >= 0; r--) {
+            Row row = rows.get(r);
+            cells.clear();
+            cells.put(TranColumnDef.TRADE_DATE, LazyHolder.TRADE_DATE_FORMAT.format(row.tradeDate));
+            cells.put(TranColumnDef.DIRECTION, direction(lang, row.direction));
+            cells.put(TranColumnDef.SYMBOL, row.rawSymbol);
+            cells.put(TranColumnDef.PRICE, formatDecimal(row.price));
+            cells.put(TranColumnDef.SHARES, formatDecimal(row.shares));
+            cells.put(TranColumnDef.CURRENCY, row.currency);
+            if (row.volumeCcy == Currency.CZK) {
+                cells.put(TranColumnDef.VOLUME_CZK, formatDecimal(row.volume));
+                cells.put(TranColumnDef.FEES_CZK, formatDecimal(row.fees));
+            } else if (row.volumeCcy == Currency.USD) {
+                cells.put(TranColumnDef.VOLUME_USD, formatDecimal(row.volume));
+                cells.put(TranColumnDef.FEES_USD, formatDecimal(row.fees));
+            } else if (row.volumeCcy == Currency.EUR) {
+                cells.put(TranColumnDef.VOLUME_EUR, formatDecimal(row.volume));
+                cells.put(TranColumnDef.FEES_EUR, formatDecimal(row.fees));
+            }
+            cells.put(TranColumnDef.MARKET, row.specialMarket == null ? row.market : market(lang, row.specialMarket));
+            cells.put(TranColumnDef.INSTRUMENT_NAME, row.instrumentName);
+            cells.put(TranColumnDef.SETTLEMENT_DATE, LazyHolder.DAY_FORMAT.format(row.settlementDate));
+            cells.put(TranColumnDef.STATUS, status(lang));
+            cells.put(TranColumnDef.ORDER_ID, row.orderId);
+            cells.put(TranColumnDef.TEXT, row.text);
+
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    sb.append(';');
+                }
+                String cell = cells.get(columns[i]);
+                if (cell != null) {
+                    sb.append(cell);
+                }
+            }
+            sb.append("\r\n");
+        }
+        return sb.toString();
+    }
+
+    private static String accountNumberLine(Lang lang) {
+        switch (lang) {
+            case CZ:
+                return "Přehled transakcí;\"Číslo účtu: %s\"";
+            case SK:
+                return "Prehľad transakcií;\"Číslo účtu: %s\"";
+            case EN:
+                return "Overview of transactions;\"Account number: %s\"";
+        }
+        throw new IllegalArgumentException("Unexpected value: " + lang);
+    }
+
+    private static String createdLabel(Lang lang) {
+        switch (lang) {
+            case CZ:
+                return "Vytvořeno: ";
+            case SK:
+                return "Vytvorené: ";
+            case EN:
+                return "Created: ";
+        }
+        throw new IllegalArgumentException("Unexpected value: " + lang);
+    }
+
+    private static String periodLabel(Lang lang) {
+        switch (lang) {
+            case CZ:
+                return "Období: ";
+            case SK:
+                return "Obdobie: ";
+            case EN:
+                return "Period: ";
+        }
+        throw new IllegalArgumentException("Unexpected value: " + lang);
+    }
+
+    private static String status(Lang lang) {
+        switch (lang) {
+            case CZ:
+                return "Provedeno";
+            case SK:
+                return "Vykonaný";
+            case EN:
+                return "Executed";
+        }
+        throw new IllegalArgumentException("Unexpected value: " + lang);
+    }
+
+    private static String market(Lang lang, SpecialMarket specialMarket) {
+        switch (lang) {
+            case CZ:
+                return specialMarket == SpecialMarket.FEE ? "Poplatek" : "Transformace";
+            case SK:
+                return specialMarket == SpecialMarket.FEE ? "Poplatok" : "Transformácia";
+            case EN:
+                return specialMarket == SpecialMarket.FEE ? "Fee" : "Transformation";
+        }
+        throw new IllegalArgumentException("Unexpected value: " + lang);
+    }
+
+    private static String direction(Lang lang, RawBrokerTranDirection direction) {
+        if (direction == null) {
+            return null;
+        }
+        switch (direction) {
+            case BUY:
+                return lang == Lang.EN ? "Buy" : "Nákup";
+            case SELL:
+                return lang == Lang.EN ? "Sell" : lang == Lang.SK ? "Predaj" : "Prodej";
+            case BANK_TRANSFER:
+                return lang == Lang.EN ? "Bank transfer" : lang == Lang.SK ? "Bankový prevod" : "Bankovní převod";
+            case CURRENCY_CONVERSION:
+                return lang == Lang.EN ? "Currency Conversion" : lang == Lang.SK ? "Prevod mezi menami" : "Převod mezi měnami";
+        }
+        throw new IllegalArgumentException("Unexpected value: " + direction);
+    }
+
+    /**
+     * Formats a number the way Fio does, e.g. {@code -1 234,50}.
+     */
+    private static String formatDecimal(BigDecimal number) {
+        if (number == null) {
+            return null;
+        }
+        String plain = number.abs().toPlainString();
+        int dotIndex = plain.indexOf('.');
+        String integerPart = dotIndex < 0 ? plain : plain.substring(0, dotIndex);
+        StringBuilder sb = new StringBuilder(plain.length() + 8);
+        if (number.signum() < 0) {
+            sb.append('-');
+        }
+        for (int i = 0, length = integerPart.length(); i < length; i++) {
+            if (i > 0 && (length - i) % 3 == 0) {
+                sb.append(' ');
+            }
+            sb.append(integerPart.charAt(i));
+        }
+        if (dotIndex >= 0) {
+            sb.append(',').append(plain, dotIndex + 1, plain.length());
+        }
+        return sb.toString();
+    }
+}
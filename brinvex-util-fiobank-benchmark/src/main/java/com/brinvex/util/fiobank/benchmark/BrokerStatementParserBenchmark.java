@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.benchmark;
+
+import com.brinvex.util.fiobank.api.model.RawBrokerTransactionList;
+import com.brinvex.util.fiobank.impl.broker.parser.BrokerStatementParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Measures {@link BrokerStatementParser#parseTrasnsactionStatement(String)} on a synthetic statement
+ * and its streaming variant {@link BrokerStatementParser#parseTransactionStatement(Reader, Consumer)}
+ * which only counts the transactions instead of collecting them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BrokerStatementParserBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int rows;
+
+    private final BrokerStatementParser parser = new BrokerStatementParser();
+
+    private String statementContent;
+
+    @Setup
+    public void setUp() {
+        statementContent = new BrokerStatementGenerator(BenchmarkData.SEED)
+                .generateTransactionStatement(BenchmarkData.ACCOUNT_NUMBER, rows);
+    }
+
+    @Benchmark
+    public RawBrokerTransactionList parseTransactionStatement(RowCounter rowCounter) {
+        RawBrokerTransactionList rawTranList = parser.parseTrasnsactionStatement(statementContent);
+        rowCounter.rows += rawTranList.getTransactions().size();
+        return rawTranList;
+    }
+
+    @Benchmark
+    public RawBrokerTransactionList parseTransactionStatementStreaming(RowCounter rowCounter) {
+        return parser.parseTransactionStatement(new StringReader(statementContent), rawTran -> rowCounter.rows++);
+    }
+}
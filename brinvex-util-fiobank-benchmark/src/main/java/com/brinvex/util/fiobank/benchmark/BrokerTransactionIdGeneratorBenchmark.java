@@ -0,0 +1,138 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.benchmark;
+
+import com.brinvex.util.fiobank.api.model.Country;
+import com.brinvex.util.fiobank.api.model.Currency;
+import com.brinvex.util.fiobank.api.model.Transaction;
+import com.brinvex.util.fiobank.api.model.TransactionType;
+import com.brinvex.util.fiobank.impl.broker.BrokerTransactionIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link BrokerTransactionIdGenerator#generateTranId(Transaction, Transaction)}
+ * against the {@link String#format(String, Object...)} based generation it replaced.
+ * Each call generates the IDs of a batch of {@value #BATCH_SIZE} trades, every transaction following the previous one,
+ * the secondary result (<code>·rows</code>) counts the generated IDs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BrokerTransactionIdGeneratorBenchmark {
+
+    private static final int BATCH_SIZE = 1024;
+
+    private static final DateTimeFormatter ID_DATE_FORMAT = DateTimeFormatter.ofPattern("yyMMddhhmmss");
+
+    private final BrokerTransactionIdGenerator idGenerator = new BrokerTransactionIdGenerator();
+
+    private Transaction[] transactions;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkData.SEED);
+        LocalDateTime startDateTime = LocalDateTime.parse("2020-01-01T09:00");
+        transactions = new Transaction[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            BigDecimal qty = BigDecimal.valueOf(1 + random.nextInt(100));
+            BigDecimal price = BigDecimal.valueOf(1_000 + random.nextInt(100_000), 2);
+            Transaction tran = new Transaction();
+            tran.setDate(startDateTime.plusDays(random.nextInt(366)).plusMinutes(random.nextInt(8 * 60)).atZone(ZoneId.of("Europe/Prague")));
+            tran.setType(random.nextBoolean() ? TransactionType.BUY : TransactionType.SELL);
+            tran.setCcy(Currency.USD);
+            tran.setCountry(Country.US);
+            tran.setSymbol("SYM" + random.nextInt(50));
+            tran.setQty(qty);
+            tran.setPrice(price);
+            tran.setGrossValue(qty.multiply(price).negate());
+            tran.setNote("Nákup");
+            tran.setId(String.valueOf(i));
+            transactions[i] = tran;
+        }
+    }
+
+    @Benchmark
+    public void generateTranId(Blackhole blackhole, RowCounter rowCounter) {
+        Transaction prevTran = null;
+        for (Transaction tran : transactions) {
+            blackhole.consume(idGenerator.generateTranId(tran, prevTran));
+            prevTran = tran;
+        }
+        rowCounter.rows += BATCH_SIZE;
+    }
+
+    @Benchmark
+    public void generateTranIdFormat(Blackhole blackhole, RowCounter rowCounter) {
+        Transaction prevTran = null;
+        for (Transaction tran : transactions) {
+            blackhole.consume(formatTranId(tran, prevTran));
+            prevTran = tran;
+        }
+        rowCounter.rows += BATCH_SIZE;
+    }
+
+    private static String formatTranId(Transaction tran, Transaction prevTran) {
+        BigDecimal qty = tran.getQty();
+        BigDecimal price = tran.getPrice();
+        BigDecimal grossValue = tran.getGrossValue();
+        String id = String.format("%s/%s/%s/%s/%s/%s/%s/%s/%s",
+                ID_DATE_FORMAT.format(tran.getDate()),
+                tran.getType(),
+                tran.getCcy(),
+                tran.getCountry(),
+                tran.getSymbol(),
+                grossValue == null ? "" : grossValue.unscaledValue(),
+                qty == null ? "" : qty.unscaledValue(),
+                price == null ? "" : price.unscaledValue(),
+                Objects.hashCode(tran.getNote())
+        );
+        if (prevTran != null) {
+            String prevId = prevTran.getId();
+            if (id.equals(prevId) ||
+                (tran.getDate().isEqual(prevTran.getDate())
+                 && Objects.equals(tran.getType(), prevTran.getType())
+                 && Objects.equals(tran.getCcy(), prevTran.getCcy())
+                 && Objects.equals(tran.getCountry(), prevTran.getCountry())
+                 && Objects.equals(tran.getSymbol(), prevTran.getSymbol())
+                )
+            ) {
+                id = id + "/" + Objects.hash(prevId);
+            }
+        }
+        return id;
+    }
+}
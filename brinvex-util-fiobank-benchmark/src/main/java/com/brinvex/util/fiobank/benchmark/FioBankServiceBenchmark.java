@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.benchmark;
+
+import com.brinvex.util.fiobank.api.model.Portfolio;
+import com.brinvex.util.fiobank.api.model.RawBankTransactionList;
+import com.brinvex.util.fiobank.impl.bank.FioBankServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the bank pipeline, i.e. {@link FioBankServiceImpl#parseStatements(Stream)}
+ * (parsing, merging and sorting) and {@link FioBankServiceImpl#processStatements(Stream)}
+ * from the statement content to the portfolio.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class FioBankServiceBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"0", "5", "15"})
+    public int additionalColumns;
+
+    private final FioBankServiceImpl bankService = new FioBankServiceImpl();
+
+    private String statementContent;
+
+    @Setup
+    public void setUp() {
+        statementContent = new BankStatementGenerator(BenchmarkData.SEED)
+                .generateStatement(BenchmarkData.ACCOUNT_NUMBER, rows, additionalColumns);
+    }
+
+    @Benchmark
+    public RawBankTransactionList parseStatements(RowCounter rowCounter) {
+        RawBankTransactionList rawTranList = bankService.parseStatements(Stream.of(statementContent));
+        rowCounter.rows += rows;
+        return rawTranList;
+    }
+
+    @Benchmark
+    public Portfolio processStatements(RowCounter rowCounter) {
+        Portfolio ptf = bankService.processStatements(Stream.of(statementContent));
+        rowCounter.rows += rows;
+        return ptf;
+    }
+}
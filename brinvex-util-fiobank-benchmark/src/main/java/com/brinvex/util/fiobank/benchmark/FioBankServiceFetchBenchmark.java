@@ -0,0 +1,138 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.benchmark;
+
+import com.brinvex.util.fiobank.api.model.BankStatementFormat;
+import com.brinvex.util.fiobank.api.model.RawBankTransactionList;
+import com.brinvex.util.fiobank.impl.bank.FioBankServiceImpl;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures fetching a synthetic XML statement from a local server standing in for the Fio API:
+ * with a new {@link HttpClient} per call as the service used to do, with the shared client of the service,
+ * and the buffered fetch and parse against {@link FioBankServiceImpl#fetchTransactions}, which parses the body as it arrives.
+ * The local server uses plain HTTP, so the cost of the TLS handshake, which the shared client saves as well, is not included.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class FioBankServiceFetchBenchmark {
+
+    private static final LocalDate FROM_DAY = LocalDate.parse("2019-01-01");
+
+    private static final LocalDate TO_DAY = LocalDate.parse("2023-12-31");
+
+    @Param({"100", "10000", "100000"})
+    public int rows;
+
+    private HttpServer server;
+
+    private ExecutorService serverExecutor;
+
+    private FioBankServiceImpl bankService;
+
+    private String statementUrl;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] statementBytes = new BankStatementGenerator(BenchmarkData.SEED)
+                .generateStatement(BenchmarkData.ACCOUNT_NUMBER, rows, 5)
+                .getBytes(StandardCharsets.UTF_8);
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(200, statementBytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(statementBytes);
+            }
+        });
+        server.setExecutor(serverExecutor);
+        server.start();
+        statementUrl = "http://localhost:" + server.getAddress().getPort() + "/transactions.xml";
+        bankService = new FioBankServiceImpl() {
+            @Override
+            protected String statementUrl(String apiKey, LocalDate fromDayIncl, LocalDate toDayIncl, BankStatementFormat format) {
+                return statementUrl;
+            }
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public String fetchStatementNewClient(RowCounter rowCounter) throws IOException, InterruptedException {
+        HttpRequest req = HttpRequest.newBuilder(URI.create(statementUrl)).build();
+        String statementContent = HttpClient.newHttpClient().send(req, HttpResponse.BodyHandlers.ofString()).body();
+        rowCounter.rows += rows;
+        return statementContent;
+    }
+
+    @Benchmark
+    public String fetchStatement(RowCounter rowCounter) {
+        String statementContent = bankService.fetchStatement(BenchmarkData.ACCOUNT_NUMBER, FROM_DAY, TO_DAY, BankStatementFormat.XML);
+        rowCounter.rows += rows;
+        return statementContent;
+    }
+
+    @Benchmark
+    public RawBankTransactionList fetchStatementAndParse(RowCounter rowCounter) {
+        String statementContent = bankService.fetchStatement(BenchmarkData.ACCOUNT_NUMBER, FROM_DAY, TO_DAY, BankStatementFormat.XML);
+        RawBankTransactionList rawTranList = bankService.parseStatements(Stream.of(statementContent));
+        rowCounter.rows += rows;
+        return rawTranList;
+    }
+
+    @Benchmark
+    public RawBankTransactionList fetchTransactions(RowCounter rowCounter) {
+        RawBankTransactionList rawTranList = bankService.fetchTransactions(BenchmarkData.ACCOUNT_NUMBER, FROM_DAY, TO_DAY, BankStatementFormat.XML);
+        rowCounter.rows += rows;
+        return rawTranList;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.benchmark;
+
+import com.brinvex.util.fiobank.api.model.Lang;
+import com.brinvex.util.fiobank.api.model.RawBrokerTransactionList;
+import com.brinvex.util.fiobank.impl.broker.FioBrokerServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading and parsing yearly statement files,
+ * one after another by {@link FioBrokerServiceImpl#parseTransactionStatements(Collection)}
+ * and concurrently by {@link FioBrokerServiceImpl#parseTransactionStatements(Collection, Executor, int)}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class FioBrokerServiceFilesBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private final FioBrokerServiceImpl brokerService = new FioBrokerServiceImpl();
+
+    private Path folder;
+
+    private List<Path> filePaths;
+
+    private ForkJoinPool executor;
+
+    @Setup
+    public void setUp() throws IOException {
+        Map<Integer, String> statements = new BrokerStatementGenerator(BenchmarkData.SEED)
+                .generateYearlyTransactionStatements(BenchmarkData.ACCOUNT_NUMBER, rows, Lang.CZ);
+        Charset charset = brokerService.getStatmentDefaultCharset();
+        folder = Files.createTempDirectory("fio-broker-benchmark");
+        filePaths = new ArrayList<>();
+        for (Map.Entry<Integer, String> e : statements.entrySet()) {
+            Path filePath = folder.resolve(String.format("Fio_Broker_Transactions_%s_CZ.csv", e.getKey()));
+            filePaths.add(Files.writeString(filePath, e.getValue(), charset));
+        }
+        executor = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        executor.shutdown();
+        for (Path filePath : filePaths) {
+            Files.delete(filePath);
+        }
+        Files.delete(folder);
+    }
+
+    @Benchmark
+    public RawBrokerTransactionList parseTransactionStatements(RowCounter rowCounter) {
+        RawBrokerTransactionList rawTranList = brokerService.parseTransactionStatements(filePaths);
+        rowCounter.rows += rawTranList.getTransactions().size();
+        return rawTranList;
+    }
+
+    @Benchmark
+    public RawBrokerTransactionList parseTransactionStatementsParallel(RowCounter rowCounter) {
+        RawBrokerTransactionList rawTranList = brokerService.parseTransactionStatements(filePaths, executor, parallelism);
+        rowCounter.rows += rawTranList.getTransactions().size();
+        return rawTranList;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.benchmark;
+
+import com.brinvex.util.fiobank.api.model.Country;
+import com.brinvex.util.fiobank.api.model.RawBrokerTransaction;
+import com.brinvex.util.fiobank.api.model.Transaction;
+import com.brinvex.util.fiobank.impl.broker.BrokerTransactionTypeClassifier;
+import com.brinvex.util.fiobank.impl.broker.FioBrokerServiceImpl;
+import com.brinvex.util.fiobank.impl.broker.FioBrokerTransactionMapper;
+import com.brinvex.util.fiobank.impl.broker.RawBrokerTransactionCursor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Measures {@link FioBrokerTransactionMapper#mapTransactions(Transaction, RawBrokerTransactionCursor, Function)}
+ * driven over a whole parsed and merged statement, the same way the broker service drives it,
+ * and the transaction type detection alone by {@link BrokerTransactionTypeClassifier}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class FioBrokerTransactionMapperBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int rows;
+
+    private final FioBrokerTransactionMapper transactionMapper = new FioBrokerTransactionMapper();
+
+    private final BrokerTransactionTypeClassifier tranTypeClassifier = new BrokerTransactionTypeClassifier();
+
+    private Function<String, Country> symbolCountryProvider;
+
+    private List<RawBrokerTransaction> sortedRawTrans;
+
+    @Setup
+    public void setUp() {
+        BrokerStatementGenerator generator = new BrokerStatementGenerator(BenchmarkData.SEED);
+        String statementContent = generator.generateTransactionStatement(BenchmarkData.ACCOUNT_NUMBER, rows);
+        symbolCountryProvider = generator.getSymbolCountries()::get;
+        sortedRawTrans = new FioBrokerServiceImpl()
+                .parseTransactionStatements(Stream.of(statementContent))
+                .getTransactions();
+    }
+
+    @Benchmark
+    public Transaction mapTransactions(RowCounter rowCounter) {
+        RawBrokerTransactionCursor rawTransToProcess = new RawBrokerTransactionCursor(sortedRawTrans);
+        Transaction prevTran = null;
+        while (rawTransToProcess.hasNext()) {
+            List<Transaction> newTrans = transactionMapper.mapTransactions(prevTran, rawTransToProcess, symbolCountryProvider);
+            if (!newTrans.isEmpty()) {
+                prevTran = newTrans.get(newTrans.size() - 1);
+            }
+        }
+        rowCounter.rows += rows;
+        return prevTran;
+    }
+
+    @Benchmark
+    public void detectTranType(Blackhole blackhole, RowCounter rowCounter) {
+        for (RawBrokerTransaction rawTran : sortedRawTrans) {
+            blackhole.consume(tranTypeClassifier.detectTranType(rawTran));
+        }
+        rowCounter.rows += rows;
+    }
+}
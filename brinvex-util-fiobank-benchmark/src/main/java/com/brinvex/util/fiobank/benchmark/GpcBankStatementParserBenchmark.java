@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.benchmark;
+
+import com.brinvex.util.fiobank.api.model.RawBankTransactionList;
+import com.brinvex.util.fiobank.impl.bank.parser.BankStatementParser;
+import com.brinvex.util.fiobank.impl.bank.parser.GpcBankStatementParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link GpcBankStatementParser#parseStatement(String)} against {@link BankStatementParser#parseStatement(String)}
+ * on the same synthetic transactions.
+ * The XML statement carries the additional columns the GPC one has as well, so both produce the same additionals
+ * besides the bank name, and the difference is the cost of the format.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class GpcBankStatementParserBenchmark {
+
+    /**
+     * The counter account and its name, the bank code and name and the symbols.
+     */
+    private static final int XML_ADDITIONAL_COLUMNS = 7;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private final GpcBankStatementParser gpcParser = new GpcBankStatementParser();
+
+    private final BankStatementParser xmlParser = new BankStatementParser();
+
+    private String gpcStatementContent;
+
+    private String xmlStatementContent;
+
+    @Setup
+    public void setUp() {
+        gpcStatementContent = new BankStatementGenerator(BenchmarkData.SEED)
+                .generateGpcStatement(BenchmarkData.ACCOUNT_NUMBER, rows);
+        xmlStatementContent = new BankStatementGenerator(BenchmarkData.SEED)
+                .generateStatement(BenchmarkData.ACCOUNT_NUMBER, rows, XML_ADDITIONAL_COLUMNS);
+    }
+
+    @Benchmark
+    public RawBankTransactionList parseGpcStatement(RowCounter rowCounter) {
+        RawBankTransactionList rawTranList = gpcParser.parseStatement(gpcStatementContent);
+        rowCounter.rows += rawTranList.getTransactions().size();
+        return rawTranList;
+    }
+
+    @Benchmark
+    public RawBankTransactionList parseXmlStatement(RowCounter rowCounter) {
+        RawBankTransactionList rawTranList = xmlParser.parseStatement(xmlStatementContent);
+        rowCounter.rows += rawTranList.getTransactions().size();
+        return rawTranList;
+    }
+}
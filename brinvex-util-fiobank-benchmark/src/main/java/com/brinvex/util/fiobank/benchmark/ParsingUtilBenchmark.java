@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.benchmark;
+
+import com.brinvex.util.fiobank.impl.broker.parser.ParsingUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the conversions of the broker statement cells done by {@link ParsingUtil}
+ * against the JDK based conversions they replaced.
+ * Each call converts a batch of {@value #BATCH_SIZE} cells formatted the way the Fio statements are,
+ * the secondary result (<code>·rows</code>) counts the converted cells.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ParsingUtilBenchmark {
+
+    private static final int BATCH_SIZE = 1024;
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("d.M.yyyy");
+
+    private String[] decimals;
+
+    private String[] dateTimes;
+
+    private String[] dates;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkData.SEED);
+        decimals = new String[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            BigDecimal value = BigDecimal.valueOf(random.nextInt(100_000_000) - 10_000_000L, 2);
+            decimals[i] = String.format(Locale.US, "%,.2f", value).replace(',', ' ').replace('.', ',');
+        }
+        LocalDateTime startDateTime = LocalDateTime.parse("2020-01-01T09:00");
+        dateTimes = new String[BATCH_SIZE];
+        dates = new String[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            LocalDateTime dateTime = startDateTime.plusDays(random.nextInt(366)).plusMinutes(random.nextInt(8 * 60));
+            dateTimes[i] = DATE_TIME_FORMATTER.format(dateTime);
+            dates[i] = DATE_FORMATTER.format(dateTime.toLocalDate().plusDays(2));
+        }
+    }
+
+    @Benchmark
+    public void toDecimal(Blackhole blackhole, RowCounter rowCounter) {
+        for (String s : decimals) {
+            blackhole.consume(ParsingUtil.toDecimal(s));
+        }
+        rowCounter.rows += BATCH_SIZE;
+    }
+
+    @Benchmark
+    public void toDecimalReplace(Blackhole blackhole, RowCounter rowCounter) {
+        for (String s : decimals) {
+            blackhole.consume(new BigDecimal(s.replace(" ", "").replace(',', '.')));
+        }
+        rowCounter.rows += BATCH_SIZE;
+    }
+
+    @Benchmark
+    public void toFioDateTime(Blackhole blackhole, RowCounter rowCounter) {
+        for (String s : dateTimes) {
+            blackhole.consume(ParsingUtil.toFioDateTime(s));
+        }
+        rowCounter.rows += BATCH_SIZE;
+    }
+
+    @Benchmark
+    public void toFioDateTimeFormatter(Blackhole blackhole, RowCounter rowCounter) {
+        for (String s : dateTimes) {
+            blackhole.consume(LocalDateTime.parse(s, DATE_TIME_FORMATTER));
+        }
+        rowCounter.rows += BATCH_SIZE;
+    }
+
+    @Benchmark
+    public void toFioDate(Blackhole blackhole, RowCounter rowCounter) {
+        for (String s : dates) {
+            blackhole.consume(ParsingUtil.toFioDate(s));
+        }
+        rowCounter.rows += BATCH_SIZE;
+    }
+
+    @Benchmark
+    public void toFioDateFormatter(Blackhole blackhole, RowCounter rowCounter) {
+        for (String s : dates) {
+            blackhole.consume(LocalDate.parse(s, DATE_FORMATTER));
+        }
+        rowCounter.rows += BATCH_SIZE;
+    }
+}
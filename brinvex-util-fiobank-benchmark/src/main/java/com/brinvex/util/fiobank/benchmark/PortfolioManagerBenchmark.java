@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.benchmark;
+
+import com.brinvex.util.fiobank.api.model.Portfolio;
+import com.brinvex.util.fiobank.api.model.Transaction;
+import com.brinvex.util.fiobank.impl.broker.FioBrokerServiceImpl;
+import com.brinvex.util.fiobank.impl.broker.PortfolioManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures {@link PortfolioManager#applyTransaction(Portfolio, Transaction)}
+ * replaying all transactions of a synthetic statement into an empty portfolio.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PortfolioManagerBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int rows;
+
+    private final PortfolioManager ptfManager = new PortfolioManager();
+
+    private Portfolio templatePtf;
+
+    private List<Transaction> transactions;
+
+    private Portfolio ptf;
+
+    @Setup
+    public void setUp() {
+        String statementContent = new BrokerStatementGenerator(BenchmarkData.SEED)
+                .generateTransactionStatement(BenchmarkData.ACCOUNT_NUMBER, rows);
+        templatePtf = new FioBrokerServiceImpl().processTransactionStatements(Stream.of(statementContent));
+        transactions = new ArrayList<>(templatePtf.getTransactions());
+    }
+
+    /**
+     * Transactions only append to the portfolio, so every invocation starts with an empty one.
+     */
+    @Setup(Level.Invocation)
+    public void initPortfolio() {
+        ptf = ptfManager.initPortfolio(templatePtf.getAccountNumber(), templatePtf.getPeriodFrom(), templatePtf.getPeriodTo());
+    }
+
+    @Benchmark
+    public Portfolio applyTransactions(RowCounter rowCounter) {
+        List<Transaction> ptfTrans = ptf.getTransactions();
+        for (Transaction tran : transactions) {
+            ptfTrans.add(tran);
+            ptfManager.applyTransaction(ptf, tran);
+        }
+        rowCounter.rows += transactions.size();
+        return ptf;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.benchmark;
+
+import com.brinvex.util.fiobank.api.model.Currency;
+import com.brinvex.util.fiobank.api.model.Portfolio;
+import com.brinvex.util.fiobank.api.model.Transaction;
+import com.brinvex.util.fiobank.api.model.TransactionType;
+import com.brinvex.util.fiobank.impl.broker.PortfolioManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.math.BigDecimal.ZERO;
+
+/**
+ * Measures the transaction ID conflict check of {@link PortfolioManager#applyTransaction(Portfolio, Transaction)}
+ * replaying deposits, which touch no position, into an empty portfolio.
+ * With an O(1) check the rows per second stay flat as the portfolio grows.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PortfolioTransactionIdBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int rows;
+
+    private final PortfolioManager ptfManager = new PortfolioManager();
+
+    private List<Transaction> transactions;
+
+    private Portfolio ptf;
+
+    @Setup
+    public void setUp() {
+        ZonedDateTime date = LocalDate.parse("2019-01-02").atStartOfDay(ZoneId.of("Europe/Prague"));
+        BigDecimal value = new BigDecimal("100.00");
+        transactions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Transaction tran = new Transaction();
+            tran.setId(String.format("%010d", i));
+            tran.setType(TransactionType.DEPOSIT);
+            tran.setDate(date);
+            tran.setCcy(Currency.CZK);
+            tran.setGrossValue(value);
+            tran.setNetValue(value);
+            tran.setQty(ZERO);
+            tran.setFees(ZERO);
+            tran.setSettlementDate(date.toLocalDate());
+            transactions.add(tran);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void initPortfolio() {
+        ptf = ptfManager.initPortfolio(BenchmarkData.ACCOUNT_NUMBER, LocalDate.parse("2019-01-01"), LocalDate.parse("2019-12-31"));
+    }
+
+    @Benchmark
+    public Portfolio applyTransactions(RowCounter rowCounter) {
+        List<Transaction> ptfTrans = ptf.getTransactions();
+        for (Transaction tran : transactions) {
+            ptfTrans.add(tran);
+            ptfManager.applyTransaction(ptf, tran);
+        }
+        rowCounter.rows += transactions.size();
+        return ptf;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.benchmark;
+
+import com.brinvex.util.fiobank.api.model.Lang;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import static java.lang.System.out;
+
+/**
+ * Writes yearly synthetic statements to a folder, named the way Fio names the downloaded files:
+ * broker statements in all languages encoded in windows-1250 and bank statements encoded in UTF-8.
+ * <p>
+ * Usage: {@code StatementFileGenerator <outputFolder> [brokerRows] [bankTransactions] [seed]}
+ */
+public class StatementFileGenerator {
+
+    private static class LazyHolder {
+        private static final Charset BROKER_CHARSET = Charset.forName("windows-1250");
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            out.println("Usage: StatementFileGenerator <outputFolder> [brokerRows] [bankTransactions] [seed]");
+            System.exit(1);
+        }
+        Path outputFolder = Paths.get(args[0]);
+        int brokerRows = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int bankTransactions = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : BenchmarkData.SEED;
+
+        BrokerStatementGenerator brokerGenerator = new BrokerStatementGenerator(seed);
+        for (Lang lang : Lang.values()) {
+            Map<Integer, String> statements = brokerGenerator.generateYearlyTransactionStatements(
+                    BenchmarkData.ACCOUNT_NUMBER, brokerRows, lang);
+            for (Map.Entry<Integer, String> e : statements.entrySet()) {
+                String fileName = String.format("Fio_Broker_Transactions_%s_%s.csv", e.getKey(), lang);
+                write(outputFolder.resolve(fileName), e.getValue(), LazyHolder.BROKER_CHARSET);
+            }
+        }
+
+        Map<Integer, String> bankStatements = new BankStatementGenerator(seed).generateYearlyStatements(
+                BenchmarkData.ACCOUNT_NUMBER, bankTransactions, BankStatementGenerator.MAX_ADDITIONAL_COLUMN_COUNT);
+        for (Map.Entry<Integer, String> e : bankStatements.entrySet()) {
+            String fileName = String.format("Fio_Bank_Transactions_%s.xml", e.getKey());
+            write(outputFolder.resolve(fileName), e.getValue(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void write(Path filePath, String content, Charset charset) {
+        try {
+            Files.createDirectories(filePath.getParent());
+            Files.writeString(filePath, content, charset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        out.printf("Written: %s%n", filePath);
+    }
+}
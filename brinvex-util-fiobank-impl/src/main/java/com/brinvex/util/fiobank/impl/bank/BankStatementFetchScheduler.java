@@ -0,0 +1,385 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl.bank;
+
+import com.brinvex.util.fiobank.api.model.BankStatementFormat;
+import com.brinvex.util.fiobank.api.model.RawBankTransaction;
+import com.brinvex.util.fiobank.api.model.RawBankTransactionList;
+import com.brinvex.util.fiobank.api.service.exception.FiobankServiceException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static java.lang.String.format;
+import static java.util.stream.Collectors.toCollection;
+
+/**
+ * Fetches the bank statements of many API keys within the limit of the Fio API,
+ * which allows one call per key in {@link #FIO_CALL_INTERVAL} and answers a call made sooner with HTTP 409 Conflict.
+ * <p>
+ * The requests are queued per key. The pending requests of a key whose periods overlap or follow each other
+ * are fetched by one call and each of them is completed with the transactions of its own period.
+ * The calls of different keys run concurrently on the given executor and the next call of a key is made
+ * no sooner than the interval after its previous call finished.
+ * A call answered with 409, as the key was used elsewhere meanwhile, is repeated after the interval,
+ * a request is failed once it met the conflict more than {@value #MAX_CONFLICT_RETRIES} times.
+ * <p>
+ * The due calls are started by {@link #dispatch()}, which is run by the dispatcher thread once {@link #start()} is called.
+ * Without the thread, it can be called directly, e.g. with a manually advanced clock in a test.
+ */
+public class BankStatementFetchScheduler implements AutoCloseable {
+
+    public static final Duration FIO_CALL_INTERVAL = Duration.ofSeconds(30);
+
+    public static final int MAX_CONFLICT_RETRIES = 3;
+
+    private static final int HTTP_OK = 200;
+
+    private static final int HTTP_CONFLICT = 409;
+
+    /**
+     * Sends the request for a statement.
+     */
+    @FunctionalInterface
+    public interface HttpFunction {
+        HttpResult send(HttpRequest request) throws IOException, InterruptedException;
+    }
+
+    public static class HttpResult {
+
+        private final int statusCode;
+
+        private final InputStream body;
+
+        public HttpResult(int statusCode, InputStream body) {
+            this.statusCode = statusCode;
+            this.body = body;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public InputStream getBody() {
+            return body;
+        }
+    }
+
+    private static class Request {
+
+        private final LocalDate fromDayIncl;
+
+        private final LocalDate toDayIncl;
+
+        private final CompletableFuture<RawBankTransactionList> result = new CompletableFuture<>();
+
+        private int conflictCount;
+
+        private Request(LocalDate fromDayIncl, LocalDate toDayIncl) {
+            this.fromDayIncl = fromDayIncl;
+            this.toDayIncl = toDayIncl;
+        }
+    }
+
+    private static class TokenQueue {
+
+        private final List<Request> pendingRequests = new ArrayList<>();
+
+        private Instant nextCallTime = Instant.EPOCH;
+
+        private boolean calling;
+    }
+
+    private final FioBankServiceImpl bankService;
+
+    private final BankStatementFormat format;
+
+    private final Executor executor;
+
+    private final HttpFunction httpFunction;
+
+    private final Clock clock;
+
+    private final Duration callInterval;
+
+    private final Map<String, TokenQueue> tokenQueues = new LinkedHashMap<>();
+
+    private Thread dispatcherThread;
+
+    private boolean closed;
+
+    /**
+     * Fetches with the HTTP client of the bank service, in the limit of the Fio API.
+     */
+    public BankStatementFetchScheduler(FioBankServiceImpl bankService, BankStatementFormat format, Executor executor) {
+        this(bankService, format, executor, request -> {
+            HttpResponse<InputStream> resp = bankService.getHttpClient().send(request, HttpResponse.BodyHandlers.ofInputStream());
+            return new HttpResult(resp.statusCode(), resp.body());
+        }, Clock.systemUTC(), FIO_CALL_INTERVAL);
+    }
+
+    /**
+     * @param bankService  the service building the requests and parsing the statements
+     * @param format       the format to fetch the statements in
+     * @param executor     the executor to make the calls on, its parallelism limits the number of keys fetched at a time
+     * @param httpFunction the function sending the requests
+     * @param clock        the clock to measure the interval between the calls of a key with
+     * @param callInterval the interval between the calls of a key
+     */
+    public BankStatementFetchScheduler(
+            FioBankServiceImpl bankService,
+            BankStatementFormat format,
+            Executor executor,
+            HttpFunction httpFunction,
+            Clock clock,
+            Duration callInterval
+    ) {
+        this.bankService = bankService;
+        this.format = format;
+        this.executor = executor;
+        this.httpFunction = httpFunction;
+        this.clock = clock;
+        this.callInterval = callInterval;
+    }
+
+    /**
+     * Queues the request, the result completes once the statement is fetched and parsed.
+     */
+    public synchronized CompletableFuture<RawBankTransactionList> submit(String apiKey, LocalDate fromDayIncl, LocalDate toDayIncl) {
+        if (closed) {
+            throw new IllegalStateException("Scheduler is closed");
+        }
+        if (toDayIncl.isBefore(fromDayIncl)) {
+            throw new IllegalArgumentException(format("Invalid period: '%s - %s'", fromDayIncl, toDayIncl));
+        }
+        Request request = new Request(fromDayIncl, toDayIncl);
+        tokenQueues.computeIfAbsent(apiKey, k -> new TokenQueue()).pendingRequests.add(request);
+        notifyAll();
+        return request.result;
+    }
+
+    /**
+     * Starts the calls which are due and returns the time the next call is due at,
+     * or null if no pending call waits for its time but at most for a running call of its key.
+     * The requests of a call the executor refuses to run fail with its exception.
+     */
+    public synchronized Instant dispatch() {
+        Instant now = clock.instant();
+        List<Runnable> rejectedCalls = new ArrayList<>();
+        for (Iterator<Map.Entry<String, TokenQueue>> it = tokenQueues.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, TokenQueue> entry = it.next();
+            TokenQueue queue = entry.getValue();
+            if (queue.calling || queue.nextCallTime.isAfter(now)) {
+                continue;
+            }
+            if (queue.pendingRequests.isEmpty()) {
+                it.remove();
+                continue;
+            }
+            String apiKey = entry.getKey();
+            List<Request> batch = takeBatch(queue.pendingRequests);
+            queue.calling = true;
+            try {
+                executor.execute(() -> call(apiKey, queue, batch));
+            } catch (RuntimeException e) {
+                // E.g. the RejectedExecutionException of an executor shut down, the call is not made
+                queue.calling = false;
+                rejectedCalls.add(() -> failAll(batch, e));
+            }
+        }
+        // Failed only now, as the futures may run dependent actions which submit new requests
+        rejectedCalls.forEach(Runnable::run);
+        // A call may have finished on the executor meanwhile, so the due times are collected once all the calls are started
+        Instant nextDispatchTime = null;
+        for (TokenQueue queue : tokenQueues.values()) {
+            if (!queue.calling && !queue.pendingRequests.isEmpty()
+                && (nextDispatchTime == null || queue.nextCallTime.isBefore(nextDispatchTime))) {
+                nextDispatchTime = queue.nextCallTime;
+            }
+        }
+        return nextDispatchTime;
+    }
+
+    /**
+     * Takes the earliest pending request together with the ones whose periods overlap or follow its period.
+     */
+    private static List<Request> takeBatch(List<Request> pendingRequests) {
+        pendingRequests.sort(Comparator.comparing(r -> r.fromDayIncl));
+        List<Request> batch = new ArrayList<>();
+        LocalDate batchToDayIncl = null;
+        for (Iterator<Request> it = pendingRequests.iterator(); it.hasNext(); ) {
+            Request request = it.next();
+            if (batchToDayIncl != null && request.fromDayIncl.isAfter(batchToDayIncl.plusDays(1))) {
+                break;
+            }
+            batch.add(request);
+            it.remove();
+            if (batchToDayIncl == null || request.toDayIncl.isAfter(batchToDayIncl)) {
+                batchToDayIncl = request.toDayIncl;
+            }
+        }
+        return batch;
+    }
+
+    private void call(String apiKey, TokenQueue queue, List<Request> batch) {
+        LocalDate fromDayIncl = batch.get(0).fromDayIncl;
+        LocalDate toDayIncl = batch.stream().map(r -> r.toDayIncl).max(Comparator.naturalOrder()).orElseThrow();
+        boolean conflict = false;
+        try {
+            HttpRequest req = bankService.newStatementRequest(apiKey, fromDayIncl, toDayIncl, format);
+            HttpResult result = httpFunction.send(req);
+            try (InputStream body = result.getBody()) {
+                int statusCode = result.getStatusCode();
+                if (statusCode == HTTP_CONFLICT) {
+                    conflict = true;
+                } else if (statusCode != HTTP_OK) {
+                    throw new FiobankServiceException(format("Unexpected HTTP status %s, period: '%s - %s'",
+                            statusCode, fromDayIncl, toDayIncl));
+                } else {
+                    RawBankTransactionList tranList = bankService.parseStatement(body, format);
+                    for (Request request : batch) {
+                        request.result.complete(batch.size() == 1 ? tranList : restrict(tranList, request));
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failAll(batch, e);
+        } catch (Exception e) {
+            failAll(batch, e);
+        } finally {
+            List<Request> failedRequests = new ArrayList<>();
+            synchronized (this) {
+                queue.calling = false;
+                queue.nextCallTime = clock.instant().plus(callInterval);
+                if (conflict) {
+                    for (Request request : batch) {
+                        if (++request.conflictCount > MAX_CONFLICT_RETRIES) {
+                            failedRequests.add(request);
+                        } else {
+                            queue.pendingRequests.add(request);
+                        }
+                    }
+                }
+                notifyAll();
+            }
+            failAll(failedRequests, new FiobankServiceException(format("Rate limit of the API key exceeded %s times, period: '%s - %s'",
+                    MAX_CONFLICT_RETRIES + 1, fromDayIncl, toDayIncl)));
+        }
+    }
+
+    private static void failAll(List<Request> requests, Exception e) {
+        for (Request request : requests) {
+            request.result.completeExceptionally(e);
+        }
+    }
+
+    private static RawBankTransactionList restrict(RawBankTransactionList tranList, Request request) {
+        RawBankTransactionList result = new RawBankTransactionList();
+        result.setAccountNumber(tranList.getAccountNumber());
+        result.setPeriodFrom(request.fromDayIncl);
+        result.setPeriodTo(request.toDayIncl);
+        result.setTransactions(tranList.getTransactions()
+                .stream()
+                .filter(t -> !t.getDate().isBefore(request.fromDayIncl) && !t.getDate().isAfter(request.toDayIncl))
+                .collect(toCollection(ArrayList<RawBankTransaction>::new)));
+        return result;
+    }
+
+    /**
+     * Starts the dispatcher thread, which makes the calls as they get due until the scheduler is closed.
+     */
+    public synchronized void start() {
+        if (closed) {
+            throw new IllegalStateException("Scheduler is closed");
+        }
+        if (dispatcherThread == null) {
+            dispatcherThread = new Thread(this::runDispatcher, getClass().getSimpleName());
+            dispatcherThread.setDaemon(true);
+            dispatcherThread.start();
+        }
+    }
+
+    private synchronized void runDispatcher() {
+        while (!closed) {
+            try {
+                Instant nextDispatchTime = dispatch();
+                if (nextDispatchTime == null) {
+                    wait();
+                } else {
+                    // A call due already, e.g. the next one of a key whose call was rejected, is dispatched at once
+                    Instant now = clock.instant();
+                    if (nextDispatchTime.isAfter(now)) {
+                        wait(Duration.between(now, nextDispatchTime).toMillis() + 1);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // A rejected call fails only its own requests in the dispatch, this is a failure of the dispatch itself
+                // (e.g. of the clock), so the pending requests fail rather than wait for a dispatch which may keep failing,
+                // the thread lives on for the requests submitted next
+                failAll(takePendingRequests(), e);
+                try {
+                    wait();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private synchronized List<Request> takePendingRequests() {
+        List<Request> pendingRequests = new ArrayList<>();
+        for (TokenQueue queue : tokenQueues.values()) {
+            pendingRequests.addAll(queue.pendingRequests);
+            queue.pendingRequests.clear();
+        }
+        return pendingRequests;
+    }
+
+    /**
+     * Stops the dispatcher thread and cancels the requests not fetched yet, the running calls are finished.
+     */
+    @Override
+    public void close() {
+        List<Request> pendingRequests;
+        synchronized (this) {
+            closed = true;
+            pendingRequests = takePendingRequests();
+            notifyAll();
+        }
+        for (Request request : pendingRequests) {
+            request.result.cancel(false);
+        }
+    }
+}
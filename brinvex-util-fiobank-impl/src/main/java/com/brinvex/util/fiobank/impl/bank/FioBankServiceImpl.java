@@ -15,6 +15,7 @@
  */
 package com.brinvex.util.fiobank.impl.bank;
 
+import com.brinvex.util.fiobank.api.model.BankStatementFormat;
 import com.brinvex.util.fiobank.api.model.Currency;
 import com.brinvex.util.fiobank.api.model.Portfolio;
 import com.brinvex.util.fiobank.api.model.RawBankTransaction;
@@ -24,18 +25,23 @@ import com.brinvex.util.fiobank.api.model.TransactionType;
 import com.brinvex.util.fiobank.api.service.FioBankService;
 import com.brinvex.util.fiobank.api.service.exception.FiobankServiceException;
 import com.brinvex.util.fiobank.impl.bank.parser.BankStatementParser;
+import com.brinvex.util.fiobank.impl.bank.parser.GpcBankStatementParser;
+import com.brinvex.util.fiobank.impl.bank.parser.JsonBankStatementParser;
 import com.brinvex.util.fiobank.impl.broker.PortfolioManager;
-import com.brinvex.util.fiobank.impl.util.IOUtil;
+import com.brinvex.util.fiobank.impl.util.ConcurrencyUtil;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
@@ -44,6 +50,8 @@ import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -60,18 +68,86 @@ public class FioBankServiceImpl implements FioBankService {
 
         private static final ZoneId FIO_TIME_ZONE = ZoneId.of("Europe/Prague");
 
-        private static final String URL_FORMAT = "https://www.fio.cz/ib_api/rest/periods/%s/%s/%s/transactions.xml";
+        private static final String URL_FORMAT = "https://www.fio.cz/ib_api/rest/periods/%s/%s/%s/transactions.%s";
+
+        private static final Charset GPC_CHARSET = Charset.forName("windows-1250");
+
+        private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+                .connectTimeout(DEFAULT_CONNECT_TIMEOUT)
+                .build();
     }
 
-    private final BankStatementParser bankStatementParser = new BankStatementParser();
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private static final int HTTP_OK = 200;
+
+    private final BankStatementParser bankStatementParser;
+
+    private final GpcBankStatementParser gpcBankStatementParser;
+
+    private final JsonBankStatementParser jsonBankStatementParser;
 
     private final PortfolioManager ptfManager = new PortfolioManager();
 
-    @SuppressWarnings("DuplicatedCode")
+    private final HttpClient httpClient;
+
+    private final Duration requestTimeout;
+
+    public FioBankServiceImpl() {
+        this(null);
+    }
+
+    /**
+     * Keeps only the given additional columns of the raw transactions, which are also the only ones in the notes
+     * of the portfolio transactions.
+     *
+     * @param additionalColumnNames the names of the columns to keep, null for all of them
+     */
+    public FioBankServiceImpl(Collection<String> additionalColumnNames) {
+        this(additionalColumnNames, null, DEFAULT_REQUEST_TIMEOUT);
+    }
+
+    /**
+     * Fetches the statements with the given client, which keeps its connections open for the next calls.
+     * By default, all the instances share one client with the connect timeout of {@link #DEFAULT_CONNECT_TIMEOUT}.
+     *
+     * @param additionalColumnNames the names of the additional columns to keep, null for all of them
+     * @param httpClient            the client to fetch with, null for the shared default one
+     * @param requestTimeout        the time to wait for the response to a fetch, its streamed body excluded,
+     *                              null for {@link #DEFAULT_REQUEST_TIMEOUT}
+     */
+    public FioBankServiceImpl(Collection<String> additionalColumnNames, HttpClient httpClient, Duration requestTimeout) {
+        bankStatementParser = new BankStatementParser(additionalColumnNames);
+        gpcBankStatementParser = new GpcBankStatementParser(additionalColumnNames);
+        jsonBankStatementParser = new JsonBankStatementParser(additionalColumnNames);
+        this.httpClient = httpClient;
+        this.requestTimeout = requestTimeout == null ? DEFAULT_REQUEST_TIMEOUT : requestTimeout;
+    }
+
     @Override
     public RawBankTransactionList parseStatements(Stream<String> statementContents) {
-        List<RawBankTransactionList> rawTranLists = statementContents
-                .map(bankStatementParser::parseStatement)
+        return mergeStatements(statementContents.map(bankStatementParser::parseStatement));
+    }
+
+    @Override
+    public RawBankTransactionList parseStatements(Stream<String> statementContents, BankStatementFormat format) {
+        switch (format) {
+            case XML:
+                return parseStatements(statementContents);
+            case JSON:
+                return mergeStatements(statementContents.map(jsonBankStatementParser::parseStatement));
+            case GPC:
+                return mergeStatements(statementContents.map(gpcBankStatementParser::parseStatement));
+            default:
+                throw new IllegalArgumentException(String.valueOf(format));
+        }
+    }
+
+    @SuppressWarnings("DuplicatedCode")
+    protected RawBankTransactionList mergeStatements(Stream<RawBankTransactionList> rawTranListStream) {
+        List<RawBankTransactionList> rawTranLists = rawTranListStream
                 .sorted(comparing(RawBankTransactionList::getPeriodFrom).thenComparing(RawBankTransactionList::getPeriodTo))
                 .collect(Collectors.toList());
 
@@ -132,16 +208,61 @@ public class FioBankServiceImpl implements FioBankService {
 
     @Override
     public RawBankTransactionList parseStatements(Collection<Path> statementFilePaths) {
-        return parseStatements(statementFilePaths
-                .stream()
-                .map(filePath -> IOUtil.readTextFileContent(filePath, StandardCharsets.UTF_8))
+        return mergeStatements(statementFilePaths.stream().map(this::parseStatement));
+    }
+
+    @Override
+    public RawBankTransactionList parseStatements(Collection<Path> statementFilePaths, Executor executor, int parallelism) {
+        List<RawBankTransactionList> rawTranLists = ConcurrencyUtil.mapInParallel(
+                statementFilePaths,
+                this::parseStatement,
+                executor,
+                parallelism
         );
+        return mergeStatements(rawTranLists.stream());
+    }
+
+    /**
+     * Parses the statement file as it is read, without holding its whole content in memory.
+     * A file named {@code *.json} is parsed as a JSON statement, any other as an XML one.
+     */
+    protected RawBankTransactionList parseStatement(Path statementFilePath) {
+        boolean json = statementFilePath.getFileName().toString().toLowerCase().endsWith(".json");
+        try (InputStream statementContent = Files.newInputStream(statementFilePath)) {
+            return parseStatement(statementContent, json ? BankStatementFormat.JSON : BankStatementFormat.XML);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses the XML and JSON statements as they are read, the GPC one is read whole first.
+     * The stream is not closed.
+     */
+    protected RawBankTransactionList parseStatement(InputStream statementContent, BankStatementFormat format) throws IOException {
+        switch (format) {
+            case XML:
+                return bankStatementParser.parseStatement(statementContent);
+            case JSON:
+                return jsonBankStatementParser.parseStatement(statementContent);
+            case GPC:
+                return gpcBankStatementParser.parseStatement(new String(statementContent.readAllBytes(), LazyHolder.GPC_CHARSET));
+            default:
+                throw new IllegalArgumentException(String.valueOf(format));
+        }
     }
 
     @Override
-    @SuppressWarnings({"DuplicatedCode", "SpellCheckingInspection", "UnnecessaryLocalVariable"})
     public Portfolio processStatements(Portfolio ptf, Stream<String> statementContents) {
-        RawBankTransactionList rawTranList = parseStatements(statementContents);
+        return processTransactionList(ptf, parseStatements(statementContents), false);
+    }
+
+    /**
+     * @param typedBySign true if the transactions carry no Fio transaction type, as those of the GPC statement,
+     *                    and are deposits or withdrawals by the sign of their volume
+     */
+    @SuppressWarnings({"DuplicatedCode", "SpellCheckingInspection", "UnnecessaryLocalVariable"})
+    protected Portfolio processTransactionList(Portfolio ptf, RawBankTransactionList rawTranList, boolean typedBySign) {
         List<RawBankTransaction> rawTrans = rawTranList.getTransactions();
 
         String accountNumber = rawTranList.getAccountNumber();
@@ -176,11 +297,10 @@ public class FioBankServiceImpl implements FioBankService {
             LocalDate tranDate = rawTran.getDate();
 
             try {
-                TransactionType tranType = detectTranType(rawTran);
+                TransactionType tranType = detectTranType(rawTran, typedBySign);
                 String id = rawTran.getId();
                 BigDecimal rawValue = rawTran.getVolume();
                 Currency ccy = rawTran.getCcy();
-                String text = rawTran.getAdditionals().toString();
                 BigDecimal tax = null;
                 BigDecimal grossValue = rawValue;
                 BigDecimal netValue = rawValue;
@@ -195,7 +315,7 @@ public class FioBankServiceImpl implements FioBankService {
                         if (nextRawTran != null
                             && tranDate.isEqual(nextRawTran.getDate())
                         ) {
-                            nextTranType = detectTranType(nextRawTran);
+                            nextTranType = detectTranType(nextRawTran, typedBySign);
                             nextRawValue = nextRawTran.getVolume();
                             nextCcy = nextRawTran.getCcy();
                             nextRawType = nextRawTran.getType();
@@ -224,7 +344,7 @@ public class FioBankServiceImpl implements FioBankService {
                 newTran.setType(tranType);
                 newTran.setId(id);
                 newTran.setDate(tranDate.atStartOfDay(LazyHolder.FIO_TIME_ZONE));
-                newTran.setNote(text);
+                newTran.setNote(rawTran.getAdditionals().toString());
                 newTran.setCcy(ccy);
                 newTran.setGrossValue(grossValue);
                 newTran.setNetValue(netValue);
@@ -247,10 +367,17 @@ public class FioBankServiceImpl implements FioBankService {
 
     @Override
     public Portfolio processStatements(Portfolio ptf, Collection<Path> statementFilePaths) {
-        Stream<String> statementContentStream = statementFilePaths
-                .stream()
-                .map(filePath -> IOUtil.readTextFileContent(filePath, StandardCharsets.UTF_8));
-        return processStatements(ptf, statementContentStream);
+        return processTransactionList(ptf, parseStatements(statementFilePaths), false);
+    }
+
+    @Override
+    public Portfolio processStatements(
+            String apiKey,
+            LocalDate fromDayIncl,
+            LocalDate toDayIncl,
+            Function<String, String> fetcher
+    ) {
+        return processStatements(apiKey, fromDayIncl, toDayIncl, BankStatementFormat.XML, fetcher);
     }
 
     @Override
@@ -258,20 +385,53 @@ public class FioBankServiceImpl implements FioBankService {
             String apiKey,
             LocalDate fromDayIncl,
             LocalDate toDayIncl,
+            BankStatementFormat format,
             Function<String, String> fetcher
     ) {
-        String url = String.format(LazyHolder.URL_FORMAT, apiKey, fromDayIncl, toDayIncl);
-        String xml = fetcher.apply(url);
-        return processStatements(Stream.of(xml));
+        String url = statementUrl(apiKey, fromDayIncl, toDayIncl, format);
+        String statementContent = fetcher.apply(url);
+        return processTransactionList(null, parseStatements(Stream.of(statementContent), format), format == BankStatementFormat.GPC);
     }
 
     @Override
     public String fetchStatement(String apiKey, LocalDate fromDayIncl, LocalDate toDayIncl) {
-        String url = String.format(LazyHolder.URL_FORMAT, apiKey, fromDayIncl, toDayIncl);
+        return fetchStatement(apiKey, fromDayIncl, toDayIncl, BankStatementFormat.XML);
+    }
+
+    /**
+     * Fetches the statement, the GPC one is decoded from windows-1250 in which Fio provides it.
+     */
+    @Override
+    public String fetchStatement(String apiKey, LocalDate fromDayIncl, LocalDate toDayIncl, BankStatementFormat format) {
+        HttpRequest req = newStatementRequest(apiKey, fromDayIncl, toDayIncl, format);
+        try {
+            HttpResponse<String> resp = getHttpClient().send(req, statementBodyHandler(format));
+            return checkStatus(resp, fromDayIncl, toDayIncl).body();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> fetchStatementAsync(
+            String apiKey,
+            LocalDate fromDayIncl,
+            LocalDate toDayIncl,
+            BankStatementFormat format
+    ) {
+        HttpRequest req = newStatementRequest(apiKey, fromDayIncl, toDayIncl, format);
+        return getHttpClient().sendAsync(req, statementBodyHandler(format))
+                .thenApply(resp -> checkStatus(resp, fromDayIncl, toDayIncl).body());
+    }
+
+    @Override
+    public RawBankTransactionList fetchTransactions(String apiKey, LocalDate fromDayIncl, LocalDate toDayIncl, BankStatementFormat format) {
+        HttpRequest req = newStatementRequest(apiKey, fromDayIncl, toDayIncl, format);
         try {
-            HttpRequest req = HttpRequest.newBuilder(URI.create(url)).build();
-            HttpResponse<String> resp = HttpClient.newHttpClient().send(req, HttpResponse.BodyHandlers.ofString());
-            return resp.body();
+            HttpResponse<InputStream> resp = getHttpClient().send(req, HttpResponse.BodyHandlers.ofInputStream());
+            return parseStatementResponse(resp, fromDayIncl, toDayIncl, format);
         } catch (InterruptedException e) {
             throw new RuntimeException(e);
         } catch (IOException e) {
@@ -279,13 +439,91 @@ public class FioBankServiceImpl implements FioBankService {
         }
     }
 
+    @Override
+    public CompletableFuture<RawBankTransactionList> fetchTransactionsAsync(
+            String apiKey,
+            LocalDate fromDayIncl,
+            LocalDate toDayIncl,
+            BankStatementFormat format,
+            Executor executor
+    ) {
+        HttpRequest req = newStatementRequest(apiKey, fromDayIncl, toDayIncl, format);
+        return getHttpClient().sendAsync(req, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApplyAsync(resp -> {
+                    try {
+                        return parseStatementResponse(resp, fromDayIncl, toDayIncl, format);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor);
+    }
+
+    /**
+     * Parses the body as it arrives and closes it, which releases the connection for the next call.
+     */
+    private RawBankTransactionList parseStatementResponse(
+            HttpResponse<InputStream> resp,
+            LocalDate fromDayIncl,
+            LocalDate toDayIncl,
+            BankStatementFormat format
+    ) throws IOException {
+        try (InputStream body = resp.body()) {
+            checkStatus(resp, fromDayIncl, toDayIncl);
+            return parseStatement(body, format);
+        }
+    }
+
+    protected HttpClient getHttpClient() {
+        return httpClient == null ? LazyHolder.HTTP_CLIENT : httpClient;
+    }
+
+    protected HttpRequest newStatementRequest(String apiKey, LocalDate fromDayIncl, LocalDate toDayIncl, BankStatementFormat format) {
+        String url = statementUrl(apiKey, fromDayIncl, toDayIncl, format);
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .build();
+    }
+
+    private static HttpResponse.BodyHandler<String> statementBodyHandler(BankStatementFormat format) {
+        return format == BankStatementFormat.GPC
+                ? HttpResponse.BodyHandlers.ofString(LazyHolder.GPC_CHARSET)
+                : HttpResponse.BodyHandlers.ofString();
+    }
+
+    /**
+     * Fails on any status but 200 OK, without the URL in the message as it contains the API key.
+     */
+    private static <T> HttpResponse<T> checkStatus(HttpResponse<T> resp, LocalDate fromDayIncl, LocalDate toDayIncl) {
+        int statusCode = resp.statusCode();
+        if (statusCode != HTTP_OK) {
+            throw new FiobankServiceException(format("Unexpected HTTP status %s, period: '%s - %s'",
+                    statusCode, fromDayIncl, toDayIncl));
+        }
+        return resp;
+    }
+
+
+    protected String statementUrl(String apiKey, LocalDate fromDayIncl, LocalDate toDayIncl, BankStatementFormat format) {
+        String suffix;
+        switch (format) {
+            case XML:
+                suffix = "xml";
+                break;
+            case JSON:
+                suffix = "json";
+                break;
+            case GPC:
+                suffix = "gpc";
+                break;
+            default:
+                throw new IllegalArgumentException(String.valueOf(format));
+        }
+        return String.format(LazyHolder.URL_FORMAT, apiKey, fromDayIncl, toDayIncl, suffix);
+    }
 
     @Override
     public Portfolio processStatements(Collection<Path> statementFilePaths) {
-        Stream<String> statementContentStream = statementFilePaths
-                .stream()
-                .map(filePath -> IOUtil.readTextFileContent(filePath, StandardCharsets.UTF_8));
-        return processStatements(statementContentStream);
+        return processStatements(null, statementFilePaths);
     }
 
     @Override
@@ -293,9 +531,23 @@ public class FioBankServiceImpl implements FioBankService {
         return processStatements(null, statementContents);
     }
 
+    /**
+     * Detects the type from the Fio transaction type.
+     * A transaction of a statement without it, the GPC one, is a deposit or a withdrawal by the sign of its volume,
+     * so an interest and its tax are not told apart there.
+     */
     @SuppressWarnings("SpellCheckingInspection")
-    private TransactionType detectTranType(RawBankTransaction tran) {
+    private TransactionType detectTranType(RawBankTransaction tran, boolean typedBySign) {
         String rawType = tran.getType();
+        if (typedBySign && rawType == null) {
+            int volumeSign = tran.getVolume().signum();
+            if (volumeSign > 0) {
+                return TransactionType.DEPOSIT;
+            }
+            if (volumeSign < 0) {
+                return TransactionType.WITHDRAWAL;
+            }
+        }
         if ("Bezhotovostní příjem".equals(rawType)) {
             return TransactionType.DEPOSIT;
         }
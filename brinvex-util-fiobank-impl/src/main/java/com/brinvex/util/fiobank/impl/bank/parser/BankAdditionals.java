@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl.bank.parser;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The additionals of one transaction as an unmodifiable map over an array of values indexed by the slots
+ * of the {@link BankAdditionalsSchema} of its statement, iterated in the slot order.
+ * The column names are held once by the schema and the entries are created only when iterated.
+ */
+final class BankAdditionals extends AbstractMap<String, String> implements Serializable {
+
+    private final BankAdditionalsSchema schema;
+
+    private final String[] values;
+
+    private BankAdditionals(BankAdditionalsSchema schema, String[] values) {
+        this.schema = schema;
+        this.values = values;
+    }
+
+    @Override
+    public String get(Object key) {
+        int slot = schema.indexOf(key);
+        return slot >= 0 && slot < values.length ? values[slot] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (String value : values) {
+            if (value != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return BankAdditionals.this.size();
+            }
+        };
+    }
+
+    private class EntryIterator implements Iterator<Entry<String, String>> {
+
+        private int nextSlot = nextSlot(0);
+
+        private int nextSlot(int slot) {
+            while (slot < values.length && values[slot] == null) {
+                slot++;
+            }
+            return slot;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextSlot < values.length;
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            if (nextSlot >= values.length) {
+                throw new NoSuchElementException();
+            }
+            int slot = nextSlot;
+            nextSlot = nextSlot(slot + 1);
+            return new SimpleImmutableEntry<>(schema.name(slot), values[slot]);
+        }
+    }
+
+    /**
+     * Collects the additionals of the transactions of one statement one after another.
+     * As long as the columns of a transaction come in the slot order, which is the case for the Fio statements
+     * as their columns are always written in the same order, the additionals share the schema.
+     * Otherwise, they are built as a {@link LinkedHashMap} to keep the order of the statement.
+     */
+    static final class Builder {
+
+        private final BankAdditionalsSchema schema;
+
+        private int[] slots = new int[16];
+
+        private String[] values = new String[16];
+
+        private int count;
+
+        private boolean ordered = true;
+
+        Builder(BankAdditionalsSchema schema) {
+            this.schema = schema;
+        }
+
+        BankAdditionalsSchema getSchema() {
+            return schema;
+        }
+
+        void put(int slot, String value) {
+            if (count > 0 && slot <= slots[count - 1]) {
+                ordered = false;
+            }
+            if (count == slots.length) {
+                slots = Arrays.copyOf(slots, count * 2);
+                values = Arrays.copyOf(values, count * 2);
+            }
+            slots[count] = slot;
+            values[count] = value;
+            count++;
+        }
+
+        /**
+         * Returns the additionals put since the last call.
+         */
+        Map<String, String> build() {
+            Map<String, String> additionals;
+            if (count == 0) {
+                additionals = Collections.emptyMap();
+            } else if (ordered) {
+                String[] slotValues = new String[slots[count - 1] + 1];
+                for (int i = 0; i < count; i++) {
+                    slotValues[slots[i]] = values[i];
+                }
+                additionals = new BankAdditionals(schema, slotValues);
+            } else {
+                additionals = new LinkedHashMap<>();
+                for (int i = 0; i < count; i++) {
+                    additionals.put(schema.name(slots[i]), values[i]);
+                }
+            }
+            Arrays.fill(values, 0, count, null);
+            count = 0;
+            ordered = true;
+            return additionals;
+        }
+    }
+}
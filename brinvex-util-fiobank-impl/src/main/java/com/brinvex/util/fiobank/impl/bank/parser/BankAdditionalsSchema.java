@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl.bank.parser;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The additional columns of one statement, each given a slot in the order it is first seen,
+ * shared by the {@link BankAdditionals} of all the transactions of the statement.
+ * A column not requested gets no slot, so its values need not be read at all.
+ */
+final class BankAdditionalsSchema implements Serializable {
+
+    private final Set<String> requestedNames;
+
+    private final List<String> names = new ArrayList<>();
+
+    private final Map<String, Integer> slots = new HashMap<>();
+
+    /**
+     * @param requestedNames the names of the columns to keep, null for all of them
+     */
+    BankAdditionalsSchema(Collection<String> requestedNames) {
+        this.requestedNames = requestedNames == null ? null : new HashSet<>(requestedNames);
+    }
+
+    /**
+     * Returns the slot of the column, adding the column if it is seen for the first time,
+     * or -1 if the column is not requested.
+     */
+    int slotOf(String name) {
+        Integer slot = slots.get(name);
+        if (slot != null) {
+            return slot;
+        }
+        if (requestedNames != null && !requestedNames.contains(name)) {
+            return -1;
+        }
+        slot = names.size();
+        names.add(name);
+        slots.put(name, slot);
+        return slot;
+    }
+
+    /**
+     * Returns the slot of the column or -1 if the column has none, without adding it.
+     */
+    int indexOf(Object name) {
+        Integer slot = slots.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    String name(int slot) {
+        return names.get(slot);
+    }
+}
@@ -19,117 +19,193 @@ import com.brinvex.util.fiobank.api.model.Currency;
 import com.brinvex.util.fiobank.api.model.RawBankTransaction;
 import com.brinvex.util.fiobank.api.model.RawBankTransactionList;
 
-import javax.xml.namespace.QName;
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.EndElement;
-import javax.xml.stream.events.StartElement;
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
 import java.io.StringReader;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Collection;
 
 import static com.brinvex.util.fiobank.impl.util.ValidationUtil.assertTrue;
 
+/**
+ * Parses the XML statements of the Fio API with the StAX cursor,
+ * so no event object is created per node and the dates and amounts are converted from the parser's buffer.
+ * The reader coalesces adjacent text, so a value containing entity references is read whole.
+ * The additionals of the transactions of a statement share their column names, see {@link BankAdditionals},
+ * and the text of a column not requested is not read.
+ */
 public class BankStatementParser {
 
     private static class LazyHolder {
-        private static final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+        private static final XMLInputFactory xmlInputFactory = newXmlInputFactory();
 
         private static final DateTimeFormatter fioDtf = DateTimeFormatter.ISO_OFFSET_DATE;
+
+        private static XMLInputFactory newXmlInputFactory() {
+            XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+            xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+            return xmlInputFactory;
+        }
+    }
+
+    private static final String COLUMN_NAME_ATTRIBUTE = "name";
+
+    private final Collection<String> additionalColumnNames;
+
+    public BankStatementParser() {
+        this(null);
+    }
+
+    /**
+     * @param additionalColumnNames the names of the columns to keep in the additionals, null for all of them
+     */
+    public BankStatementParser(Collection<String> additionalColumnNames) {
+        this.additionalColumnNames = additionalColumnNames;
     }
 
-    @SuppressWarnings("DataFlowIssue")
     public RawBankTransactionList parseStatement(String statementContent) {
+        try {
+            return parseStatement(LazyHolder.xmlInputFactory.createXMLStreamReader(new StringReader(statementContent)));
+        } catch (XMLStreamException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Parses the statement straight from the stream, its encoding is taken from the XML declaration.
+     * The stream is not closed.
+     */
+    public RawBankTransactionList parseStatement(InputStream statementContent) {
+        try {
+            return parseStatement(LazyHolder.xmlInputFactory.createXMLStreamReader(statementContent));
+        } catch (XMLStreamException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @SuppressWarnings("DataFlowIssue")
+    protected RawBankTransactionList parseStatement(XMLStreamReader reader) throws XMLStreamException {
 
         RawBankTransactionList tranList = new RawBankTransactionList();
         ArrayList<RawBankTransaction> trans = new ArrayList<>();
         tranList.setTransactions(trans);
+        DayParser dayParser = new DayParser();
+        BankAdditionals.Builder additionals = new BankAdditionals.Builder(new BankAdditionalsSchema(additionalColumnNames));
         try {
-            XMLEventReader reader = LazyHolder.xmlInputFactory.createXMLEventReader(new StringReader(statementContent));
-
             RawBankTransaction tran = null;
             while (reader.hasNext()) {
-                XMLEvent xmlEvent = reader.nextEvent();
-                if (xmlEvent.isStartElement()) {
-                    StartElement startElement = xmlEvent.asStartElement();
-                    String elementName = startElement.getName().getLocalPart();
+                int eventType = reader.next();
+                if (eventType == XMLStreamConstants.START_ELEMENT) {
+                    String elementName = reader.getLocalName();
 
                     switch (elementName) {
                         case "accountId":
-                            xmlEvent = reader.nextEvent();
-                            tranList.setAccountNumber(xmlEvent.asCharacters().getData());
-                            reader.nextEvent();
+                            tranList.setAccountNumber(readText(reader));
                             break;
                         case "dateStart":
-                            xmlEvent = reader.nextEvent();
-                            tranList.setPeriodFrom(parseDay(xmlEvent));
-                            reader.nextEvent();
+                            tranList.setPeriodFrom(dayParser.parseDay(reader));
                             break;
                         case "dateEnd":
-                            xmlEvent = reader.nextEvent();
-                            tranList.setPeriodTo(parseDay(xmlEvent));
-                            reader.nextEvent();
+                            tranList.setPeriodTo(dayParser.parseDay(reader));
                             break;
                         case "Transaction":
                             assertTrue(tran == null);
                             tran = new RawBankTransaction();
-                            tran.setAdditionals(new LinkedHashMap<>());
                             break;
                         case "column_22":
-                            xmlEvent = reader.nextEvent();
-                            tran.setId(xmlEvent.asCharacters().getData());
-                            reader.nextEvent();
+                            tran.setId(readText(reader));
                             break;
                         case "column_0":
-                            xmlEvent = reader.nextEvent();
-                            tran.setDate(parseDay(xmlEvent));
-                            reader.nextEvent();
+                            tran.setDate(dayParser.parseDay(reader));
                             break;
                         case "column_1":
-                            xmlEvent = reader.nextEvent();
-                            tran.setVolume(new BigDecimal(xmlEvent.asCharacters().getData()));
-                            reader.nextEvent();
+                            nextText(reader);
+                            tran.setVolume(new BigDecimal(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength()));
                             break;
                         case "column_8":
-                            xmlEvent = reader.nextEvent();
-                            tran.setType(xmlEvent.asCharacters().getData());
-                            reader.nextEvent();
+                            tran.setType(readText(reader));
                             break;
                         case "column_14":
-                            xmlEvent = reader.nextEvent();
-                            tran.setCcy(Currency.valueOf(xmlEvent.asCharacters().getData()));
-                            reader.nextEvent();
+                            tran.setCcy(Currency.valueOf(readText(reader)));
                             break;
                         default:
                             if (elementName.startsWith("column_") && tran != null) {
-                                String columnName = startElement.getAttributeByName(new QName("name")).getValue();
-                                xmlEvent = reader.nextEvent();
-                                String columnValue = xmlEvent.asCharacters().getData();
-                                tran.getAdditionals().put(columnName, columnValue);
+                                String columnName = reader.getAttributeValue(null, COLUMN_NAME_ATTRIBUTE);
+                                int slot = additionals.getSchema().slotOf(columnName);
+                                if (slot >= 0) {
+                                    additionals.put(slot, readText(reader));
+                                }
                             }
                     }
-                } else if (xmlEvent.isEndElement()) {
-                    EndElement endElement = xmlEvent.asEndElement();
-                    String elementName = endElement.getName().getLocalPart();
-                    if (elementName.equals("Transaction")) {
+                } else if (eventType == XMLStreamConstants.END_ELEMENT) {
+                    if (reader.getLocalName().equals("Transaction")) {
                         assertTrue(tran != null);
+                        tran.setAdditionals(additionals.build());
                         trans.add(tran);
                         tran = null;
                     }
                 }
             }
-        } catch (XMLStreamException e) {
-            throw new RuntimeException(e);
+        } finally {
+            reader.close();
         }
         return tranList;
     }
 
-    private static LocalDate parseDay(XMLEvent xmlEvent) {
-        return LocalDate.parse(xmlEvent.asCharacters().getData(), LazyHolder.fioDtf);
+    /**
+     * Moves the reader from the start of an element to its text.
+     */
+    private static void nextText(XMLStreamReader reader) throws XMLStreamException {
+        int eventType = reader.next();
+        if (eventType != XMLStreamConstants.CHARACTERS) {
+            throw new XMLStreamException(String.format("Expected text of element but got event %s", eventType), reader.getLocation());
+        }
+    }
+
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        nextText(reader);
+        return reader.getText();
+    }
+
+    /**
+     * Parses the days of one statement, which repeat from transaction to transaction,
+     * comparing the text in the parser's buffer with the last parsed one before creating a string from it.
+     */
+    private static class DayParser {
+
+        private char[] lastText = new char[0];
+
+        private LocalDate lastDay;
+
+        private LocalDate parseDay(XMLStreamReader reader) throws XMLStreamException {
+            nextText(reader);
+            char[] text = reader.getTextCharacters();
+            int start = reader.getTextStart();
+            int length = reader.getTextLength();
+            if (lastDay != null && length == lastText.length) {
+                boolean same = true;
+                for (int i = 0; i < length; i++) {
+                    if (text[start + i] != lastText[i]) {
+                        same = false;
+                        break;
+                    }
+                }
+                if (same) {
+                    return lastDay;
+                }
+            }
+            char[] newText = new char[length];
+            System.arraycopy(text, start, newText, 0, length);
+            LocalDate day = LocalDate.parse(new String(newText), LazyHolder.fioDtf);
+            lastText = newText;
+            lastDay = day;
+            return day;
+        }
     }
 }
@@ -0,0 +1,259 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl.bank.parser;
+
+import com.brinvex.util.fiobank.api.model.Currency;
+import com.brinvex.util.fiobank.api.model.RawBankTransaction;
+import com.brinvex.util.fiobank.api.model.RawBankTransactionList;
+import com.brinvex.util.fiobank.api.service.exception.FiobankServiceException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import static java.lang.String.format;
+
+/**
+ * Parses the statements of the Fio API in the fixed-width GPC (ABO) format.
+ * Each line is a record of 128 characters, the {@code 074} header carries the account and the period
+ * and each {@code 075} record one transaction, other records are skipped.
+ * <p>
+ * GPC has no Fio transaction type, so {@link RawBankTransaction#getType()} stays null.
+ * The additionals are the counter account, its bank code and name and the symbols,
+ * under the same names as in the XML statement, with empty fields left out,
+ * sharing the column names as {@link BankAdditionals}.
+ */
+@SuppressWarnings("SpellCheckingInspection")
+public class GpcBankStatementParser {
+
+    private static final int RECORD_LENGTH = 128;
+
+    private static final String HEADER_RECORD = "074";
+
+    private static final String TRANSACTION_RECORD = "075";
+
+    private final Collection<String> additionalColumnNames;
+
+    public GpcBankStatementParser() {
+        this(null);
+    }
+
+    /**
+     * @param additionalColumnNames the names of the columns to keep in the additionals, null for all of them
+     */
+    public GpcBankStatementParser(Collection<String> additionalColumnNames) {
+        this.additionalColumnNames = additionalColumnNames;
+    }
+
+    public RawBankTransactionList parseStatement(String statementContent) {
+        RawBankTransactionList tranList = new RawBankTransactionList();
+        ArrayList<RawBankTransaction> trans = new ArrayList<>();
+        tranList.setTransactions(trans);
+        AdditionalSlots additionalSlots = new AdditionalSlots(new BankAdditionalsSchema(additionalColumnNames));
+
+        int lineNumber = 0;
+        int lineStart = 0;
+        int contentLength = statementContent.length();
+        while (lineStart < contentLength) {
+            int lineEnd = statementContent.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = contentLength;
+            }
+            int nextLineStart = lineEnd + 1;
+            if (lineEnd > lineStart && statementContent.charAt(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            lineNumber++;
+            if (lineEnd > lineStart) {
+                try {
+                    parseRecord(statementContent, lineStart, lineEnd, tranList, additionalSlots);
+                } catch (RuntimeException e) {
+                    throw new FiobankServiceException(format("%s - line=%s", lineNumber, statementContent.substring(lineStart, lineEnd)), e);
+                }
+            }
+            lineStart = nextLineStart;
+        }
+        if (tranList.getAccountNumber() == null) {
+            throw new FiobankServiceException("Missing header record");
+        }
+        return tranList;
+    }
+
+    private static void parseRecord(String s, int start, int end, RawBankTransactionList tranList, AdditionalSlots additionalSlots) {
+        if (end - start != RECORD_LENGTH) {
+            throw new IllegalArgumentException(format("Expected record of %s characters but got %s", RECORD_LENGTH, end - start));
+        }
+        if (s.startsWith(HEADER_RECORD, start)) {
+            if (tranList.getAccountNumber() != null) {
+                throw new IllegalArgumentException("Unexpected second header record");
+            }
+            tranList.setAccountNumber(number(s, start + 3, start + 19));
+            tranList.setPeriodFrom(date(s, start + 39).plusDays(1));
+            tranList.setPeriodTo(date(s, start + 108));
+        } else if (s.startsWith(TRANSACTION_RECORD, start)) {
+            if (tranList.getAccountNumber() == null) {
+                throw new IllegalArgumentException("Missing header record");
+            }
+            tranList.getTransactions().add(parseTransaction(s, start, additionalSlots));
+        }
+    }
+
+    private static RawBankTransaction parseTransaction(String s, int start, AdditionalSlots additionalSlots) {
+        RawBankTransaction tran = new RawBankTransaction();
+        tran.setId(number(s, start + 35, start + 48));
+
+        long amount = parseLong(s, start + 48, start + 60);
+        char accountingCode = s.charAt(start + 60);
+        switch (accountingCode) {
+            // debit and cancelled credit
+            case '1':
+            case '5':
+                amount = -amount;
+                break;
+            // credit and cancelled debit
+            case '2':
+            case '4':
+                break;
+            default:
+                throw new IllegalArgumentException(format("Unexpected accounting code: %s", accountingCode));
+        }
+        tran.setVolume(BigDecimal.valueOf(amount, 2));
+        tran.setCcy(currency(s, start + 118));
+        tran.setDate(date(s, start + 122));
+
+        BankAdditionals.Builder additionals = additionalSlots.additionals;
+        if (additionalSlots.counterAccount >= 0) {
+            putIfNotEmpty(additionals, additionalSlots.counterAccount, number(s, start + 19, start + 35));
+        }
+        if (additionalSlots.bankCode >= 0) {
+            putIfNotEmpty(additionals, additionalSlots.bankCode, code(s, start + 73, start + 77));
+        }
+        if (additionalSlots.counterAccountName >= 0) {
+            putIfNotEmpty(additionals, additionalSlots.counterAccountName, s.substring(start + 97, start + 117).trim());
+        }
+        if (additionalSlots.constantSymbol >= 0) {
+            putIfNotEmpty(additionals, additionalSlots.constantSymbol, code(s, start + 77, start + 81));
+        }
+        if (additionalSlots.variableSymbol >= 0) {
+            putIfNotEmpty(additionals, additionalSlots.variableSymbol, number(s, start + 61, start + 71));
+        }
+        if (additionalSlots.specificSymbol >= 0) {
+            putIfNotEmpty(additionals, additionalSlots.specificSymbol, number(s, start + 81, start + 91));
+        }
+        tran.setAdditionals(additionals.build());
+        return tran;
+    }
+
+    private static void putIfNotEmpty(BankAdditionals.Builder additionals, int slot, String value) {
+        if (!value.isEmpty()) {
+            additionals.put(slot, value);
+        }
+    }
+
+    /**
+     * The slots of the GPC columns in the order they are written to the additionals, -1 for a column not requested.
+     */
+    private static class AdditionalSlots {
+
+        private final BankAdditionals.Builder additionals;
+
+        private final int counterAccount;
+
+        private final int bankCode;
+
+        private final int counterAccountName;
+
+        private final int constantSymbol;
+
+        private final int variableSymbol;
+
+        private final int specificSymbol;
+
+        private AdditionalSlots(BankAdditionalsSchema schema) {
+            additionals = new BankAdditionals.Builder(schema);
+            counterAccount = schema.slotOf("Protiúčet");
+            bankCode = schema.slotOf("Kód banky");
+            counterAccountName = schema.slotOf("Název protiúčtu");
+            constantSymbol = schema.slotOf("KS");
+            variableSymbol = schema.slotOf("VS");
+            specificSymbol = schema.slotOf("SS");
+        }
+    }
+
+    /**
+     * Returns the digits of the zero-padded field without the leading zeros, an empty string for zero.
+     */
+    private static String number(String s, int start, int end) {
+        int i = start;
+        while (i < end && s.charAt(i) == '0') {
+            i++;
+        }
+        for (int j = i; j < end; j++) {
+            char c = s.charAt(j);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException(format("Expected digits but got: '%s'", s.substring(start, end)));
+            }
+        }
+        return s.substring(i, end);
+    }
+
+    /**
+     * Returns the digits of the field as they are, leading zeros included, an empty string for zero.
+     */
+    private static String code(String s, int start, int end) {
+        return number(s, start, end).isEmpty() ? "" : s.substring(start, end);
+    }
+
+    private static long parseLong(String s, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException(format("Expected digits but got: '%s'", s.substring(start, end)));
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Parses the date in the format {@code ddMMyy} of the 21st century.
+     */
+    private static LocalDate date(String s, int start) {
+        int day = (int) parseLong(s, start, start + 2);
+        int month = (int) parseLong(s, start + 2, start + 4);
+        int year = (int) parseLong(s, start + 4, start + 6);
+        return LocalDate.of(2000 + year, month, day);
+    }
+
+    /**
+     * Maps the ISO 4217 numeric code written as four digits.
+     */
+    private static Currency currency(String s, int start) {
+        int code = (int) parseLong(s, start, start + 4);
+        switch (code) {
+            case 203:
+                return Currency.CZK;
+            case 978:
+                return Currency.EUR;
+            case 840:
+                return Currency.USD;
+            default:
+                throw new IllegalArgumentException(format("Unexpected currency code: %s", code));
+        }
+    }
+}
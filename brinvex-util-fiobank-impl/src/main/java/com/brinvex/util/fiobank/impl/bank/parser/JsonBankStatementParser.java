@@ -0,0 +1,362 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl.bank.parser;
+
+import com.brinvex.util.fiobank.api.model.Currency;
+import com.brinvex.util.fiobank.api.model.RawBankTransaction;
+import com.brinvex.util.fiobank.api.model.RawBankTransactionList;
+import com.brinvex.util.fiobank.impl.bank.parser.JsonTokenizer.Token;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Parses the JSON statements of the Fio API with {@link JsonTokenizer}, without any JSON library.
+ * The result is the same as of {@link BankStatementParser} for the XML statement of the same period:
+ * a column is recognized by the number in its name, a null column is left out
+ * and a number is kept in the additionals as it is written.
+ * The additionals share their column names, see {@link BankAdditionals},
+ * and no string is created for the value of a column not requested.
+ */
+public class JsonBankStatementParser {
+
+    private static final String COLUMN_PREFIX = "column";
+
+    private static final int ID_COLUMN = 22;
+
+    private static final int DATE_COLUMN = 0;
+
+    private static final int VOLUME_COLUMN = 1;
+
+    private static final int TYPE_COLUMN = 8;
+
+    private static final int CCY_COLUMN = 14;
+
+    private final Collection<String> additionalColumnNames;
+
+    public JsonBankStatementParser() {
+        this(null);
+    }
+
+    /**
+     * @param additionalColumnNames the names of the columns to keep in the additionals, null for all of them
+     */
+    public JsonBankStatementParser(Collection<String> additionalColumnNames) {
+        this.additionalColumnNames = additionalColumnNames;
+    }
+
+    public RawBankTransactionList parseStatement(String statementContent) {
+        return parseStatement(new StringReader(statementContent));
+    }
+
+    /**
+     * Parses the statement straight from the stream, which is read as UTF-8 as JSON requires.
+     * The stream is not closed.
+     */
+    public RawBankTransactionList parseStatement(InputStream statementContent) {
+        return parseStatement(new InputStreamReader(statementContent, StandardCharsets.UTF_8));
+    }
+
+    protected RawBankTransactionList parseStatement(Reader reader) {
+        RawBankTransactionList tranList = new RawBankTransactionList();
+        tranList.setTransactions(new ArrayList<>());
+        JsonTokenizer tokenizer = new JsonTokenizer(reader);
+        try {
+            tokenizer.expect(Token.BEGIN_OBJECT);
+            Token token;
+            while ((token = tokenizer.next()) == Token.NAME) {
+                if (tokenizer.textEquals("accountStatement")) {
+                    parseAccountStatement(tokenizer, tranList);
+                } else {
+                    tokenizer.skipValue(tokenizer.next());
+                }
+            }
+            checkEndOfObject(tokenizer, token);
+            tokenizer.expect(Token.END_DOCUMENT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return tranList;
+    }
+
+    private void parseAccountStatement(JsonTokenizer tokenizer, RawBankTransactionList tranList) throws IOException {
+        tokenizer.expect(Token.BEGIN_OBJECT);
+        Token token;
+        while ((token = tokenizer.next()) == Token.NAME) {
+            if (tokenizer.textEquals("info")) {
+                parseInfo(tokenizer, tranList);
+            } else if (tokenizer.textEquals("transactionList")) {
+                parseTransactionList(tokenizer, tranList);
+            } else {
+                tokenizer.skipValue(tokenizer.next());
+            }
+        }
+        checkEndOfObject(tokenizer, token);
+    }
+
+    private void parseInfo(JsonTokenizer tokenizer, RawBankTransactionList tranList) throws IOException {
+        tokenizer.expect(Token.BEGIN_OBJECT);
+        DayParser dayParser = new DayParser();
+        Token token;
+        while ((token = tokenizer.next()) == Token.NAME) {
+            if (tokenizer.textEquals("accountId")) {
+                tranList.setAccountNumber(nextText(tokenizer));
+            } else if (tokenizer.textEquals("dateStart")) {
+                tokenizer.expect(Token.STRING);
+                tranList.setPeriodFrom(dayParser.parseDay(tokenizer));
+            } else if (tokenizer.textEquals("dateEnd")) {
+                tokenizer.expect(Token.STRING);
+                tranList.setPeriodTo(dayParser.parseDay(tokenizer));
+            } else {
+                tokenizer.skipValue(tokenizer.next());
+            }
+        }
+        checkEndOfObject(tokenizer, token);
+    }
+
+    private void parseTransactionList(JsonTokenizer tokenizer, RawBankTransactionList tranList) throws IOException {
+        Token token = tokenizer.next();
+        if (token == Token.NULL) {
+            return;
+        }
+        if (token != Token.BEGIN_OBJECT) {
+            throw tokenizer.syntaxError("Expected transaction list");
+        }
+        ColumnSlots columnSlots = new ColumnSlots(new BankAdditionalsSchema(additionalColumnNames));
+        DayParser dayParser = new DayParser();
+        while ((token = tokenizer.next()) == Token.NAME) {
+            if (tokenizer.textEquals("transaction")) {
+                tokenizer.expect(Token.BEGIN_ARRAY);
+                while ((token = tokenizer.next()) == Token.BEGIN_OBJECT) {
+                    tranList.getTransactions().add(parseTransaction(tokenizer, columnSlots, dayParser));
+                }
+                if (token != Token.END_ARRAY) {
+                    throw tokenizer.syntaxError("Expected transaction");
+                }
+            } else {
+                tokenizer.skipValue(tokenizer.next());
+            }
+        }
+        checkEndOfObject(tokenizer, token);
+    }
+
+    private RawBankTransaction parseTransaction(JsonTokenizer tokenizer, ColumnSlots columnSlots, DayParser dayParser) throws IOException {
+        RawBankTransaction tran = new RawBankTransaction();
+        BankAdditionals.Builder additionals = columnSlots.additionals;
+        Token token;
+        while ((token = tokenizer.next()) == Token.NAME) {
+            int columnId = columnId(tokenizer);
+            Token columnToken = tokenizer.next();
+            if (columnToken == Token.NULL) {
+                continue;
+            }
+            if (columnId < 0 || columnToken != Token.BEGIN_OBJECT) {
+                tokenizer.skipValue(columnToken);
+                continue;
+            }
+            int slot = columnSlots.knownSlot(columnId);
+            String columnValue = null;
+            while ((token = tokenizer.next()) == Token.NAME) {
+                if (tokenizer.textEquals("value")) {
+                    Token valueToken = tokenizer.next();
+                    if (valueToken == Token.NULL) {
+                        continue;
+                    }
+                    if (valueToken != Token.STRING && valueToken != Token.NUMBER) {
+                        throw tokenizer.syntaxError("Expected string or number value");
+                    }
+                    switch (columnId) {
+                        case ID_COLUMN:
+                            tran.setId(tokenizer.getText());
+                            break;
+                        case DATE_COLUMN:
+                            tran.setDate(dayParser.parseDay(tokenizer));
+                            break;
+                        case VOLUME_COLUMN:
+                            tran.setVolume(new BigDecimal(tokenizer.getTextCharacters(), 0, tokenizer.getTextLength()));
+                            break;
+                        case TYPE_COLUMN:
+                            tran.setType(tokenizer.getText());
+                            break;
+                        case CCY_COLUMN:
+                            tran.setCcy(Currency.valueOf(tokenizer.getText()));
+                            break;
+                        default:
+                            if (slot != -1) {
+                                columnValue = tokenizer.getText();
+                            }
+                    }
+                } else if (tokenizer.textEquals("name")) {
+                    tokenizer.expect(Token.STRING);
+                    slot = columnSlots.slot(columnId, tokenizer);
+                } else {
+                    tokenizer.skipValue(tokenizer.next());
+                }
+            }
+            checkEndOfObject(tokenizer, token);
+            if (columnValue != null && slot >= 0) {
+                additionals.put(slot, columnValue);
+            }
+        }
+        checkEndOfObject(tokenizer, token);
+        tran.setAdditionals(additionals.build());
+        return tran;
+    }
+
+    private static String nextText(JsonTokenizer tokenizer) throws IOException {
+        Token token = tokenizer.next();
+        if (token != Token.STRING && token != Token.NUMBER) {
+            throw tokenizer.syntaxError("Expected string or number value");
+        }
+        return tokenizer.getText();
+    }
+
+    private static void checkEndOfObject(JsonTokenizer tokenizer, Token token) {
+        if (token != Token.END_OBJECT) {
+            throw tokenizer.syntaxError("Expected end of object");
+        }
+    }
+
+    /**
+     * Returns the number of the column named {@code columnN} or -1 for any other name.
+     */
+    private static int columnId(JsonTokenizer tokenizer) {
+        char[] text = tokenizer.getTextCharacters();
+        int length = tokenizer.getTextLength();
+        int prefixLength = COLUMN_PREFIX.length();
+        if (length <= prefixLength || length > prefixLength + 4) {
+            return -1;
+        }
+        for (int i = 0; i < prefixLength; i++) {
+            if (text[i] != COLUMN_PREFIX.charAt(i)) {
+                return -1;
+            }
+        }
+        int id = 0;
+        for (int i = prefixLength; i < length; i++) {
+            char c = text[i];
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            id = id * 10 + (c - '0');
+        }
+        return id;
+    }
+
+    /**
+     * Keeps the name and the additionals slot of each column of one statement, which repeat from transaction
+     * to transaction, so the name is created once per column and the slot is known before the name is read,
+     * as Fio writes the value first. A column keeps its name within a statement.
+     */
+    private static class ColumnSlots {
+
+        private static final int UNKNOWN = -2;
+
+        private final BankAdditionals.Builder additionals;
+
+        private String[] names = new String[32];
+
+        private int[] slots = newSlots(32);
+
+        private ColumnSlots(BankAdditionalsSchema schema) {
+            this.additionals = new BankAdditionals.Builder(schema);
+        }
+
+        private static int[] newSlots(int length) {
+            int[] slots = new int[length];
+            Arrays.fill(slots, UNKNOWN);
+            return slots;
+        }
+
+        /**
+         * Returns the slot of the column as far as it is known from the previous transactions,
+         * -1 for a column not requested.
+         */
+        private int knownSlot(int columnId) {
+            return columnId < slots.length ? slots[columnId] : UNKNOWN;
+        }
+
+        private int slot(int columnId, JsonTokenizer tokenizer) {
+            if (columnId >= names.length) {
+                int length = Math.max(columnId + 1, names.length * 2);
+                names = Arrays.copyOf(names, length);
+                int[] newSlots = newSlots(length);
+                System.arraycopy(slots, 0, newSlots, 0, slots.length);
+                slots = newSlots;
+            }
+            String name = names[columnId];
+            if (name == null || !tokenizer.textEquals(name)) {
+                name = tokenizer.getText();
+                names[columnId] = name;
+                slots[columnId] = additionals.getSchema().slotOf(name);
+            }
+            return slots[columnId];
+        }
+    }
+
+    /**
+     * Parses the days of one statement, written as {@code yyyy-MM-dd} followed by the offset,
+     * comparing the text with the last parsed one before converting it.
+     */
+    private static class DayParser {
+
+        private static final int DAY_LENGTH = 10;
+
+        private final char[] lastText = new char[DAY_LENGTH];
+
+        private LocalDate lastDay;
+
+        private LocalDate parseDay(JsonTokenizer tokenizer) {
+            char[] text = tokenizer.getTextCharacters();
+            if (tokenizer.getTextLength() < DAY_LENGTH) {
+                throw tokenizer.syntaxError("Expected day");
+            }
+            if (lastDay != null && Arrays.equals(text, 0, DAY_LENGTH, lastText, 0, DAY_LENGTH)) {
+                return lastDay;
+            }
+            if (text[4] != '-' || text[7] != '-') {
+                throw tokenizer.syntaxError("Expected day");
+            }
+            LocalDate day = LocalDate.of(digits(tokenizer, 0, 4), digits(tokenizer, 5, 7), digits(tokenizer, 8, 10));
+            System.arraycopy(text, 0, lastText, 0, DAY_LENGTH);
+            lastDay = day;
+            return day;
+        }
+
+        private static int digits(JsonTokenizer tokenizer, int start, int end) {
+            char[] text = tokenizer.getTextCharacters();
+            int value = 0;
+            for (int i = start; i < end; i++) {
+                char c = text[i];
+                if (c < '0' || c > '9') {
+                    throw tokenizer.syntaxError("Expected day");
+                }
+                value = value * 10 + (c - '0');
+            }
+            return value;
+        }
+    }
+}
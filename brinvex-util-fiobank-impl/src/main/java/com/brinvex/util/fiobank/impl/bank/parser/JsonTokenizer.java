@@ -0,0 +1,388 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl.bank.parser;
+
+import com.brinvex.util.fiobank.api.service.exception.FiobankServiceException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+import static java.lang.String.format;
+
+/**
+ * A pull tokenizer of JSON reading the characters in blocks from a {@link Reader}.
+ * The text of the last name, string or number is kept in a reusable buffer,
+ * so a caller which only compares or converts it does not create a string for it.
+ * The structure is validated as the tokens are read, a syntax error is reported with the offset it was found at.
+ */
+final class JsonTokenizer {
+
+    enum Token {
+        BEGIN_OBJECT,
+        END_OBJECT,
+        BEGIN_ARRAY,
+        END_ARRAY,
+        NAME,
+        STRING,
+        NUMBER,
+        TRUE,
+        FALSE,
+        NULL,
+        END_DOCUMENT
+    }
+
+    private static final byte EMPTY_DOCUMENT = 0;
+    private static final byte NONEMPTY_DOCUMENT = 1;
+    private static final byte EMPTY_OBJECT = 2;
+    private static final byte DANGLING_NAME = 3;
+    private static final byte NONEMPTY_OBJECT = 4;
+    private static final byte EMPTY_ARRAY = 5;
+    private static final byte NONEMPTY_ARRAY = 6;
+
+    private final Reader reader;
+
+    private final char[] buf = new char[8192];
+
+    private int pos;
+
+    private int limit;
+
+    /**
+     * The number of characters read before the current buffer.
+     */
+    private long bufOffset;
+
+    private char[] text = new char[64];
+
+    private int textLength;
+
+    private byte[] stack = new byte[32];
+
+    private int depth = 1;
+
+    JsonTokenizer(Reader reader) {
+        this.reader = reader;
+        this.stack[0] = EMPTY_DOCUMENT;
+    }
+
+    Token next() throws IOException {
+        switch (stack[depth - 1]) {
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT: {
+                int c = nextNonWhitespace();
+                if (c == '}') {
+                    depth--;
+                    return Token.END_OBJECT;
+                }
+                if (stack[depth - 1] == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("Expected ',' or '}'");
+                    }
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw syntaxError("Expected name");
+                }
+                readString();
+                stack[depth - 1] = DANGLING_NAME;
+                return Token.NAME;
+            }
+            case DANGLING_NAME: {
+                if (nextNonWhitespace() != ':') {
+                    throw syntaxError("Expected ':'");
+                }
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                return readValue(nextNonWhitespace());
+            }
+            case EMPTY_ARRAY:
+            case NONEMPTY_ARRAY: {
+                int c = nextNonWhitespace();
+                if (c == ']') {
+                    depth--;
+                    return Token.END_ARRAY;
+                }
+                if (stack[depth - 1] == NONEMPTY_ARRAY) {
+                    if (c != ',') {
+                        throw syntaxError("Expected ',' or ']'");
+                    }
+                    c = nextNonWhitespace();
+                }
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                return readValue(c);
+            }
+            case EMPTY_DOCUMENT: {
+                stack[0] = NONEMPTY_DOCUMENT;
+                return readValue(nextNonWhitespace());
+            }
+            default: {
+                if (nextNonWhitespace() != -1) {
+                    throw syntaxError("Expected end of document");
+                }
+                return Token.END_DOCUMENT;
+            }
+        }
+    }
+
+    /**
+     * Skips the value which starts with the given token, the nested values of an object or an array included.
+     */
+    void skipValue(Token token) throws IOException {
+        if (token != Token.BEGIN_OBJECT && token != Token.BEGIN_ARRAY) {
+            return;
+        }
+        int valueDepth = depth - 1;
+        while (depth > valueDepth) {
+            next();
+        }
+    }
+
+    /**
+     * Returns the next token which must be the given one.
+     */
+    void expect(Token expectedToken) throws IOException {
+        Token token = next();
+        if (token != expectedToken) {
+            throw syntaxError(format("Expected %s but got %s", expectedToken, token));
+        }
+    }
+
+    String getText() {
+        return new String(text, 0, textLength);
+    }
+
+    char[] getTextCharacters() {
+        return text;
+    }
+
+    int getTextLength() {
+        return textLength;
+    }
+
+    boolean textEquals(String s) {
+        int length = textLength;
+        if (s.length() != length) {
+            return false;
+        }
+        char[] text = this.text;
+        for (int i = 0; i < length; i++) {
+            if (text[i] != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    FiobankServiceException syntaxError(String message) {
+        return new FiobankServiceException(format("%s - offset=%s", message, bufOffset + pos));
+    }
+
+    private Token readValue(int c) throws IOException {
+        switch (c) {
+            case '{':
+                push(EMPTY_OBJECT);
+                return Token.BEGIN_OBJECT;
+            case '[':
+                push(EMPTY_ARRAY);
+                return Token.BEGIN_ARRAY;
+            case '"':
+                readString();
+                return Token.STRING;
+            case 't':
+                readLiteral("rue");
+                return Token.TRUE;
+            case 'f':
+                readLiteral("alse");
+                return Token.FALSE;
+            case 'n':
+                readLiteral("ull");
+                return Token.NULL;
+            case '-':
+            case '0':
+            case '1':
+            case '2':
+            case '3':
+            case '4':
+            case '5':
+            case '6':
+            case '7':
+            case '8':
+            case '9':
+                readNumber((char) c);
+                return Token.NUMBER;
+            case -1:
+                throw syntaxError("Unexpected end of document");
+            default:
+                throw syntaxError(format("Unexpected character '%s'", (char) c));
+        }
+    }
+
+    private void push(byte context) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = context;
+    }
+
+    /**
+     * Reads the string after its opening quote, copying the runs between the escapes in bulk.
+     */
+    private void readString() throws IOException {
+        textLength = 0;
+        while (true) {
+            char[] buf = this.buf;
+            int start = pos;
+            int end = limit;
+            for (int p = start; p < end; p++) {
+                char c = buf[p];
+                if (c == '"') {
+                    appendText(buf, start, p - start);
+                    pos = p + 1;
+                    return;
+                }
+                if (c == '\\') {
+                    appendText(buf, start, p - start);
+                    pos = p + 1;
+                    appendText(readEscape());
+                    start = pos;
+                    end = limit;
+                    p = start - 1;
+                    buf = this.buf;
+                }
+            }
+            appendText(buf, start, end - start);
+            pos = end;
+            if (!fill()) {
+                throw syntaxError("Unterminated string");
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u': {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("Invalid unicode escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            }
+            default:
+                throw syntaxError("Invalid escape");
+        }
+    }
+
+    /**
+     * Reads the characters a number can consist of, the number itself is validated by its consumer.
+     */
+    private void readNumber(char first) throws IOException {
+        textLength = 0;
+        appendText(first);
+        while (true) {
+            if (pos == limit && !fill()) {
+                return;
+            }
+            char c = buf[pos];
+            if ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                appendText(c);
+                pos++;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void readLiteral(String rest) throws IOException {
+        for (int i = 0, length = rest.length(); i < length; i++) {
+            if (read() != rest.charAt(i)) {
+                throw syntaxError("Invalid literal");
+            }
+        }
+    }
+
+    private void appendText(char[] chars, int start, int length) {
+        if (length == 0) {
+            return;
+        }
+        ensureTextCapacity(textLength + length);
+        System.arraycopy(chars, start, text, textLength, length);
+        textLength += length;
+    }
+
+    private void appendText(char c) {
+        ensureTextCapacity(textLength + 1);
+        text[textLength++] = c;
+    }
+
+    private void ensureTextCapacity(int capacity) {
+        if (capacity > text.length) {
+            text = Arrays.copyOf(text, Math.max(capacity, text.length * 2));
+        }
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) {
+                return -1;
+            }
+            char c = buf[pos++];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buf[pos++];
+    }
+
+    private boolean fill() throws IOException {
+        bufOffset += limit;
+        pos = 0;
+        limit = 0;
+        int n;
+        do {
+            n = reader.read(buf, 0, buf.length);
+        } while (n == 0);
+        if (n < 0) {
+            return false;
+        }
+        limit = n;
+        return true;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl.broker;
+
+import com.brinvex.util.fiobank.api.model.Country;
+import com.brinvex.util.fiobank.api.model.Currency;
+import com.brinvex.util.fiobank.api.model.Transaction;
+import com.brinvex.util.fiobank.api.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * Generates the IDs of the transactions mapped from the broker statements.
+ * An ID is written straight into a builder sized for it and is the same string as
+ * <pre>
+ * format("%s/%s/%s/%s/%s/%s/%s/%s/%s",
+ *         DateTimeFormatter.ofPattern("yyMMddhhmmss").format(date),
+ *         type, ccy, country, symbol,
+ *         grossValue == null ? "" : grossValue.unscaledValue(),
+ *         qty == null ? "" : qty.unscaledValue(),
+ *         price == null ? "" : price.unscaledValue(),
+ *         Objects.hashCode(note))
+ * </pre>
+ * followed by {@code "/" + Objects.hash(prevId)} if the previous transaction has the same ID
+ * or the same date, type, currency, country and symbol,
+ * so the IDs already stored stay valid.
+ * Instances hold no state and can be shared by threads.
+ */
+public class BrokerTransactionIdGenerator {
+
+    private static final int INITIAL_CAPACITY = 128;
+
+    /**
+     * The unscaled value of a decimal of at most this many digits fits in a long.
+     */
+    private static final int MAX_LONG_PRECISION = 18;
+
+    private static final char ID_DELIMITER = '/';
+
+    public String generateTranId(Transaction tran, Transaction prevTran) {
+        ZonedDateTime date = tran.getDate();
+        TransactionType type = tran.getType();
+        Currency ccy = tran.getCcy();
+        Country country = tran.getCountry();
+        String symbol = tran.getSymbol();
+
+        StringBuilder id = new StringBuilder(INITIAL_CAPACITY);
+        appendDate(id, date.toLocalDateTime());
+        id.append(ID_DELIMITER).append(type);
+        id.append(ID_DELIMITER).append(ccy);
+        id.append(ID_DELIMITER).append(country);
+        id.append(ID_DELIMITER).append(symbol);
+        id.append(ID_DELIMITER);
+        appendUnscaledValue(id, tran.getGrossValue());
+        id.append(ID_DELIMITER);
+        appendUnscaledValue(id, tran.getQty());
+        id.append(ID_DELIMITER);
+        appendUnscaledValue(id, tran.getPrice());
+        id.append(ID_DELIMITER).append(Objects.hashCode(tran.getNote()));
+
+        if (prevTran != null) {
+            String prevId = prevTran.getId();
+            if ((prevId != null && prevId.contentEquals(id)) ||
+                (date.isEqual(prevTran.getDate())
+                 && Objects.equals(type, prevTran.getType())
+                 && Objects.equals(ccy, prevTran.getCcy())
+                 && Objects.equals(country, prevTran.getCountry())
+                 && Objects.equals(symbol, prevTran.getSymbol())
+                )
+            ) {
+                id.append(ID_DELIMITER).append(Objects.hash(prevId));
+            }
+        }
+        return id.toString();
+    }
+
+    /**
+     * Appends the date as the pattern {@code yyMMddhhmmss} does,
+     * i.e. with the two last digits of the year of era and the 1-12 clock hour of am/pm.
+     */
+    private static void appendDate(StringBuilder sb, LocalDateTime dateTime) {
+        int year = dateTime.getYear();
+        int yearOfEra = year >= 1 ? year : 1 - year;
+        int hour = dateTime.getHour() % 12;
+        appendTwoDigits(sb, yearOfEra % 100);
+        appendTwoDigits(sb, dateTime.getMonthValue());
+        appendTwoDigits(sb, dateTime.getDayOfMonth());
+        appendTwoDigits(sb, hour == 0 ? 12 : hour);
+        appendTwoDigits(sb, dateTime.getMinute());
+        appendTwoDigits(sb, dateTime.getSecond());
+    }
+
+    private static void appendTwoDigits(StringBuilder sb, int value) {
+        sb.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    /**
+     * Appends the unscaled value as {@link BigDecimal#unscaledValue()} prints it, or nothing for null.
+     * Values fitting in a long are appended without creating a {@link java.math.BigInteger}.
+     */
+    private static void appendUnscaledValue(StringBuilder sb, BigDecimal value) {
+        if (value == null) {
+            return;
+        }
+        if (value.precision() <= MAX_LONG_PRECISION) {
+            int scale = value.scale();
+            BigDecimal unscaled = scale == 0 ? value : value.movePointRight(scale);
+            sb.append(unscaled.longValueExact());
+        } else {
+            sb.append(value.unscaledValue());
+        }
+    }
+}
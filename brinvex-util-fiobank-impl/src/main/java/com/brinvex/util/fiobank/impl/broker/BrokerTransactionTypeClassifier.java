@@ -0,0 +1,267 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl.broker;
+
+import com.brinvex.util.fiobank.api.model.Lang;
+import com.brinvex.util.fiobank.api.model.RawBrokerTranDirection;
+import com.brinvex.util.fiobank.api.model.RawBrokerTransaction;
+import com.brinvex.util.fiobank.api.model.TransactionType;
+import com.brinvex.util.fiobank.api.service.exception.FiobankServiceException;
+import com.brinvex.util.fiobank.impl.util.MultiPatternMatcher;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Detects the type of a raw broker transaction from its direction, text and market.
+ * The rules are checked in a fixed order of precedence, the first matching one decides.
+ * Texts of the form {@code "<symbol> - <suffix>"} are matched by stripping the symbol once
+ * and looking the suffix up among all the known suffixes at once,
+ * and the substrings a transformation text is searched for are found in a single pass over the text.
+ */
+@SuppressWarnings("SpellCheckingInspection")
+public class BrokerTransactionTypeClassifier {
+
+    private static class LazyHolder {
+
+        /**
+         * Suffixes of the texts starting with the symbol, in the order of precedence.
+         */
+        private static final List<String> SYMBOL_TEXT_SUFFIXES = List.of(
+                "Dividenda",
+                "Daň z divid. zaplacená",
+                "Daň z dividend zaplacená",
+                "Divi.",
+                "Return of Principal",
+                "Stock Dividend",
+                "Finanční kompenzace - Stock Dividend",
+                "Oprava dividendy z",
+                "Tax Refund",
+                "Oprava daně z dividendy",
+                "Refundable U.S. Fed Tax Reclassified By Issuer",
+                "ADR Fee",
+                "Spin-off Fair Market Value",
+                "Spin-off - daň zaplacená",
+                "Spin-off",
+                "Security Liquidated"
+        );
+
+        private static final List<TransactionType> SYMBOL_TEXT_TYPES = List.of(
+                TransactionType.CASH_DIVIDEND,
+                TransactionType.TAX,
+                TransactionType.TAX,
+                TransactionType.CASH_DIVIDEND,
+                TransactionType.CAPITAL_DIVIDEND,
+                TransactionType.STOCK_DIVIDEND,
+                TransactionType.STOCK_DIVIDEND,
+                TransactionType.DIVIDEND_REVERSAL,
+                TransactionType.TAX_REFUND,
+                TransactionType.TAX_REFUND,
+                TransactionType.TAX_REFUND,
+                TransactionType.FEE,
+                TransactionType.SPINOFF_VALUE,
+                TransactionType.TAX,
+                TransactionType.SPINOFF_PARENT,
+                TransactionType.LIQUIDATION
+        );
+
+        /**
+         * The plain "Spin-off" suffix applies only if the text mentions neither the value nor the tax.
+         */
+        private static final int SPINOFF_PARENT_SUFFIX_INDEX = SYMBOL_TEXT_SUFFIXES.indexOf("Spin-off");
+
+        private static final MultiPatternMatcher SYMBOL_TEXT_SUFFIX_MATCHER = new MultiPatternMatcher(SYMBOL_TEXT_SUFFIXES);
+
+        private static final MultiPatternMatcher TEXT_PART_MATCHER = new MultiPatternMatcher(List.of(
+                "Fair Market Value",
+                "daň zaplacená",
+                "Ticker Change: ",
+                "Change of Listing: ",
+                "Change in Security ID (ISIN Change)",
+                "Split ",
+                "Stock Merger ",
+                "Security Deleted As Worthless"
+        ));
+
+        private static final Map<Lang, String> FEE_MARKETS = new EnumMap<>(Map.of(
+                Lang.CZ, "Poplatek",
+                Lang.EN, "Fee",
+                Lang.SK, "Poplatok"
+        ));
+
+        private static final Map<Lang, String> TRANSFORMATION_MARKETS = new EnumMap<>(Map.of(
+                Lang.CZ, "Transformace",
+                Lang.EN, "Transformation",
+                Lang.SK, "Transformácia"
+        ));
+    }
+
+    // Bits of the patterns of TEXT_PART_MATCHER
+    private static final long FAIR_MARKET_VALUE = 1L;
+
+    private static final long TAX_PAID = 1L << 1;
+
+    private static final long INSTRUMENT_CHANGE = 1L << 2 | 1L << 3 | 1L << 4;
+
+    private static final long SPLIT = 1L << 5;
+
+    private static final long STOCK_MERGER = 1L << 6;
+
+    private static final long WORTHLESS = 1L << 7;
+
+    private static final String SYMBOL_DELIMITER = " - ";
+
+    public TransactionType detectTranType(RawBrokerTransaction tran) {
+        Lang lang = tran.getLang();
+        String symbol = tran.getSymbol();
+        RawBrokerTranDirection direction = tran.getDirection();
+        String text = tran.getText();
+        String market = tran.getMarket();
+
+        if (direction == null) {
+            if (text.startsWith("Vloženo na účet z") && text.endsWith("Bezhotovostní vklad")) {
+                return TransactionType.DEPOSIT;
+            }
+            if (text.equals("Vklad Bezhotovostní vklad")
+                || text.equals("v Bezhotovostní vklad")
+                || text.startsWith("Převod z účtu")
+            ) {
+                return TransactionType.DEPOSIT;
+            }
+            TransactionType symbolTextType = detectSymbolTextType(text, symbol);
+            if (symbolTextType != null) {
+                return symbolTextType;
+            }
+            if (text.startsWith("Poplatek za on-line data")) {
+                return TransactionType.FEE;
+            }
+            if (text.startsWith("Reklamace ")) {
+                return TransactionType.RECLAMATION;
+            }
+        } else {
+            switch (direction) {
+                case BANK_TRANSFER:
+                    if (text.startsWith("Převod na účet")) {
+                        return TransactionType.WITHDRAWAL;
+                    }
+                    break;
+                case CURRENCY_CONVERSION:
+                    if (text.equals("Nákup")) {
+                        return TransactionType.FX_BUY;
+                    }
+                    if (text.equals("Prodej")) {
+                        return TransactionType.FX_SELL;
+                    }
+                    break;
+                case BUY:
+                    if (text.equals("Nákup")) {
+                        return TransactionType.BUY;
+                    }
+                    break;
+                case SELL:
+                    if (text.equals("Prodej")) {
+                        return TransactionType.SELL;
+                    }
+                    if (text.startsWith("Security Liquidated")) {
+                        return TransactionType.LIQUIDATION;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        String feeMarket = LazyHolder.FEE_MARKETS.get(lang);
+        if (feeMarket != null && market.equals(feeMarket)) {
+            return TransactionType.FEE;
+        }
+
+        String transformationMarket = LazyHolder.TRANSFORMATION_MARKETS.get(lang);
+        if (transformationMarket != null && market.equals(transformationMarket)) {
+            long textParts = LazyHolder.TEXT_PART_MATCHER.match(text);
+            if ((textParts & INSTRUMENT_CHANGE) != 0) {
+                if (RawBrokerTranDirection.SELL.equals(direction)) {
+                    return TransactionType.INSTRUMENT_CHANGE_PARENT;
+                } else if (RawBrokerTranDirection.BUY.equals(direction)) {
+                    return TransactionType.INSTRUMENT_CHANGE_CHILD;
+                }
+            }
+            if ((textParts & SPLIT) != 0) {
+                return TransactionType.SPLIT;
+            }
+            if ((textParts & STOCK_MERGER) != 0) {
+                if (RawBrokerTranDirection.SELL.equals(direction)) {
+                    return TransactionType.MERGER_PARENT;
+                } else if (RawBrokerTranDirection.BUY.equals(direction)) {
+                    return TransactionType.MERGER_CHILD;
+                }
+            }
+            if ((textParts & WORTHLESS) != 0) {
+                return TransactionType.LIQUIDATION;
+            }
+
+            String symbolPrefix = String.valueOf(symbol);
+            if (isSymbolText(text, symbolPrefix, "Reorganization")) {
+                String rawSymbol = tran.getRawSymbol();
+                if (RawBrokerTranDirection.SELL.equals(direction)
+                    && rawSymbol != null
+                    && rawSymbol.length() == symbolPrefix.length() + 1
+                    && rawSymbol.startsWith(symbolPrefix)
+                    && rawSymbol.charAt(symbolPrefix.length()) == '*'
+                ) {
+                    return TransactionType.INSTRUMENT_CHANGE_PARENT;
+                } else if (RawBrokerTranDirection.BUY.equals(direction) && symbol.equals(rawSymbol)) {
+                    return TransactionType.INSTRUMENT_CHANGE_CHILD;
+                }
+            }
+        }
+
+        throw new FiobankServiceException(format("Could not detect transaction type: %s", tran));
+    }
+
+    /**
+     * Returns the type of the text of the form {@code "<symbol> - <suffix>"} or null if the text is not of that form
+     * or its suffix is not known. A null symbol is written as "null" as by {@link String#format(String, Object...)}.
+     */
+    private static TransactionType detectSymbolTextType(String text, String symbol) {
+        String symbolPrefix = String.valueOf(symbol);
+        if (!text.startsWith(symbolPrefix) || !text.startsWith(SYMBOL_DELIMITER, symbolPrefix.length())) {
+            return null;
+        }
+        long suffixes = LazyHolder.SYMBOL_TEXT_SUFFIX_MATCHER.matchPrefixes(text, symbolPrefix.length() + SYMBOL_DELIMITER.length());
+        while (suffixes != 0) {
+            int suffixIndex = Long.numberOfTrailingZeros(suffixes);
+            suffixes &= suffixes - 1;
+            if (suffixIndex == LazyHolder.SPINOFF_PARENT_SUFFIX_INDEX
+                && (LazyHolder.TEXT_PART_MATCHER.match(text) & (FAIR_MARKET_VALUE | TAX_PAID)) != 0) {
+                continue;
+            }
+            return LazyHolder.SYMBOL_TEXT_TYPES.get(suffixIndex);
+        }
+        return null;
+    }
+
+    private static boolean isSymbolText(String text, String symbolPrefix, String suffix) {
+        int symbolLength = symbolPrefix.length();
+        return text.length() == symbolLength + SYMBOL_DELIMITER.length() + suffix.length()
+               && text.startsWith(symbolPrefix)
+               && text.startsWith(SYMBOL_DELIMITER, symbolLength)
+               && text.startsWith(suffix, symbolLength + SYMBOL_DELIMITER.length());
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl.broker;
+
+import com.brinvex.util.fiobank.api.model.Country;
+import com.brinvex.util.fiobank.api.model.RawBrokerTransaction;
+import com.brinvex.util.fiobank.api.model.TransactionType;
+
+import java.math.BigDecimal;
+
+/**
+ * A raw transaction together with what {@link FioBrokerTransactionMapper} derives from it before mapping,
+ * i.e. its type, country, value and fees.
+ */
+public class ClassifiedRawBrokerTransaction {
+
+    private final RawBrokerTransaction rawTran;
+
+    private final TransactionType tranType;
+
+    private final Country country;
+
+    private final BigDecimal value;
+
+    private final BigDecimal fees;
+
+    public ClassifiedRawBrokerTransaction(
+            RawBrokerTransaction rawTran,
+            TransactionType tranType,
+            Country country,
+            BigDecimal value,
+            BigDecimal fees
+    ) {
+        this.rawTran = rawTran;
+        this.tranType = tranType;
+        this.country = country;
+        this.value = value;
+        this.fees = fees;
+    }
+
+    public RawBrokerTransaction getRawTran() {
+        return rawTran;
+    }
+
+    public TransactionType getTranType() {
+        return tranType;
+    }
+
+    public Country getCountry() {
+        return country;
+    }
+
+    public BigDecimal getValue() {
+        return value;
+    }
+
+    public BigDecimal getFees() {
+        return fees;
+    }
+
+    @Override
+    public String toString() {
+        return "ClassifiedRawBrokerTransaction{" +
+               "tranType=" + tranType +
+               ", country=" + country +
+               ", value=" + value +
+               ", fees=" + fees +
+               ", rawTran=" + rawTran +
+               '}';
+    }
+}
@@ -25,9 +25,11 @@ import com.brinvex.util.fiobank.api.model.Transaction;
 import com.brinvex.util.fiobank.api.service.FioBrokerService;
 import com.brinvex.util.fiobank.api.service.exception.FiobankServiceException;
 import com.brinvex.util.fiobank.impl.broker.parser.BrokerStatementParser;
+import com.brinvex.util.fiobank.impl.util.ConcurrencyUtil;
 import com.brinvex.util.fiobank.impl.util.IOUtil;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
@@ -38,11 +40,12 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.PriorityQueue;
 import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -65,17 +68,54 @@ public class FioBrokerServiceImpl implements FioBrokerService {
 
     @Override
     public RawBrokerTransactionList parseTransactionStatements(Collection<Path> transactionStatementFilePaths) {
-        return parseTransactionStatements(transactionStatementFilePaths
+        return mergeTransactionLists(transactionStatementFilePaths
                 .stream()
-                .map(filePath -> IOUtil.readTextFileContent(filePath, LazyHolder.DEFAULT_CHARSET, StandardCharsets.UTF_8))
+                .map(this::parseTransactionStatement)
         );
     }
 
-    @SuppressWarnings("DuplicatedCode")
+    @Override
+    public RawBrokerTransactionList parseTransactionStatements(
+            Collection<Path> transactionStatementFilePaths,
+            Executor executor,
+            int parallelism
+    ) {
+        List<RawBrokerTransactionList> rawTranLists = ConcurrencyUtil.mapInParallel(
+                transactionStatementFilePaths, this::parseTransactionStatement, executor, parallelism);
+        return mergeTransactionLists(rawTranLists.stream());
+    }
+
+    protected RawBrokerTransactionList parseTransactionStatement(Path transactionStatementFilePath) {
+        return IOUtil.parseTextContent(IOUtil.mapFileContent(transactionStatementFilePath), reader -> {
+            List<RawBrokerTransaction> rawTrans = new ArrayList<>();
+            RawBrokerTransactionList rawTranList = brokerStatementParser.parseTransactionStatement(reader, rawTrans::add);
+            rawTranList.setTransactions(rawTrans);
+            return rawTranList;
+        }, LazyHolder.DEFAULT_CHARSET, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public RawBrokerTransactionList parseTransactionStatement(Path transactionStatementFilePath, Consumer<RawBrokerTransaction> rawTranConsumer) {
+        return parseTransactionStatement(IOUtil.mapFileContent(transactionStatementFilePath), rawTranConsumer);
+    }
+
+    /**
+     * The transactions passed to the consumer cannot be taken back, so unlike {@link #parseTransactionStatement(Path)}
+     * the charset is detected before the content is parsed rather than by parsing it again in another charset.
+     */
+    protected RawBrokerTransactionList parseTransactionStatement(ByteBuffer content, Consumer<RawBrokerTransaction> rawTranConsumer) {
+        Charset charset = IOUtil.detectCharset(content, LazyHolder.DEFAULT_CHARSET, StandardCharsets.UTF_8);
+        return brokerStatementParser.parseTransactionStatement(content, charset, rawTranConsumer);
+    }
+
     @Override
     public RawBrokerTransactionList parseTransactionStatements(Stream<String> transactionStatementContents) {
-        List<RawBrokerTransactionList> rawTranLists = transactionStatementContents
-                .map(brokerStatementParser::parseTrasnsactionStatement)
+        return mergeTransactionLists(transactionStatementContents.map(brokerStatementParser::parseTrasnsactionStatement));
+    }
+
+    @SuppressWarnings("DuplicatedCode")
+    protected RawBrokerTransactionList mergeTransactionLists(Stream<RawBrokerTransactionList> rawTranListStream) {
+        List<RawBrokerTransactionList> rawTranLists = rawTranListStream
                 .sorted(Comparator.comparing(RawBrokerTransactionList::getPeriodFrom).thenComparing(RawBrokerTransactionList::getPeriodTo))
                 .collect(Collectors.toList());
 
@@ -94,9 +134,9 @@ public class FioBrokerServiceImpl implements FioBrokerService {
             result.setPeriodTo(rawTranList0.getPeriodTo());
         }
 
-        Set<RawBrokerTransaction> rawTrans = new LinkedHashSet<>();
-        Set<Object> rawTranKeys = new LinkedHashSet<>();
-        for (RawBrokerTransactionList rawTranList : rawTranLists) {
+        PriorityQueue<TransactionRun> runs = new PriorityQueue<>();
+        for (int i = 0, rawTranListsSize = rawTranLists.size(); i < rawTranListsSize; i++) {
+            RawBrokerTransactionList rawTranList = rawTranLists.get(i);
             LocalDate periodFrom = rawTranList.getPeriodFrom();
             LocalDate periodTo = rawTranList.getPeriodTo();
 
@@ -117,32 +157,92 @@ public class FioBrokerServiceImpl implements FioBrokerService {
                 result.setPeriodTo(periodTo);
             }
 
-            List<RawBrokerTransaction> tranListTrans = new ArrayList<>(rawTranList.getTransactions());
-            Collections.reverse(tranListTrans);
-            Set<Object> tranListTranKeys = new LinkedHashSet<>();
-            for (RawBrokerTransaction tranListTran : tranListTrans) {
-                Object tranKey = rawTransactionKey(tranListTran);
-                if (!rawTranKeys.contains(tranKey)) {
-                    rawTrans.add(tranListTran);
-                }
-                tranListTranKeys.add(tranKey);
+            TransactionRun run = new TransactionRun(i, rawTranList.getTransactions());
+            if (run.hasNext()) {
+                runs.add(run);
             }
-            rawTranKeys.addAll(tranListTranKeys);
         }
 
-        result.setTransactions(rawTrans
-                .stream()
-                .sorted(Comparator.comparing(RawBrokerTransaction::getTradeDate))
-                .collect(Collectors.toCollection(ArrayList::new))
-        );
+        // Duplicate keys include the trade date, so only the transactions of the same trade date
+        // coming from different statements need to be compared
+        List<RawBrokerTransaction> rawTrans = new ArrayList<>();
+        List<RawBrokerTransaction> sameDateTrans = new ArrayList<>();
+        List<Integer> sameDateRunIndexes = new ArrayList<>();
+        RawBrokerTransactionKeySet sameDateKeys = newRawTransactionKeySet();
+        while (!runs.isEmpty()) {
+            LocalDateTime tradeDate = runs.peek().peek().getTradeDate();
+            sameDateTrans.clear();
+            sameDateRunIndexes.clear();
+            boolean multipleRuns = false;
+            while (!runs.isEmpty() && runs.peek().peek().getTradeDate().equals(tradeDate)) {
+                TransactionRun run = runs.poll();
+                if (!sameDateRunIndexes.isEmpty() && sameDateRunIndexes.get(sameDateRunIndexes.size() - 1) != run.index) {
+                    multipleRuns = true;
+                }
+                do {
+                    sameDateTrans.add(run.next());
+                    sameDateRunIndexes.add(run.index);
+                } while (run.hasNext() && run.peek().getTradeDate().equals(tradeDate));
+                if (run.hasNext()) {
+                    runs.add(run);
+                }
+            }
+            if (!multipleRuns) {
+                rawTrans.addAll(sameDateTrans);
+                continue;
+            }
+            sameDateKeys.clear();
+            for (int j = 0, sameDateTransSize = sameDateTrans.size(); j < sameDateTransSize; j++) {
+                RawBrokerTransaction rawTran = sameDateTrans.get(j);
+                int runIndex = sameDateRunIndexes.get(j);
+                int firstRunIndex = sameDateKeys.putIfAbsent(rawTran, runIndex);
+                if (firstRunIndex < 0 || firstRunIndex == runIndex) {
+                    rawTrans.add(rawTran);
+                }
+            }
+        }
+        result.setTransactions(rawTrans);
 
         return result;
     }
 
+    /**
+     * Returns the set which decides which transactions of different statements are duplicates.
+     * Override it to return a subclass of {@link RawBrokerTransactionKeySet} with another key,
+     * the key has to include the trade date as only the transactions of the same trade date are compared.
+     */
+    protected RawBrokerTransactionKeySet newRawTransactionKeySet() {
+        return new RawBrokerTransactionKeySet();
+    }
+
+    /**
+     * @deprecated No longer called, the duplicates are decided by {@link #newRawTransactionKeySet()}.
+     */
+    @Deprecated
+    protected Object rawTransactionKey(RawBrokerTransaction tran) {
+        return Arrays.asList(
+                tran.getTradeDate(),
+                tran.getDirection(),
+                tran.getSymbol(),
+                tran.getPrice(),
+                tran.getShares(),
+                tran.getCcy(),
+                tran.getVolumeCzk(),
+                tran.getFeesCzk(),
+                tran.getVolumeUsd(),
+                tran.getFeesUsd(),
+                tran.getVolumeEur(),
+                tran.getFeesEur()
+        );
+    }
+
     @Override
-    @SuppressWarnings("DuplicatedCode")
     public Portfolio processTransactionStatements(Portfolio ptf, Stream<String> transactionStatementContents) {
-        RawBrokerTransactionList rawTranList = parseTransactionStatements(transactionStatementContents);
+        return processTransactionList(ptf, parseTransactionStatements(transactionStatementContents));
+    }
+
+    @SuppressWarnings("DuplicatedCode")
+    protected Portfolio processTransactionList(Portfolio ptf, RawBrokerTransactionList rawTranList) {
         List<RawBrokerTransaction> rawTrans = rawTranList.getTransactions();
 
         String accountNumber = rawTranList.getAccountNumber();
@@ -168,37 +268,38 @@ public class FioBrokerServiceImpl implements FioBrokerService {
         }
 
         List<Transaction> ptfTrans = ptf.getTransactions();
+        RawBrokerTransactionCursor rawTransToProcess = new RawBrokerTransactionCursor(rawTrans);
         Transaction prevTran;
         if (ptfTrans.isEmpty()) {
             prevTran = null;
         } else {
             prevTran = ptfTrans.get(ptfTrans.size() - 1);
             LocalDateTime lastPtfTranDate = prevTran.getDate().toLocalDateTime();
-            rawTrans.removeIf(t -> !t.getTradeDate().isAfter(lastPtfTranDate));
+            // Raw transactions are sorted by the trade date, so the already applied ones form a prefix
+            while (rawTransToProcess.hasNext() && !rawTransToProcess.peek().getTradeDate().isAfter(lastPtfTranDate)) {
+                rawTransToProcess.next();
+            }
         }
 
         Portfolio finalPtf = ptf;
         Function<String, Country> symbolCountryProvider = symbol -> ptfManager.findPosition(finalPtf, symbol).getCountry();
-        while (!rawTrans.isEmpty()) {
-            int sizeBeforeMapper = rawTrans.size();
-            List<Transaction> newTrans = transactionMapper.mapTransactions(prevTran, rawTrans, symbolCountryProvider);
+        while (rawTransToProcess.hasNext()) {
+            int positionBeforeMapper = rawTransToProcess.position();
+            List<Transaction> newTrans = transactionMapper.mapTransactions(prevTran, rawTransToProcess, symbolCountryProvider);
             for (Transaction newTran : newTrans) {
                 ptfTrans.add(newTran);
                 ptfManager.applyTransaction(ptf, newTran);
                 prevTran = newTran;
             }
-            int sizeAfterMapper = rawTrans.size();
-            assertTrue(sizeBeforeMapper > sizeAfterMapper);
+            int positionAfterMapper = rawTransToProcess.position();
+            assertTrue(positionBeforeMapper < positionAfterMapper);
         }
         return ptf;
     }
 
     @Override
     public Portfolio processTransactionStatements(Portfolio ptf, Collection<Path> transactionStatementFilePaths) {
-        Stream<String> statementContentStream = transactionStatementFilePaths
-                .stream()
-                .map(filePath -> IOUtil.readTextFileContent(filePath, LazyHolder.DEFAULT_CHARSET, StandardCharsets.UTF_8));
-        return processTransactionStatements(ptf, statementContentStream);
+        return processTransactionList(ptf, parseTransactionStatements(transactionStatementFilePaths));
     }
 
 
@@ -259,10 +360,7 @@ public class FioBrokerServiceImpl implements FioBrokerService {
 
     @Override
     public Portfolio processTransactionStatements(Collection<Path> transactionStatementFilePaths) {
-        Stream<String> statementContentStream = transactionStatementFilePaths
-                .stream()
-                .map(filePath -> IOUtil.readTextFileContent(filePath, LazyHolder.DEFAULT_CHARSET, StandardCharsets.UTF_8));
-        return processTransactionStatements(statementContentStream);
+        return processTransactionStatements(null, transactionStatementFilePaths);
     }
 
     @Override
@@ -270,21 +368,62 @@ public class FioBrokerServiceImpl implements FioBrokerService {
         return processTransactionStatements(null, transactionStatementContents);
     }
 
-    protected Object rawTransactionKey(RawBrokerTransaction tran) {
-        return Arrays.asList(
-                tran.getTradeDate(),
-                tran.getDirection(),
-                tran.getSymbol(),
-                tran.getPrice(),
-                tran.getShares(),
-                tran.getCcy(),
-                tran.getVolumeCzk(),
-                tran.getFeesCzk(),
-                tran.getVolumeUsd(),
-                tran.getFeesUsd(),
-                tran.getVolumeEur(),
-                tran.getFeesEur()
-        );
+    /**
+     * The transactions of one statement in the ascending order of the trade date,
+     * i.e. the statement walked from its end or, only if it is not ordered by the trade date, a stably sorted copy.
+     * Runs are ordered by the trade date of their next transaction and then by the order of their statements,
+     * so merging them gives the same order as stably sorting all the transactions of the statements one after another.
+     */
+    private static class TransactionRun implements Comparable<TransactionRun> {
+
+        private final int index;
+
+        private final List<RawBrokerTransaction> rawTrans;
+
+        private final boolean descending;
+
+        private int position;
+
+        private TransactionRun(int index, List<RawBrokerTransaction> statementRawTrans) {
+            this.index = index;
+            boolean ordered = true;
+            for (int i = 1, size = statementRawTrans.size(); i < size; i++) {
+                if (statementRawTrans.get(i).getTradeDate().isAfter(statementRawTrans.get(i - 1).getTradeDate())) {
+                    ordered = false;
+                    break;
+                }
+            }
+            if (ordered) {
+                this.rawTrans = statementRawTrans;
+                this.descending = true;
+            } else {
+                List<RawBrokerTransaction> rawTrans = new ArrayList<>(statementRawTrans);
+                Collections.reverse(rawTrans);
+                rawTrans.sort(Comparator.comparing(RawBrokerTransaction::getTradeDate));
+                this.rawTrans = rawTrans;
+                this.descending = false;
+            }
+        }
+
+        private boolean hasNext() {
+            return position < rawTrans.size();
+        }
+
+        private RawBrokerTransaction peek() {
+            return rawTrans.get(descending ? rawTrans.size() - 1 - position : position);
+        }
+
+        private RawBrokerTransaction next() {
+            RawBrokerTransaction rawTran = peek();
+            position++;
+            return rawTran;
+        }
+
+        @Override
+        public int compareTo(TransactionRun other) {
+            int result = peek().getTradeDate().compareTo(other.peek().getTradeDate());
+            return result != 0 ? result : Integer.compare(index, other.index);
+        }
     }
 
 }
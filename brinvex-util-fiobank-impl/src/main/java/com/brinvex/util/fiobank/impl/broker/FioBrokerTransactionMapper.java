@@ -31,7 +31,6 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
@@ -49,7 +48,6 @@ import static com.brinvex.util.fiobank.impl.util.ValidationUtil.assertIsZeroOrPo
 import static com.brinvex.util.fiobank.impl.util.ValidationUtil.assertNotNull;
 import static com.brinvex.util.fiobank.impl.util.ValidationUtil.assertNull;
 import static com.brinvex.util.fiobank.impl.util.ValidationUtil.assertTrue;
-import static java.lang.String.format;
 import static java.math.BigDecimal.ZERO;
 import static java.util.Objects.requireNonNullElse;
 import static java.util.Optional.ofNullable;
@@ -61,26 +59,31 @@ public class FioBrokerTransactionMapper {
         private static final ZoneId FIO_TIME_ZONE = ZoneId.of("Europe/Prague");
 
         private static final Pattern DIVIDEND_TAX_RATE_PATTERN = Pattern.compile("\\(((čistá)|(po\\s+zdanění)),\\s+daň\\s(?<taxRate>\\d+(,\\d+)?)\\s*%\\)");
-
-        private static final DateTimeFormatter ID_DATE_FORMAT = DateTimeFormatter.ofPattern("yyMMddhhmmss");
     }
 
+    private final BrokerTransactionTypeClassifier tranTypeClassifier = new BrokerTransactionTypeClassifier();
+
+    private final BrokerTransactionIdGenerator tranIdGenerator = new BrokerTransactionIdGenerator();
+
+    private final Function<RawBrokerTransaction, ClassifiedRawBrokerTransaction> rawTranClassifier = this::classify;
+
     public List<Transaction> mapTransactions(
             Transaction prevTran,
-            List<RawBrokerTransaction> rawTransToProcess,
+            RawBrokerTransactionCursor rawTransToProcess,
             Function<String, Country> symbolCountryProvider
     ) {
-        RawBrokerTransaction rawTran = rawTransToProcess.remove(0);
+        RawBrokerTransaction rawTran = rawTransToProcess.next();
 
         LinkedList<Transaction> resultTrans = new LinkedList<>();
 
         LocalDateTime tranDate = rawTran.getTradeDate();
         ZonedDateTime tranZonedDate = tranDate.atZone(LazyHolder.FIO_TIME_ZONE);
 
-        TransactionType tranType = detectTranType(rawTran);
-        Country country = detectCountry(rawTran);
-        BigDecimal rawValue = getValue(rawTran);
-        BigDecimal fees = getFees(rawTran);
+        ClassifiedRawBrokerTransaction classifiedRawTran = rawTransToProcess.classify(rawTran, rawTranClassifier);
+        TransactionType tranType = classifiedRawTran.getTranType();
+        Country country = classifiedRawTran.getCountry();
+        BigDecimal rawValue = classifiedRawTran.getValue();
+        BigDecimal fees = classifiedRawTran.getFees();
         BigDecimal qty = rawTran.getShares();
         RawBrokerTranDirection direction = rawTran.getDirection();
         String symbol = rawTran.getSymbol();
@@ -101,15 +104,16 @@ public class FioBrokerTransactionMapper {
         BigDecimal nextPrice;
         String nextText;
         {
-            RawBrokerTransaction nextRawTran = rawTransToProcess.isEmpty() ? null : rawTransToProcess.get(0);
+            RawBrokerTransaction nextRawTran = rawTransToProcess.peek();
             if (nextRawTran != null
                 && tranDate.isEqual(nextRawTran.getTradeDate())
                 && settlDate.isEqual(nextRawTran.getSettlementDate())
             ) {
-                nextTranType = detectTranType(nextRawTran);
-                nextCountry = detectCountry(nextRawTran);
-                nextRawValue = getValue(nextRawTran);
-                nextFees = getFees(nextRawTran);
+                ClassifiedRawBrokerTransaction classifiedNextRawTran = rawTransToProcess.classify(nextRawTran, rawTranClassifier);
+                nextTranType = classifiedNextRawTran.getTranType();
+                nextCountry = classifiedNextRawTran.getCountry();
+                nextRawValue = classifiedNextRawTran.getValue();
+                nextFees = classifiedNextRawTran.getFees();
                 nextQty = nextRawTran.getShares();
                 nextDirection = nextRawTran.getDirection();
                 nextSymbol = nextRawTran.getSymbol();
@@ -170,7 +174,7 @@ public class FioBrokerTransactionMapper {
                 assertEqual(nextFees, nextRawValue);
                 assertIsNegative(nextFees);
                 fees = nextFees;
-                rawTransToProcess.remove(0);
+                rawTransToProcess.next();
             }
             Transaction t = tranInitializer.get();
             t.setType(TransactionType.WITHDRAWAL);
@@ -272,7 +276,7 @@ public class FioBrokerTransactionMapper {
                 assertIsNegative(nextRawValue);
                 assertEqual(nextRawValue, nextQty);
                 tax = nextRawValue;
-                rawTransToProcess.remove(0);
+                rawTransToProcess.next();
             } else {
                 Matcher m = LazyHolder.DIVIDEND_TAX_RATE_PATTERN.matcher(text);
                 if (m.find()) {
@@ -293,7 +297,7 @@ public class FioBrokerTransactionMapper {
                 assertEqual(nextRawValue, nextFees);
                 fees = nextRawValue;
                 assertIsNegative(fees);
-                rawTransToProcess.remove(0);
+                rawTransToProcess.next();
             }
 
             Transaction t = tranInitializer.get();
@@ -376,7 +380,7 @@ public class FioBrokerTransactionMapper {
                 assertIsPositive(nextRawValue);
                 assertEqual(nextRawValue, nextQty);
                 taxRefund = nextRawValue;
-                rawTransToProcess.remove(0);
+                rawTransToProcess.next();
             }
             Transaction t = tranInitializer.get();
             t.setType(TransactionType.DIVIDEND_REVERSAL);
@@ -473,7 +477,7 @@ public class FioBrokerTransactionMapper {
                 t2.setQty(qty);
                 t2.setBunchId(t1.getId());
             }
-            rawTransToProcess.remove(0);
+            rawTransToProcess.next();
         } else if (tranType == TransactionType.INSTRUMENT_CHANGE_PARENT) {
             assertTrue(nextTranType == TransactionType.INSTRUMENT_CHANGE_CHILD);
             assertTrue(text.equals(nextText));
@@ -521,7 +525,7 @@ public class FioBrokerTransactionMapper {
                 t2.setQty(qty);
                 t2.setBunchId(t1.getId());
             }
-            rawTransToProcess.remove(0);
+            rawTransToProcess.next();
         } else if (tranType == TransactionType.TAX_REFUND) {
             assertTrue(symbol != null);
             assertTrue(ccy != null);
@@ -571,7 +575,7 @@ public class FioBrokerTransactionMapper {
                 assertIsPositive(nextQty);
                 assertIsZero(nextRawValue);
                 assertIsZero(nextFees);
-                rawTransToProcess.remove(0);
+                rawTransToProcess.next();
 
                 Transaction t = tranInitializer.get();
                 t.setType(TransactionType.LIQUIDATION);
@@ -672,7 +676,7 @@ public class FioBrokerTransactionMapper {
                 t2.setQty(qty);
                 t2.setBunchId(t1.getId());
             }
-            rawTransToProcess.remove(0);
+            rawTransToProcess.next();
         } else if (tranType == TransactionType.SPINOFF_VALUE) {
             assertNull(direction);
             assertNotNull(symbol);
@@ -690,7 +694,7 @@ public class FioBrokerTransactionMapper {
             assertTrue(nextQty.negate().equals(qty));
             assertIsZero(nextFees);
             assertTrue(price.compareTo(BigDecimal.ONE) == 0);
-            rawTransToProcess.remove(0);
+            rawTransToProcess.next();
             Transaction t1;
             {
                 t1 = tranInitializer.get();
@@ -726,7 +730,7 @@ public class FioBrokerTransactionMapper {
                 assertIsZero(nextRawValue);
                 assertIsZero(nextFees);
                 qty = qty.negate().add(nextQty);
-                rawTransToProcess.remove(0);
+                rawTransToProcess.next();
             }
             {
                 Transaction t = tranInitializer.get();
@@ -753,6 +757,14 @@ public class FioBrokerTransactionMapper {
         return resultTrans;
     }
 
+    protected ClassifiedRawBrokerTransaction classify(RawBrokerTransaction rawTran) {
+        TransactionType tranType = detectTranType(rawTran);
+        Country country = detectCountry(rawTran);
+        BigDecimal value = getValue(rawTran);
+        BigDecimal fees = getFees(rawTran);
+        return new ClassifiedRawBrokerTransaction(rawTran, tranType, country, value, fees);
+    }
+
     @SuppressWarnings("DuplicatedCode")
     protected BigDecimal getValue(RawBrokerTransaction rawTran) {
         Currency ccy = rawTran.getCcy();
@@ -824,202 +836,11 @@ public class FioBrokerTransactionMapper {
         }
     }
 
-    @SuppressWarnings({"SpellCheckingInspection", "DuplicatedCode", "RedundantIfStatement"})
     protected TransactionType detectTranType(RawBrokerTransaction tran) {
-        Lang lang = tran.getLang();
-        String symbol = tran.getSymbol();
-        RawBrokerTranDirection direction = tran.getDirection();
-        String text = tran.getText();
-        String market = tran.getMarket();
-        if (direction == null && text.startsWith("Vloženo na účet z") && text.endsWith("Bezhotovostní vklad")) {
-            return TransactionType.DEPOSIT;
-        }
-        if (direction == null && text.equals("Vklad Bezhotovostní vklad")) {
-            return TransactionType.DEPOSIT;
-        }
-        if (direction == null && text.equals("v Bezhotovostní vklad")) {
-            return TransactionType.DEPOSIT;
-        }
-        if (direction == null && text.startsWith("Převod z účtu")) {
-            return TransactionType.DEPOSIT;
-        }
-        if (RawBrokerTranDirection.BANK_TRANSFER.equals(direction) && text.startsWith("Převod na účet")) {
-            return TransactionType.WITHDRAWAL;
-        }
-
-        if (RawBrokerTranDirection.CURRENCY_CONVERSION.equals(direction) && text.equals("Nákup")) {
-            return TransactionType.FX_BUY;
-        }
-        if (RawBrokerTranDirection.CURRENCY_CONVERSION.equals(direction) && text.equals("Prodej")) {
-            return TransactionType.FX_SELL;
-        }
-
-        if (RawBrokerTranDirection.BUY.equals(direction) && text.equals("Nákup")) {
-            return TransactionType.BUY;
-        }
-        if (RawBrokerTranDirection.SELL.equals(direction) && text.equals("Prodej")) {
-            return TransactionType.SELL;
-        }
-        if (direction == null && text.startsWith(format("%s - Dividenda", symbol))) {
-            return TransactionType.CASH_DIVIDEND;
-        }
-        if (direction == null && text.startsWith(format("%s - Daň z divid. zaplacená", symbol))) {
-            return TransactionType.TAX;
-        }
-        if (direction == null && text.startsWith(format("%s - Daň z dividend zaplacená", symbol))) {
-            return TransactionType.TAX;
-        }
-        if (direction == null && text.startsWith(format("%s - Divi.", symbol))) {
-            return TransactionType.CASH_DIVIDEND;
-        }
-        if (direction == null && text.startsWith(format("%s - Return of Principal", symbol))) {
-            return TransactionType.CAPITAL_DIVIDEND;
-        }
-        if (direction == null && text.startsWith(format("%s - Stock Dividend", symbol))) {
-            return TransactionType.STOCK_DIVIDEND;
-        }
-        if (direction == null && text.startsWith(format("%s - Finanční kompenzace - Stock Dividend", symbol))) {
-            return TransactionType.STOCK_DIVIDEND;
-        }
-        if (direction == null && text.startsWith(format("%s - Oprava dividendy z", symbol))) {
-            return TransactionType.DIVIDEND_REVERSAL;
-        }
-        if (direction == null && text.startsWith(format("%s - Tax Refund", symbol))) {
-            return TransactionType.TAX_REFUND;
-        }
-        if (direction == null && text.startsWith(format("%s - Oprava daně z dividendy", symbol))) {
-            return TransactionType.TAX_REFUND;
-        }
-        if (direction == null && text.startsWith(format("%s - Refundable U.S. Fed Tax Reclassified By Issuer", symbol))) {
-            return TransactionType.TAX_REFUND;
-        }
-
-        if (direction == null && text.startsWith(format("%s - ADR Fee", symbol))) {
-            return TransactionType.FEE;
-        }
-        if (direction == null && text.startsWith(format("%s - Spin-off Fair Market Value", symbol))) {
-            return TransactionType.SPINOFF_VALUE;
-        }
-        if (direction == null && text.startsWith(format("%s - Spin-off - daň zaplacená", symbol))) {
-            return TransactionType.TAX;
-        }
-        if (direction == null &&
-            text.startsWith(format("%s - Spin-off", symbol)) &&
-            !text.contains("Fair Market Value") &&
-            !text.contains("daň zaplacená")
-        ) {
-            return TransactionType.SPINOFF_PARENT;
-        }
-        if (direction == null && text.startsWith(format("%s - Security Liquidated", symbol))) {
-            return TransactionType.LIQUIDATION;
-        }
-        if (direction == RawBrokerTranDirection.SELL && text.startsWith("Security Liquidated")) {
-            return TransactionType.LIQUIDATION;
-        }
-        if (direction == null && text.startsWith("Poplatek za on-line data")) {
-            return TransactionType.FEE;
-        }
-        if (direction == null && text.startsWith("Reklamace ")) {
-            return TransactionType.RECLAMATION;
-        }
-
-        if (lang.equals(Lang.CZ) && market.equals("Poplatek")) {
-            return TransactionType.FEE;
-        }
-        if (lang.equals(Lang.EN) && market.equals("Fee")) {
-            return TransactionType.FEE;
-        }
-        if (lang.equals(Lang.SK) && market.equals("Poplatok")) {
-            return TransactionType.FEE;
-        }
-
-        boolean transformation = false;
-        if (lang.equals(Lang.CZ) && market.equals("Transformace")) {
-            transformation = true;
-        }
-        if (lang.equals(Lang.EN) && market.equals("Transformation")) {
-            transformation = true;
-        }
-        if (lang.equals(Lang.SK) && market.equals("Transformácia")) {
-            transformation = true;
-        }
-        if (transformation) {
-            if (text.contains("Ticker Change: ")
-                || text.contains("Change of Listing: ")
-                || text.contains("Change in Security ID (ISIN Change)")
-            ) {
-                if (RawBrokerTranDirection.SELL.equals(direction)) {
-                    return TransactionType.INSTRUMENT_CHANGE_PARENT;
-                } else if (RawBrokerTranDirection.BUY.equals(direction)) {
-                    return TransactionType.INSTRUMENT_CHANGE_CHILD;
-                }
-            }
-            if (text.contains("Split ")) {
-                return TransactionType.SPLIT;
-            }
-            if (text.contains("Stock Merger ")) {
-                if (RawBrokerTranDirection.SELL.equals(direction)) {
-                    return TransactionType.MERGER_PARENT;
-                } else if (RawBrokerTranDirection.BUY.equals(direction)) {
-                    return TransactionType.MERGER_CHILD;
-                }
-            }
-            if (text.contains("Security Deleted As Worthless")) {
-                return TransactionType.LIQUIDATION;
-            }
-
-            if (text.equals(String.format("%s - Reorganization", symbol))) {
-                String rawSymbol = tran.getRawSymbol();
-                if (RawBrokerTranDirection.SELL.equals(direction) && (symbol + "*").equals(rawSymbol)) {
-                    return TransactionType.INSTRUMENT_CHANGE_PARENT;
-                } else if (RawBrokerTranDirection.BUY.equals(direction) && symbol.equals(rawSymbol)) {
-                    return TransactionType.INSTRUMENT_CHANGE_CHILD;
-                }
-            }
-        }
-
-        throw new FiobankServiceException(format("Could not detect transaction type: %s", tran));
+        return tranTypeClassifier.detectTranType(tran);
     }
 
     protected String generateTranId(Transaction tran, Transaction prevTran) {
-        ZonedDateTime date = tran.getDate();
-        BigDecimal qty = tran.getQty();
-        BigDecimal price = tran.getPrice();
-        BigDecimal grossValue = tran.getGrossValue();
-        TransactionType type = tran.getType();
-        Currency ccy = tran.getCcy();
-        Country country = tran.getCountry();
-        String symbol = tran.getSymbol();
-        String id = format("%s/%s/%s/%s/%s/%s/%s/%s/%s",
-                LazyHolder.ID_DATE_FORMAT.format(date),
-                type,
-                ccy,
-                country,
-                symbol,
-                grossValue == null ? "" : grossValue.unscaledValue(),
-                qty == null ? "" : qty.unscaledValue(),
-                price == null ? "" : price.unscaledValue(),
-                Objects.hashCode(tran.getNote())
-        );
-        if (prevTran != null) {
-            String prevId = prevTran.getId();
-            ZonedDateTime prevDate = prevTran.getDate();
-            TransactionType prevType = prevTran.getType();
-            Currency prevCcy = prevTran.getCcy();
-            Country prevCountry = prevTran.getCountry();
-            String prevSymbol = prevTran.getSymbol();
-
-            if (id.equals(prevId) ||
-                (date.isEqual(prevDate)
-                 && Objects.equals(type, prevType)
-                 && Objects.equals(ccy, prevCcy)
-                 && Objects.equals(country, prevCountry)
-                 && Objects.equals(symbol, prevSymbol)
-                )
-            ) {
-                id = id + "/" + Objects.hash(prevId);
-            }
-        }
-        return id;
+        return tranIdGenerator.generateTranId(tran, prevTran);
     }
-}
\ No newline at end of file
+}
@@ -27,8 +27,6 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 import static java.lang.String.format;
 import static java.math.BigDecimal.ZERO;
@@ -47,10 +45,7 @@ public class PortfolioManager {
     public Position findPosition(Portfolio ptf, String symbol) {
         requireNonNull(ptf);
         requireNonNull(symbol);
-        List<Position> positions = ptf.getPositions()
-                .stream()
-                .filter(p -> symbol.equals(p.getSymbol()))
-                .collect(Collectors.toList());
+        List<Position> positions = ptf.findPositionsBySymbol(symbol);
         int size = positions.size();
         if (size == 0) {
             throw new FiobankServiceException(format("Could not find position by symbol: %s, ptf=%s", symbol, ptf));
@@ -62,14 +57,8 @@ public class PortfolioManager {
     }
 
     public void applyTransaction(Portfolio ptf, Transaction tran) {
-        Set<String> ptfTranIds = ptf.getTransactions()
-                .stream()
-                .filter(t -> t != tran)
-                .map(Transaction::getId)
-                .collect(Collectors.toSet());
-        String tranId = tran.getId();
-        if (ptfTranIds.contains(tranId)) {
-            throw new FiobankServiceException(format("Transaction ID conflict: %s", tranId));
+        if (ptf.hasTransactionIdConflict(tran)) {
+            throw new FiobankServiceException(format("Transaction ID conflict: %s", tran.getId()));
         }
         TransactionType tranType = tran.getType();
         boolean tranIsValid = tranType.isValid(tran);
@@ -124,10 +113,9 @@ public class PortfolioManager {
         requireNonNull(ptf);
         requireNonNull(country);
         requireNonNull(symbol);
-        return ptf.getPositions()
+        return ptf.findPositionsBySymbol(symbol)
                 .stream()
                 .filter(p -> country.equals(p.getCountry()))
-                .filter(p -> symbol.equals(p.getSymbol()))
                 .reduce((p1, p2) -> {
                     throw new IllegalStateException(format("Duplicate position: %s, %s", p1, p2));
                 });
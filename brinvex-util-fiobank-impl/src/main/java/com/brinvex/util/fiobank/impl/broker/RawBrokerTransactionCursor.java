@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl.broker;
+
+import com.brinvex.util.fiobank.api.model.RawBrokerTransaction;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * A forward-only view of a list of raw transactions which {@link FioBrokerTransactionMapper} consumes.
+ * Consuming a transaction only advances the cursor, the underlying list is never modified.
+ * The cursor also remembers the most recent classification,
+ * so a transaction classified as the lookahead is not classified again when it gets processed.
+ */
+public class RawBrokerTransactionCursor {
+
+    private final List<RawBrokerTransaction> rawTrans;
+
+    private int position;
+
+    private ClassifiedRawBrokerTransaction lastClassifiedRawTran;
+
+    public RawBrokerTransactionCursor(List<RawBrokerTransaction> rawTrans) {
+        this.rawTrans = rawTrans;
+    }
+
+    public boolean hasNext() {
+        return position < rawTrans.size();
+    }
+
+    /**
+     * Returns the next transaction without consuming it or null if there is no next transaction.
+     */
+    public RawBrokerTransaction peek() {
+        return position < rawTrans.size() ? rawTrans.get(position) : null;
+    }
+
+    /**
+     * Returns and consumes the next transaction.
+     */
+    public RawBrokerTransaction next() {
+        if (position >= rawTrans.size()) {
+            throw new NoSuchElementException(String.format("position=%s, size=%s", position, rawTrans.size()));
+        }
+        return rawTrans.get(position++);
+    }
+
+    /**
+     * Returns the classification of the given transaction, computing it only if it is not the most recently classified one.
+     */
+    public ClassifiedRawBrokerTransaction classify(
+            RawBrokerTransaction rawTran,
+            Function<RawBrokerTransaction, ClassifiedRawBrokerTransaction> classifier
+    ) {
+        ClassifiedRawBrokerTransaction classifiedRawTran = lastClassifiedRawTran;
+        if (classifiedRawTran == null || classifiedRawTran.getRawTran() != rawTran) {
+            classifiedRawTran = classifier.apply(rawTran);
+            lastClassifiedRawTran = classifiedRawTran;
+        }
+        return classifiedRawTran;
+    }
+
+    /**
+     * Returns the number of consumed transactions.
+     */
+    public int position() {
+        return position;
+    }
+
+    @Override
+    public String toString() {
+        return "RawBrokerTransactionCursor{" +
+               "position=" + position +
+               ", size=" + rawTrans.size() +
+               '}';
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl.broker;
+
+import com.brinvex.util.fiobank.api.model.RawBrokerTransaction;
+
+import java.util.Objects;
+
+/**
+ * Maps raw transactions which are duplicates of each other, i.e. have equal trade date, direction, symbol, price, shares,
+ * currency, volumes and fees, to the index of the statement they were first seen in.
+ * A 64-bit hash mixed from the hash codes of these fields is kept in a primitive array with open addressing
+ * to skip most of the comparisons, on a hash match the fields themselves decide whether two transactions are duplicates.
+ * A subclass may define another key by overriding both {@link #hash(RawBrokerTransaction)} and
+ * {@link #sameKey(RawBrokerTransaction, RawBrokerTransaction)}.
+ */
+public class RawBrokerTransactionKeySet {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] hashes = new long[MIN_CAPACITY];
+
+    private RawBrokerTransaction[] rawTrans = new RawBrokerTransaction[MIN_CAPACITY];
+
+    private int[] statementIndexes = new int[MIN_CAPACITY];
+
+    private int[] usedSlots = new int[MIN_CAPACITY];
+
+    private int size;
+
+    /**
+     * Returns the statement index of the transaction already present with the same key
+     * or adds the transaction with the given statement index and returns -1.
+     */
+    public int putIfAbsent(RawBrokerTransaction rawTran, int statementIndex) {
+        long hash = hash(rawTran);
+        int mask = rawTrans.length - 1;
+        int slot = (int) hash & mask;
+        while (rawTrans[slot] != null) {
+            if (hashes[slot] == hash && sameKey(rawTrans[slot], rawTran)) {
+                return statementIndexes[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        rawTrans[slot] = rawTran;
+        statementIndexes[slot] = statementIndex;
+        usedSlots[size++] = slot;
+        if (2 * size > rawTrans.length) {
+            grow();
+        }
+        return -1;
+    }
+
+    /**
+     * Removes all the transactions, at the cost of the number of transactions rather than of the capacity.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            rawTrans[usedSlots[i]] = null;
+        }
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldHashes = hashes;
+        RawBrokerTransaction[] oldRawTrans = rawTrans;
+        int[] oldStatementIndexes = statementIndexes;
+        int[] oldUsedSlots = usedSlots;
+        int capacity = 2 * oldRawTrans.length;
+        int mask = capacity - 1;
+
+        hashes = new long[capacity];
+        rawTrans = new RawBrokerTransaction[capacity];
+        statementIndexes = new int[capacity];
+        usedSlots = new int[capacity];
+        for (int i = 0; i < size; i++) {
+            int oldSlot = oldUsedSlots[i];
+            int slot = (int) oldHashes[oldSlot] & mask;
+            while (rawTrans[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            hashes[slot] = oldHashes[oldSlot];
+            rawTrans[slot] = oldRawTrans[oldSlot];
+            statementIndexes[slot] = oldStatementIndexes[oldSlot];
+            usedSlots[i] = slot;
+        }
+    }
+
+    /**
+     * Returns the hash of the key of the transaction, transactions with the same key must have the same hash.
+     */
+    protected long hash(RawBrokerTransaction tran) {
+        long h = 0x9E3779B97F4A7C15L;
+        h = mix(h, Objects.hashCode(tran.getTradeDate()));
+        h = mix(h, Objects.hashCode(tran.getDirection()));
+        h = mix(h, Objects.hashCode(tran.getSymbol()));
+        h = mix(h, Objects.hashCode(tran.getPrice()));
+        h = mix(h, Objects.hashCode(tran.getShares()));
+        h = mix(h, Objects.hashCode(tran.getCcy()));
+        h = mix(h, Objects.hashCode(tran.getVolumeCzk()));
+        h = mix(h, Objects.hashCode(tran.getFeesCzk()));
+        h = mix(h, Objects.hashCode(tran.getVolumeUsd()));
+        h = mix(h, Objects.hashCode(tran.getFeesUsd()));
+        h = mix(h, Objects.hashCode(tran.getVolumeEur()));
+        h = mix(h, Objects.hashCode(tran.getFeesEur()));
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long mix(long h, int value) {
+        return Long.rotateLeft((h ^ value) * 0xBF58476D1CE4E5B9L, 31);
+    }
+
+    /**
+     * Returns true if the transactions have the same key, i.e. are duplicates of each other.
+     */
+    protected boolean sameKey(RawBrokerTransaction tran1, RawBrokerTransaction tran2) {
+        return Objects.equals(tran1.getTradeDate(), tran2.getTradeDate())
+               && tran1.getDirection() == tran2.getDirection()
+               && Objects.equals(tran1.getSymbol(), tran2.getSymbol())
+               && Objects.equals(tran1.getPrice(), tran2.getPrice())
+               && Objects.equals(tran1.getShares(), tran2.getShares())
+               && tran1.getCcy() == tran2.getCcy()
+               && Objects.equals(tran1.getVolumeCzk(), tran2.getVolumeCzk())
+               && Objects.equals(tran1.getFeesCzk(), tran2.getFeesCzk())
+               && Objects.equals(tran1.getVolumeUsd(), tran2.getVolumeUsd())
+               && Objects.equals(tran1.getFeesUsd(), tran2.getFeesUsd())
+               && Objects.equals(tran1.getVolumeEur(), tran2.getVolumeEur())
+               && Objects.equals(tran1.getFeesEur(), tran2.getFeesEur());
+    }
+}
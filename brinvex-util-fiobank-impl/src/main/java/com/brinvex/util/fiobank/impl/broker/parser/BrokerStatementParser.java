@@ -21,8 +21,20 @@ import com.brinvex.util.fiobank.api.model.PortfolioValue;
 import com.brinvex.util.fiobank.api.model.RawBrokerTransaction;
 import com.brinvex.util.fiobank.api.model.RawBrokerTransactionList;
 import com.brinvex.util.fiobank.api.service.exception.FiobankServiceException;
+import com.brinvex.util.fiobank.impl.util.IOUtil;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -33,6 +45,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -75,21 +88,63 @@ public class BrokerStatementParser {
 
     @SuppressWarnings("SpellCheckingInspection")
     public RawBrokerTransactionList parseTrasnsactionStatement(String transStatementContent) {
-        List<String> lines = transStatementContent
-                .lines()
-                .map(String::trim)
-                .collect(Collectors.toList());
+        List<RawBrokerTransaction> rawTrans = new ArrayList<>();
+        RawBrokerTransactionList rawTranList = parseTransactionStatement(new StringReader(transStatementContent), rawTrans::add);
+        rawTranList.setTransactions(rawTrans);
+        return rawTranList;
+    }
+
+    public RawBrokerTransactionList parseTransactionStatement(
+            InputStream transStatementInputStream,
+            Charset charset,
+            Consumer<RawBrokerTransaction> rawTranConsumer
+    ) {
+        return parseTransactionStatement(new InputStreamReader(transStatementInputStream, charset.newDecoder()), rawTranConsumer);
+    }
+
+    public RawBrokerTransactionList parseTransactionStatement(
+            ReadableByteChannel transStatementChannel,
+            Charset charset,
+            Consumer<RawBrokerTransaction> rawTranConsumer
+    ) {
+        return parseTransactionStatement(Channels.newReader(transStatementChannel, charset.newDecoder(), -1), rawTranConsumer);
+    }
+
+    /**
+     * Parses the remaining content of the buffer, e.g. a memory-mapped file, decoding it on demand.
+     */
+    public RawBrokerTransactionList parseTransactionStatement(
+            ByteBuffer transStatementContent,
+            Charset charset,
+            Consumer<RawBrokerTransaction> rawTranConsumer
+    ) {
+        return parseTransactionStatement(IOUtil.newReader(transStatementContent, charset), rawTranConsumer);
+    }
+
+    /**
+     * Parses the statement line by line and passes each transaction to the consumer as soon as it is parsed,
+     * so the memory needed does not depend on the size of the statement.
+     * The transactions come in the order of the statement, i.e. the newest first.
+     * The returned list carries the account number and the period, its transactions are null.
+     * The reader is not closed.
+     */
+    @SuppressWarnings("SpellCheckingInspection")
+    public RawBrokerTransactionList parseTransactionStatement(Reader transStatementReader, Consumer<RawBrokerTransaction> rawTranConsumer) {
+        BufferedReader reader = transStatementReader instanceof BufferedReader
+                ? (BufferedReader) transStatementReader
+                : new BufferedReader(transStatementReader, 64 * 1024);
 
         String accountNumber = null;
         LocalDate periodFrom = null;
         LocalDate periodTo = null;
         Lang lang = null;
         Map<TranColumnDef, Integer> headers = null;
+        TranColumnDef[] columnDefs = null;
 
-
-        List<RawBrokerTransaction> rawTrans = new ArrayList<>();
-        for (int i = 0, linesSize = lines.size(); i < linesSize; i++) {
-            String line = lines.get(i);
+        int i = -1;
+        String line;
+        while ((line = readTrimmedLine(reader)) != null) {
+            i++;
             if (line.isBlank()) {
                 continue;
             }
@@ -111,7 +166,10 @@ public class BrokerStatementParser {
                     } else {
                         throw new FiobankServiceException(String.format("%s - Could not detect lang: '%s'", i + 1, line));
                     }
-                    i++; // Skip "Created:" line
+                    // Skip "Created:" line
+                    if (readTrimmedLine(reader) != null) {
+                        i++;
+                    }
                     continue;
                 }
                 if (periodFrom == null || periodTo == null) {
@@ -140,26 +198,17 @@ public class BrokerStatementParser {
                     if (!missingHeaders.isEmpty()) {
                         throw new FiobankServiceException(String.format("%s - Mising mandatory headers: %s, line='%s'", i + 1, missingHeaders, line));
                     }
+                    columnDefs = new TranColumnDef[headerTitles.length];
+                    for (Map.Entry<TranColumnDef, Integer> e : headers.entrySet()) {
+                        columnDefs[e.getValue()] = e.getKey();
+                    }
                     continue;
                 }
 
-                RawBrokerTransaction rawTran = new RawBrokerTransaction();
-                rawTran.setLang(lang);
-                {
-                    List<String> cells = List.of(LazyHolder.COLUMN_DELIMITER_PATTERN.split(line, -1));
-                    if (cells.get(0).isBlank()) {
-                        //"Total" row without a date
-                        continue;
-                    }
-                    for (Map.Entry<TranColumnDef, Integer> e : headers.entrySet()) {
-                        TranColumnDef columnDef = e.getKey();
-                        Integer index = e.getValue();
-                        String cell = cells.get(index);
-                        cell = cell.trim();
-                        columnDef.fill(rawTran, cell, lang);
-                    }
+                RawBrokerTransaction rawTran = parseTransactionRow(line, columnDefs, lang);
+                if (rawTran != null) {
+                    rawTranConsumer.accept(rawTran);
                 }
-                rawTrans.add(rawTran);
             } catch (FiobankServiceException se) {
                 throw se;
             } catch (Exception e) {
@@ -173,10 +222,67 @@ public class BrokerStatementParser {
         rawTranList.setAccountNumber(accountNumber);
         rawTranList.setPeriodFrom(periodFrom);
         rawTranList.setPeriodTo(periodTo);
-        rawTranList.setTransactions(rawTrans);
 
         return rawTranList;
 
     }
 
+    /**
+     * Splits the row by walking the character offsets of its cells
+     * and creates substrings only for the cells of known columns.
+     * Returns null for the "Total" row which has no trade date.
+     */
+    private static RawBrokerTransaction parseTransactionRow(String line, TranColumnDef[] columnDefs, Lang lang) {
+        int lineLength = line.length();
+        int columnCount = columnDefs.length;
+        RawBrokerTransaction rawTran = null;
+        int cellStart = 0;
+        int index = 0;
+        for (; index < columnCount && cellStart <= lineLength; index++) {
+            int cellEnd = line.indexOf(';', cellStart);
+            if (cellEnd < 0) {
+                cellEnd = lineLength;
+            }
+            int nextCellStart = cellEnd + 1;
+            TranColumnDef columnDef = columnDefs[index];
+            if (index == 0 || columnDef != null) {
+                while (cellStart < cellEnd && line.charAt(cellStart) <= ' ') {
+                    cellStart++;
+                }
+                while (cellEnd > cellStart && line.charAt(cellEnd - 1) <= ' ') {
+                    cellEnd--;
+                }
+                if (index == 0) {
+                    if (cellStart == cellEnd) {
+                        //"Total" row without a date
+                        return null;
+                    }
+                    rawTran = new RawBrokerTransaction();
+                    rawTran.setLang(lang);
+                }
+                if (columnDef != null) {
+                    columnDef.fill(rawTran, line.substring(cellStart, cellEnd), lang);
+                }
+            }
+            cellStart = nextCellStart;
+        }
+        if (index < columnCount) {
+            for (int j = index; j < columnCount; j++) {
+                if (columnDefs[j] != null) {
+                    throw new IndexOutOfBoundsException(String.format("Missing cell of column %s at index %s", columnDefs[j], j));
+                }
+            }
+        }
+        return rawTran;
+    }
+
+    private static String readTrimmedLine(BufferedReader reader) {
+        try {
+            String line = reader.readLine();
+            return line == null ? null : line.trim();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
 }
@@ -22,7 +22,10 @@ import com.brinvex.util.fiobank.api.model.Lang;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
 import java.time.format.DateTimeFormatter;
+import java.util.function.Function;
 
 @SuppressWarnings({"SameParameterValue", "SpellCheckingInspection"})
 public class ParsingUtil {
@@ -32,12 +35,55 @@ public class ParsingUtil {
         private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("d.M.yyyy");
     }
 
+    private static class DateCache {
+        private static final RecentValueCache<LocalDateTime> DAY_HOUR_MINUTE = new RecentValueCache<>(256);
+        private static final RecentValueCache<LocalDate> DAY = new RecentValueCache<>(256);
+    }
+
+    /**
+     * Remembers the last value parsed from each of a fixed number of slots chosen by the hash of the text.
+     * The entries are immutable, so the cache can be shared by threads without locking.
+     */
+    private static class RecentValueCache<T> {
+
+        private static class Entry<T> {
+            private final String text;
+            private final T value;
+
+            private Entry(String text, T value) {
+                this.text = text;
+                this.value = value;
+            }
+        }
+
+        private final Entry<?>[] entries;
+
+        private RecentValueCache(int size) {
+            if (Integer.bitCount(size) != 1) {
+                throw new IllegalArgumentException(String.format("Size must be a power of two: %s", size));
+            }
+            this.entries = new Entry<?>[size];
+        }
+
+        private T get(String text, Function<String, T> parser) {
+            int slot = text.hashCode() & (entries.length - 1);
+            @SuppressWarnings("unchecked")
+            Entry<T> entry = (Entry<T>) entries[slot];
+            if (entry != null && entry.text.equals(text)) {
+                return entry.value;
+            }
+            T value = parser.apply(text);
+            entries[slot] = new Entry<>(text, value);
+            return value;
+        }
+    }
+
     public static LocalDateTime toLocalDateTime(String s, DateTimeFormatter dtf) {
         return s == null || s.isBlank() ? null : LocalDateTime.parse(s, dtf);
     }
 
     public static LocalDateTime toFioDateTime(String s) {
-        return toLocalDateTime(s, DateFormat.DAY_HOUR_MINUTE);
+        return s == null || s.isBlank() ? null : DateCache.DAY_HOUR_MINUTE.get(s, ParsingUtil::parseFioDateTime);
     }
 
     public static LocalDate toLocalDate(String s, DateTimeFormatter dtf) {
@@ -45,11 +91,130 @@ public class ParsingUtil {
     }
 
     public static LocalDate toFioDate(String s) {
-        return toLocalDate(s, DateFormat.DAY);
+        return s == null || s.isBlank() ? null : DateCache.DAY.get(s, ParsingUtil::parseFioDate);
+    }
+
+    /**
+     * Reads the fixed layout {@code dd.MM.yyyy HH:mm} directly.
+     * Anything else, including the days the formatter would resolve to the end of a shorter month,
+     * is left to the formatter, so the results and errors stay the same.
+     */
+    private static LocalDateTime parseFioDateTime(String s) {
+        if (s.length() == 16
+                && s.charAt(2) == '.' && s.charAt(5) == '.' && s.charAt(10) == ' ' && s.charAt(13) == ':') {
+            int day = parseDigits(s, 0, 2);
+            int month = parseDigits(s, 3, 5);
+            int year = parseDigits(s, 6, 10);
+            int hour = parseDigits(s, 11, 13);
+            int minute = parseDigits(s, 14, 16);
+            if (isValidDate(year, month, day) && hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59) {
+                return LocalDateTime.of(year, month, day, hour, minute);
+            }
+        }
+        return LocalDateTime.parse(s, DateFormat.DAY_HOUR_MINUTE);
     }
 
+    /**
+     * Reads the layout {@code d.M.yyyy} with one or two digit day and month directly.
+     * Anything else is left to the formatter, so the results and errors stay the same.
+     */
+    private static LocalDate parseFioDate(String s) {
+        int length = s.length();
+        int firstDot = s.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : s.indexOf('.', firstDot + 1);
+        if (length >= 8 && length <= 10
+                && (firstDot == 1 || firstDot == 2)
+                && (secondDot - firstDot == 2 || secondDot - firstDot == 3)
+                && length - secondDot == 5) {
+            int day = parseDigits(s, 0, firstDot);
+            int month = parseDigits(s, firstDot + 1, secondDot);
+            int year = parseDigits(s, secondDot + 1, length);
+            if (isValidDate(year, month, day)) {
+                return LocalDate.of(year, month, day);
+            }
+        }
+        return LocalDate.parse(s, DateFormat.DAY);
+    }
+
+    /**
+     * Returns the value of the ASCII digits between the offsets or -1 if there is any other character.
+     */
+    private static int parseDigits(String s, int beginIndex, int endIndex) {
+        int value = 0;
+        for (int i = beginIndex; i < endIndex; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isValidDate(int year, int month, int day) {
+        return year >= 1 && month >= 1 && month <= 12 && day >= 1
+               && day <= Month.of(month).length(Year.isLeap(year));
+    }
+
+    /**
+     * Parses a number formatted the Fio way, e.g. {@code -1 234,50},
+     * skipping spaces and no-break spaces used as thousand separators
+     * and accepting both the decimal comma and the decimal point.
+     * Numbers of up to 18 digits are read directly into the unscaled value,
+     * the rest falls back to the {@link BigDecimal} string constructor.
+     */
     public static BigDecimal toDecimal(String s) {
-        return s == null || s.isBlank() ? null : new BigDecimal(s.replace(" ", "").replace(',', '.'));
+        if (s == null || s.isBlank()) {
+            return null;
+        }
+        int length = s.length();
+        boolean negative = false;
+        boolean signAllowed = true;
+        int scale = -1;
+        int digits = 0;
+        long unscaled = 0;
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > 18) {
+                    return toDecimalSlow(s);
+                }
+                unscaled = unscaled * 10 + (c - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+                signAllowed = false;
+            } else if (isDecimalGroupSeparator(c)) {
+                continue;
+            } else if ((c == ',' || c == '.') && scale < 0) {
+                scale = 0;
+                signAllowed = false;
+            } else if ((c == '-' || c == '+') && signAllowed) {
+                negative = c == '-';
+                signAllowed = false;
+            } else {
+                return toDecimalSlow(s);
+            }
+        }
+        if (digits == 0) {
+            return toDecimalSlow(s);
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    private static BigDecimal toDecimalSlow(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0, length = s.length(); i < length; i++) {
+            char c = s.charAt(i);
+            if (!isDecimalGroupSeparator(c)) {
+                sb.append(c == ',' ? '.' : c);
+            }
+        }
+        return new BigDecimal(sb.toString());
+    }
+
+    private static boolean isDecimalGroupSeparator(char c) {
+        return c == ' ' || c == '\u00A0' || c == '\u202F';
     }
 
     public static Currency toCurrency(String s) {
@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class ConcurrencyUtil {
+
+    /**
+     * Applies the mapper to the items on the executor, running at most {@code parallelism} mappings at a time,
+     * and returns the results in the order of the items.
+     * The first failure stops the mappings not started yet and is rethrown once the running ones finish.
+     */
+    public static <T, R> List<R> mapInParallel(Collection<T> items, Function<T, R> mapper, Executor executor, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(String.format("Parallelism must be positive: %s", parallelism));
+        }
+        List<T> itemList = new ArrayList<>(items);
+        int size = itemList.size();
+        Object[] results = new Object[size];
+        AtomicInteger nextIndex = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+        Runnable worker = () -> {
+            int i;
+            while (!failed.get() && (i = nextIndex.getAndIncrement()) < size) {
+                try {
+                    results[i] = mapper.apply(itemList.get(i));
+                } catch (Throwable e) {
+                    failed.set(true);
+                    throw e;
+                }
+            }
+        };
+
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[Math.min(parallelism, size)];
+        for (int j = 0; j < workers.length; j++) {
+            workers[j] = CompletableFuture.runAsync(worker, executor);
+        }
+        try {
+            CompletableFuture.allOf(workers).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<R> resultList = (List<R>) Arrays.asList(results);
+        return resultList;
+    }
+}
@@ -16,16 +16,30 @@
 package com.brinvex.util.fiobank.impl.util;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
 
 public class IOUtil {
 
+    /**
+     * Mapping a file costs more than reading it, which pays off only for larger files.
+     */
+    private static final int MAPPING_THRESHOLD = 64 * 1024;
+
     public static String readTextFileContent(Path filePath, Charset charset, Charset... alternativeCharsets) {
 
         List<Charset> charsets = new ArrayList<>();
@@ -34,31 +48,16 @@ public class IOUtil {
             charsets.addAll(List.of(alternativeCharsets));
         }
 
+        ByteBuffer bytes = readFileContent(filePath);
         String content = null;
         List<CharacterCodingException> characterCodingExceptions = new ArrayList<>();
-        try {
-            for (Charset chs : charsets) {
-                try {
-                    content = Files.readString(filePath, chs);
-                    break;
-                } catch (Throwable throwable) {
-                    if (throwable instanceof CharacterCodingException) {
-                        characterCodingExceptions.add((CharacterCodingException) throwable);
-                    } else {
-                        Throwable cause = throwable.getCause();
-                        if (cause instanceof CharacterCodingException) {
-                            characterCodingExceptions.add((CharacterCodingException) cause);
-                        } else {
-                            throw throwable;
-                        }
-                    }
-                }
+        for (Charset chs : charsets) {
+            try {
+                content = chs.newDecoder().decode(bytes.duplicate()).toString();
+                break;
+            } catch (CharacterCodingException e) {
+                characterCodingExceptions.add(e);
             }
-        } catch (IOException e) {
-            for (Exception charsetException : characterCodingExceptions) {
-                e.addSuppressed(charsetException);
-            }
-            throw new UncheckedIOException(e);
         }
 
         if (content == null) {
@@ -72,4 +71,198 @@ public class IOUtil {
         return content;
     }
 
+    /**
+     * Returns the first of the given charsets which decodes the content without errors,
+     * the same as {@link #readTextFileContent(Path, Charset, Charset...)} would read it in, but without creating the text.
+     * Decoding with a charset stops at its first error, so a rejected charset usually costs only a part of the content.
+     * The position of the content is not changed.
+     */
+    public static Charset detectCharset(ByteBuffer content, Charset charset, Charset... alternativeCharsets) {
+        List<Charset> charsets = new ArrayList<>();
+        charsets.add(charset);
+        if (alternativeCharsets != null && alternativeCharsets.length > 0) {
+            charsets.addAll(List.of(alternativeCharsets));
+        }
+
+        List<CharacterCodingException> characterCodingExceptions = new ArrayList<>();
+        CharBuffer buffer = CharBuffer.allocate(8192);
+        for (Charset chs : charsets) {
+            try {
+                decode(content.duplicate(), chs, buffer);
+                return chs;
+            } catch (CharacterCodingException e) {
+                characterCodingExceptions.add(e);
+            }
+        }
+        throw toUncheckedIOException(characterCodingExceptions);
+    }
+
+    /**
+     * Parses the content decoded with the first of the given charsets, so in the common case it is decoded only once.
+     * If the parser fails and the content turns out not to be well-formed in the charset,
+     * the content is parsed again with the next charset, so the result is the same as parsing the text
+     * read by {@link #readTextFileContent(Path, Charset, Charset...)}.
+     * The parser may be applied more times, each time it has to start with a clean state.
+     * The position of the content is not changed.
+     */
+    public static <T> T parseTextContent(ByteBuffer content, Function<Reader, T> parser, Charset charset, Charset... alternativeCharsets) {
+        List<Charset> charsets = new ArrayList<>();
+        charsets.add(charset);
+        if (alternativeCharsets != null && alternativeCharsets.length > 0) {
+            charsets.addAll(List.of(alternativeCharsets));
+        }
+
+        List<CharacterCodingException> characterCodingExceptions = new ArrayList<>();
+        for (Charset chs : charsets) {
+            try {
+                return parser.apply(newReader(content, chs));
+            } catch (RuntimeException e) {
+                try {
+                    decode(content.duplicate(), chs, CharBuffer.allocate(8192));
+                } catch (CharacterCodingException charsetException) {
+                    characterCodingExceptions.add(charsetException);
+                    continue;
+                }
+                // The content is well-formed in the charset, so the failure is not caused by the charset
+                throw e;
+            }
+        }
+        throw toUncheckedIOException(characterCodingExceptions);
+    }
+
+    /**
+     * Returns the content of the file read into the heap, the file is closed when the method returns.
+     */
+    public static ByteBuffer readFileContent(Path filePath) {
+        try {
+            return ByteBuffer.wrap(Files.readAllBytes(filePath));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the content of the file, memory-mapped if it is larger than {@link #MAPPING_THRESHOLD}.
+     * A mapped file stays mapped until the buffer is garbage collected,
+     * on Windows it cannot be deleted or moved until then.
+     */
+    public static ByteBuffer mapFileContent(Path filePath) {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > MAPPING_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer content = ByteBuffer.allocate((int) size);
+            while (content.hasRemaining()) {
+                if (channel.read(content) < 0) {
+                    break;
+                }
+            }
+            return content.flip();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns a reader which decodes the remaining content on demand straight into the buffers it is read into.
+     * Malformed input is reported by a {@link CharacterCodingException} as by {@link Files#newBufferedReader(Path, Charset)}.
+     */
+    public static Reader newReader(ByteBuffer content, Charset charset) {
+        return new ByteBufferReader(content.duplicate(), charset.newDecoder());
+    }
+
+    private static UncheckedIOException toUncheckedIOException(List<CharacterCodingException> characterCodingExceptions) {
+        CharacterCodingException lastCharsetException = characterCodingExceptions.remove(characterCodingExceptions.size() - 1);
+        UncheckedIOException uncheckedIOException = new UncheckedIOException(lastCharsetException);
+        for (Exception charsetException : characterCodingExceptions) {
+            uncheckedIOException.addSuppressed(charsetException);
+        }
+        return uncheckedIOException;
+    }
+
+    /**
+     * Decodes the content into the given buffer over and over, only to find out whether it is well-formed.
+     */
+    private static void decode(ByteBuffer content, Charset charset, CharBuffer buffer) throws CharacterCodingException {
+        CharsetDecoder decoder = charset.newDecoder();
+        CoderResult result;
+        do {
+            buffer.clear();
+            result = decoder.decode(content, buffer, true);
+            if (result.isError()) {
+                result.throwException();
+            }
+        } while (result.isOverflow());
+        do {
+            buffer.clear();
+            result = decoder.flush(buffer);
+        } while (result.isOverflow());
+    }
+
+    private static class ByteBufferReader extends Reader {
+
+        private final ByteBuffer content;
+
+        private final CharsetDecoder decoder;
+
+        private final CharBuffer pending = CharBuffer.allocate(2);
+
+        private boolean decoded;
+
+        private boolean flushed;
+
+        private ByteBufferReader(ByteBuffer content, CharsetDecoder decoder) {
+            this.content = content;
+            this.decoder = decoder;
+            this.pending.flip();
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, cbuf.length);
+            if (len == 0) {
+                return 0;
+            }
+            if (pending.hasRemaining()) {
+                cbuf[off] = pending.get();
+                return 1;
+            }
+            if (len == 1) {
+                // A surrogate pair does not fit into a single char, so it is decoded aside
+                pending.clear();
+                int n = decode(pending);
+                pending.flip();
+                if (n < 0) {
+                    return -1;
+                }
+                cbuf[off] = pending.get();
+                return 1;
+            }
+            return decode(CharBuffer.wrap(cbuf, off, len));
+        }
+
+        private int decode(CharBuffer out) throws IOException {
+            int start = out.position();
+            while (out.position() == start && !flushed) {
+                if (!decoded) {
+                    CoderResult result = decoder.decode(content, out, true);
+                    if (result.isError()) {
+                        result.throwException();
+                    }
+                    decoded = result.isUnderflow();
+                }
+                if (decoded && decoder.flush(out).isUnderflow()) {
+                    flushed = true;
+                }
+            }
+            int n = out.position() - start;
+            return n == 0 ? -1 : n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl.util;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Finds which of up to 64 literal patterns a text contains, in a single pass over the text (Aho-Corasick),
+ * or which of them the text starts with.
+ * The automaton is immutable, so an instance can be shared by threads, and matching does not allocate.
+ */
+public class MultiPatternMatcher {
+
+    private static class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private Node failure;
+        private long ownPatterns;
+        private long patterns;
+
+        private Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        private Node addChild(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int insertionPoint = -i - 1;
+            Node child = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertionPoint);
+            System.arraycopy(children, 0, newChildren, 0, insertionPoint);
+            newKeys[insertionPoint] = c;
+            newChildren[insertionPoint] = child;
+            System.arraycopy(keys, insertionPoint, newKeys, insertionPoint + 1, keys.length - insertionPoint);
+            System.arraycopy(children, insertionPoint, newChildren, insertionPoint + 1, children.length - insertionPoint);
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+    }
+
+    private final Node root = new Node();
+
+    /**
+     * The pattern at index {@code i} is reported by the bit {@code 1L << i}
+     * of {@link #match(CharSequence)} and {@link #matchPrefixes(CharSequence, int)}.
+     */
+    public MultiPatternMatcher(List<String> patterns) {
+        if (patterns.size() > Long.SIZE) {
+            throw new IllegalArgumentException(String.format("Expected at most %s patterns but got: %s", Long.SIZE, patterns.size()));
+        }
+        for (int i = 0, patternsSize = patterns.size(); i < patternsSize; i++) {
+            String pattern = patterns.get(i);
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException(String.format("Empty pattern at index %s", i));
+            }
+            Node node = root;
+            for (int j = 0; j < pattern.length(); j++) {
+                node = node.addChild(pattern.charAt(j));
+            }
+            node.ownPatterns |= 1L << i;
+            node.patterns |= 1L << i;
+        }
+
+        Queue<Node> queue = new ArrayDeque<>();
+        for (Node child : root.children) {
+            child.failure = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (int i = 0; i < node.keys.length; i++) {
+                char c = node.keys[i];
+                Node child = node.children[i];
+                Node failure = node.failure;
+                while (failure != root && failure.child(c) == null) {
+                    failure = failure.failure;
+                }
+                Node failureChild = failure.child(c);
+                child.failure = failureChild != null ? failureChild : root;
+                child.patterns |= child.failure.patterns;
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Returns the bit set of the patterns found in the text.
+     */
+    public long match(CharSequence text) {
+        long found = 0;
+        Node node = root;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            Node child;
+            while ((child = node.child(c)) == null && node != root) {
+                node = node.failure;
+            }
+            if (child != null) {
+                node = child;
+                found |= node.patterns;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the bit set of the patterns the text starts with at the given offset.
+     */
+    public long matchPrefixes(CharSequence text, int offset) {
+        long found = 0;
+        Node node = root;
+        for (int i = offset, length = text.length(); i < length; i++) {
+            node = node.child(text.charAt(i));
+            if (node == null) {
+                break;
+            }
+            found |= node.ownPatterns;
+        }
+        return found;
+    }
+}
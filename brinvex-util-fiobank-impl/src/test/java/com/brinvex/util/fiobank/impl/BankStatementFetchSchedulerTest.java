@@ -0,0 +1,343 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl;
+
+import com.brinvex.util.fiobank.api.model.BankStatementFormat;
+import com.brinvex.util.fiobank.api.model.RawBankTransaction;
+import com.brinvex.util.fiobank.api.model.RawBankTransactionList;
+import com.brinvex.util.fiobank.api.service.exception.FiobankServiceException;
+import com.brinvex.util.fiobank.impl.bank.BankStatementFetchScheduler;
+import com.brinvex.util.fiobank.impl.bank.BankStatementFetchScheduler.HttpResult;
+import com.brinvex.util.fiobank.impl.bank.FioBankServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Schedules the fetches against a fake HTTP function answering with a transaction per day of the requested period,
+ * the clock is advanced manually and the calls are made on the dispatching thread.
+ */
+class BankStatementFetchSchedulerTest {
+
+    private static final Duration INTERVAL = BankStatementFetchScheduler.FIO_CALL_INTERVAL;
+
+    private final FioBankServiceImpl bankSvc = new FioBankServiceImpl();
+
+    private final ManualClock clock = new ManualClock();
+
+    private final List<String> calls = new ArrayList<>();
+
+    private final Executor directExecutor = Runnable::run;
+
+    private int statusCode = 200;
+
+    private static class ManualClock extends Clock {
+
+        private Instant instant = Instant.parse("2023-02-01T08:00:00Z");
+
+        private RuntimeException failure;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public synchronized Instant instant() {
+            if (failure != null) {
+                throw failure;
+            }
+            return instant;
+        }
+
+        private synchronized void fail(RuntimeException failure) {
+            this.failure = failure;
+        }
+
+        private synchronized void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+    }
+
+    /**
+     * Answers the request to the Fio URL {@code .../periods/<apiKey>/<from>/<to>/transactions.xml}.
+     */
+    private synchronized HttpResult send(HttpRequest request) {
+        String[] path = request.uri().getPath().split("/");
+        String apiKey = path[path.length - 4];
+        LocalDate fromDay = LocalDate.parse(path[path.length - 3]);
+        LocalDate toDay = LocalDate.parse(path[path.length - 2]);
+        calls.add(apiKey + ":" + fromDay + ":" + toDay);
+
+        StringBuilder statement = new StringBuilder()
+                .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<AccountStatement>\n<Info>\n")
+                .append("<accountId>").append(apiKey).append("</accountId>\n")
+                .append("<dateStart>").append(fromDay).append("+01:00</dateStart>\n")
+                .append("<dateEnd>").append(toDay).append("+01:00</dateEnd>\n")
+                .append("</Info>\n<TransactionList>\n");
+        for (LocalDate day = fromDay; !day.isAfter(toDay); day = day.plusDays(1)) {
+            statement.append("<Transaction>\n")
+                    .append("<column_22 name=\"ID pohybu\" id=\"22\">").append(day.toEpochDay()).append("</column_22>\n")
+                    .append("<column_0 name=\"Datum\" id=\"0\">").append(day).append("+01:00</column_0>\n")
+                    .append("<column_1 name=\"Objem\" id=\"1\">100</column_1>\n")
+                    .append("<column_14 name=\"Měna\" id=\"14\">CZK</column_14>\n")
+                    .append("</Transaction>\n");
+        }
+        statement.append("</TransactionList>\n</AccountStatement>\n");
+        return new HttpResult(statusCode, new ByteArrayInputStream(statement.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private BankStatementFetchScheduler newScheduler(Executor executor) {
+        return new BankStatementFetchScheduler(bankSvc, BankStatementFormat.XML, executor, this::send, clock, INTERVAL);
+    }
+
+    private static List<LocalDate> days(CompletableFuture<RawBankTransactionList> result) {
+        return result.join().getTransactions().stream().map(RawBankTransaction::getDate).collect(Collectors.toList());
+    }
+
+    @Test
+    void dispatch_mergesOverlappingPeriods() {
+        try (BankStatementFetchScheduler scheduler = newScheduler(directExecutor)) {
+            CompletableFuture<RawBankTransactionList> result1 = scheduler.submit("key1", LocalDate.parse("2023-01-01"), LocalDate.parse("2023-01-03"));
+            CompletableFuture<RawBankTransactionList> result2 = scheduler.submit("key1", LocalDate.parse("2023-01-03"), LocalDate.parse("2023-01-05"));
+            CompletableFuture<RawBankTransactionList> result3 = scheduler.submit("key1", LocalDate.parse("2023-01-06"), LocalDate.parse("2023-01-06"));
+            CompletableFuture<RawBankTransactionList> result4 = scheduler.submit("key1", LocalDate.parse("2023-01-10"), LocalDate.parse("2023-01-11"));
+
+            assertEquals(clock.instant().plus(INTERVAL), scheduler.dispatch());
+            assertEquals(List.of("key1:2023-01-01:2023-01-06"), calls);
+
+            assertEquals(3, days(result1).size());
+            assertEquals(LocalDate.parse("2023-01-01"), result1.join().getPeriodFrom());
+            assertEquals(LocalDate.parse("2023-01-03"), result1.join().getPeriodTo());
+            assertEquals(List.of(LocalDate.parse("2023-01-03"), LocalDate.parse("2023-01-04"), LocalDate.parse("2023-01-05")), days(result2));
+            assertEquals(List.of(LocalDate.parse("2023-01-06")), days(result3));
+            assertEquals("key1", result3.join().getAccountNumber());
+            assertFalse(result4.isDone());
+        }
+    }
+
+    @Test
+    void dispatch_respectsCallInterval() {
+        try (BankStatementFetchScheduler scheduler = newScheduler(directExecutor)) {
+            scheduler.submit("key1", LocalDate.parse("2023-01-01"), LocalDate.parse("2023-01-02"));
+            scheduler.dispatch();
+            CompletableFuture<RawBankTransactionList> result = scheduler.submit("key1", LocalDate.parse("2023-01-10"), LocalDate.parse("2023-01-10"));
+
+            clock.advance(INTERVAL.minusSeconds(1));
+            assertEquals(clock.instant().plusSeconds(1), scheduler.dispatch());
+            assertEquals(1, calls.size());
+            assertFalse(result.isDone());
+
+            clock.advance(Duration.ofSeconds(1));
+            scheduler.dispatch();
+            assertEquals(List.of("key1:2023-01-01:2023-01-02", "key1:2023-01-10:2023-01-10"), calls);
+            assertEquals(List.of(LocalDate.parse("2023-01-10")), days(result));
+
+            clock.advance(INTERVAL);
+            assertNull(scheduler.dispatch());
+        }
+    }
+
+    @Test
+    void dispatch_differentKeys() {
+        try (BankStatementFetchScheduler scheduler = newScheduler(directExecutor)) {
+            CompletableFuture<RawBankTransactionList> result1 = scheduler.submit("key1", LocalDate.parse("2023-01-01"), LocalDate.parse("2023-01-02"));
+            CompletableFuture<RawBankTransactionList> result2 = scheduler.submit("key2", LocalDate.parse("2023-01-01"), LocalDate.parse("2023-01-02"));
+            scheduler.dispatch();
+            assertEquals(List.of("key1:2023-01-01:2023-01-02", "key2:2023-01-01:2023-01-02"), calls);
+            assertEquals("key1", result1.join().getAccountNumber());
+            assertEquals("key2", result2.join().getAccountNumber());
+        }
+    }
+
+    @Test
+    void dispatch_conflict() {
+        try (BankStatementFetchScheduler scheduler = newScheduler(directExecutor)) {
+            statusCode = 409;
+            CompletableFuture<RawBankTransactionList> result = scheduler.submit("key1", LocalDate.parse("2023-01-01"), LocalDate.parse("2023-01-02"));
+            scheduler.dispatch();
+            assertFalse(result.isDone());
+
+            statusCode = 200;
+            scheduler.dispatch();
+            assertEquals(1, calls.size());
+            clock.advance(INTERVAL);
+            scheduler.dispatch();
+            assertEquals(2, calls.size());
+            assertEquals(2, days(result).size());
+        }
+    }
+
+    @Test
+    void dispatch_conflictRetriesExceeded() {
+        try (BankStatementFetchScheduler scheduler = newScheduler(directExecutor)) {
+            statusCode = 409;
+            CompletableFuture<RawBankTransactionList> result = scheduler.submit("key1", LocalDate.parse("2023-01-01"), LocalDate.parse("2023-01-02"));
+            for (int i = 0; i <= BankStatementFetchScheduler.MAX_CONFLICT_RETRIES; i++) {
+                assertFalse(result.isDone());
+                scheduler.dispatch();
+                clock.advance(INTERVAL);
+            }
+            assertEquals(BankStatementFetchScheduler.MAX_CONFLICT_RETRIES + 1, calls.size());
+            CompletionException e = assertThrows(CompletionException.class, result::join);
+            assertInstanceOf(FiobankServiceException.class, e.getCause());
+        }
+    }
+
+    @Test
+    void dispatch_unexpectedStatus() {
+        try (BankStatementFetchScheduler scheduler = newScheduler(directExecutor)) {
+            statusCode = 500;
+            CompletableFuture<RawBankTransactionList> result = scheduler.submit("key1", LocalDate.parse("2023-01-01"), LocalDate.parse("2023-01-02"));
+            scheduler.dispatch();
+            CompletionException e = assertThrows(CompletionException.class, result::join);
+            assertEquals("Unexpected HTTP status 500, period: '2023-01-01 - 2023-01-02'", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    void dispatch_rejectedExecution() {
+        AtomicBoolean rejecting = new AtomicBoolean(true);
+        Executor executor = command -> {
+            if (rejecting.get()) {
+                throw new RejectedExecutionException("Executor shut down");
+            }
+            command.run();
+        };
+        try (BankStatementFetchScheduler scheduler = newScheduler(executor)) {
+            CompletableFuture<RawBankTransactionList> result1 = scheduler.submit("key1", LocalDate.parse("2023-01-01"), LocalDate.parse("2023-01-02"));
+            assertNull(scheduler.dispatch());
+            CompletionException e = assertThrows(CompletionException.class, result1::join);
+            assertInstanceOf(RejectedExecutionException.class, e.getCause());
+            assertTrue(calls.isEmpty());
+
+            // The key is not left calling and no call was made, so the next request is fetched at once
+            rejecting.set(false);
+            CompletableFuture<RawBankTransactionList> result2 = scheduler.submit("key1", LocalDate.parse("2023-01-01"), LocalDate.parse("2023-01-02"));
+            scheduler.dispatch();
+            assertEquals(2, days(result2).size());
+        }
+    }
+
+    @Test
+    void start_rejectedExecution() throws Exception {
+        AtomicInteger executionCount = new AtomicInteger();
+        Executor executor = command -> {
+            if (executionCount.incrementAndGet() == 1) {
+                throw new RejectedExecutionException("Executor saturated");
+            }
+            command.run();
+        };
+        try (BankStatementFetchScheduler scheduler = new BankStatementFetchScheduler(
+                bankSvc, BankStatementFormat.XML, executor, this::send, Clock.systemUTC(), Duration.ofMillis(50))) {
+            CompletableFuture<RawBankTransactionList> result11 = scheduler.submit("key1", LocalDate.parse("2023-01-01"), LocalDate.parse("2023-01-02"));
+            CompletableFuture<RawBankTransactionList> result12 = scheduler.submit("key1", LocalDate.parse("2023-01-10"), LocalDate.parse("2023-01-11"));
+            CompletableFuture<RawBankTransactionList> result21 = scheduler.submit("key2", LocalDate.parse("2023-01-01"), LocalDate.parse("2023-01-02"));
+            CompletableFuture<RawBankTransactionList> result22 = scheduler.submit("key2", LocalDate.parse("2023-01-10"), LocalDate.parse("2023-01-11"));
+            scheduler.start();
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result11.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(RejectedExecutionException.class, e.getCause());
+            // Only the rejected call fails, the next one of its key and the calls of the other key are made
+            assertEquals(2, result12.get(10, TimeUnit.SECONDS).getTransactions().size());
+            assertEquals(2, result21.get(10, TimeUnit.SECONDS).getTransactions().size());
+            assertEquals(2, result22.get(10, TimeUnit.SECONDS).getTransactions().size());
+            assertEquals(3, calls.size());
+        }
+    }
+
+    @Test
+    void start_dispatchFailure() throws Exception {
+        try (BankStatementFetchScheduler scheduler = newScheduler(directExecutor)) {
+            clock.fail(new IllegalStateException("Clock failure"));
+            CompletableFuture<RawBankTransactionList> result1 = scheduler.submit("key1", LocalDate.parse("2023-01-01"), LocalDate.parse("2023-01-02"));
+            scheduler.start();
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result1.get(10, TimeUnit.SECONDS));
+            assertEquals("Clock failure", e.getCause().getMessage());
+
+            // The dispatcher thread survives the failure
+            clock.fail(null);
+            CompletableFuture<RawBankTransactionList> result2 = scheduler.submit("key1", LocalDate.parse("2023-01-01"), LocalDate.parse("2023-01-02"));
+            assertEquals(2, result2.get(10, TimeUnit.SECONDS).getTransactions().size());
+        }
+    }
+
+    @Test
+    void close_cancelsPending() {
+        CompletableFuture<RawBankTransactionList> result;
+        try (BankStatementFetchScheduler scheduler = newScheduler(directExecutor)) {
+            result = scheduler.submit("key1", LocalDate.parse("2023-01-01"), LocalDate.parse("2023-01-02"));
+        }
+        assertTrue(result.isCancelled());
+        assertTrue(calls.isEmpty());
+    }
+
+    @Test
+    void start() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (BankStatementFetchScheduler scheduler = new BankStatementFetchScheduler(
+                bankSvc, BankStatementFormat.XML, executor, this::send, Clock.systemUTC(), Duration.ofMillis(50))) {
+            scheduler.start();
+            List<CompletableFuture<RawBankTransactionList>> results = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                for (String apiKey : List.of("key1", "key2", "key3")) {
+                    LocalDate fromDay = LocalDate.parse("2023-01-01").plusMonths(i);
+                    results.add(scheduler.submit(apiKey, fromDay, fromDay.plusDays(1)));
+                }
+            }
+            CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+            assertEquals(9, calls.size());
+            for (CompletableFuture<RawBankTransactionList> result : results) {
+                assertEquals(2, days(result).size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
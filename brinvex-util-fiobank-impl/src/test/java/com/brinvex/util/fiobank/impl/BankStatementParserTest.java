@@ -0,0 +1,144 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl;
+
+import com.brinvex.util.fiobank.api.model.Currency;
+import com.brinvex.util.fiobank.api.model.RawBankTransaction;
+import com.brinvex.util.fiobank.api.model.RawBankTransactionList;
+import com.brinvex.util.fiobank.impl.bank.parser.BankStatementParser;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SuppressWarnings("SpellCheckingInspection")
+class BankStatementParserTest {
+
+    static final String STATEMENT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                                    "<AccountStatement>\n" +
+                                    "  <Info>\n" +
+                                    "    <accountId>1234567890</accountId>\n" +
+                                    "    <dateStart>2023-01-01+01:00</dateStart>\n" +
+                                    "    <dateEnd>2023-01-31+01:00</dateEnd>\n" +
+                                    "  </Info>\n" +
+                                    "  <TransactionList>\n" +
+                                    "    <Transaction>\n" +
+                                    "      <column_22 name=\"ID pohybu\" id=\"22\">20000000001</column_22>\n" +
+                                    "      <column_0 name=\"Datum\" id=\"0\">2023-01-02+01:00</column_0>\n" +
+                                    "      <column_1 name=\"Objem\" id=\"1\">-1250.50</column_1>\n" +
+                                    "      <column_14 name=\"Měna\" id=\"14\">CZK</column_14>\n" +
+                                    "      <column_10 name=\"Název protiúčtu\" id=\"10\">Novák &amp; syn</column_10>\n" +
+                                    "      <column_16 name=\"Zpráva pro příjemce\" id=\"16\">Faktura č. 7</column_16>\n" +
+                                    "      <column_8 name=\"Typ\" id=\"8\">Bezhotovostní platba</column_8>\n" +
+                                    "    </Transaction>\n" +
+                                    "    <Transaction>\n" +
+                                    "      <column_22 name=\"ID pohybu\" id=\"22\">20000000002</column_22>\n" +
+                                    "      <column_0 name=\"Datum\" id=\"0\">2023-01-02+01:00</column_0>\n" +
+                                    "      <column_1 name=\"Objem\" id=\"1\">300</column_1>\n" +
+                                    "      <column_14 name=\"Měna\" id=\"14\">CZK</column_14>\n" +
+                                    "      <column_8 name=\"Typ\" id=\"8\">Bezhotovostní příjem</column_8>\n" +
+                                    "    </Transaction>\n" +
+                                    "  </TransactionList>\n" +
+                                    "</AccountStatement>\n";
+
+    private static TestHelper testHelper;
+
+    private final BankStatementParser parser = new BankStatementParser();
+
+    @BeforeAll
+    static void beforeAll() {
+        testHelper = new TestHelper();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        testHelper.close();
+    }
+
+    @Test
+    void parseStatement() {
+        RawBankTransactionList tranList = parser.parseStatement(STATEMENT);
+        assertEquals("1234567890", tranList.getAccountNumber());
+        assertEquals(LocalDate.parse("2023-01-01"), tranList.getPeriodFrom());
+        assertEquals(LocalDate.parse("2023-01-31"), tranList.getPeriodTo());
+
+        List<RawBankTransaction> trans = tranList.getTransactions();
+        assertEquals(2, trans.size());
+        RawBankTransaction tran = trans.get(0);
+        assertEquals("20000000001", tran.getId());
+        assertEquals(LocalDate.parse("2023-01-02"), tran.getDate());
+        assertEquals(new BigDecimal("-1250.50"), tran.getVolume());
+        assertEquals(Currency.CZK, tran.getCcy());
+        assertEquals("Bezhotovostní platba", tran.getType());
+        assertEquals(Map.of("Název protiúčtu", "Novák & syn", "Zpráva pro příjemce", "Faktura č. 7"), tran.getAdditionals());
+        assertEquals(new BigDecimal("300"), trans.get(1).getVolume());
+        assertEquals(Map.of(), trans.get(1).getAdditionals());
+    }
+
+    @Test
+    void parseStatement_inputStream() {
+        RawBankTransactionList tranList = parser.parseStatement(STATEMENT);
+        RawBankTransactionList streamTranList = parser.parseStatement(new ByteArrayInputStream(STATEMENT.getBytes(StandardCharsets.UTF_8)));
+        testHelper.assertJsonEquals(tranList, streamTranList);
+    }
+
+    @Test
+    void parseStatement_additionalColumnNames() {
+        RawBankTransactionList tranList = new BankStatementParser(List.of("Zpráva pro příjemce")).parseStatement(STATEMENT);
+        List<RawBankTransaction> trans = tranList.getTransactions();
+        assertEquals(Map.of("Zpráva pro příjemce", "Faktura č. 7"), trans.get(0).getAdditionals());
+        assertEquals(Map.of(), trans.get(1).getAdditionals());
+    }
+
+    @Test
+    void parseStatement_additionalsOrder() {
+        String statement = STATEMENT.replace("      <column_8 name=\"Typ\" id=\"8\">Bezhotovostní příjem</column_8>\n",
+                "      <column_16 name=\"Zpráva pro příjemce\" id=\"16\">Záloha</column_16>\n" +
+                "      <column_10 name=\"Název protiúčtu\" id=\"10\">Svoboda</column_10>\n" +
+                "      <column_8 name=\"Typ\" id=\"8\">Bezhotovostní příjem</column_8>\n");
+        List<RawBankTransaction> trans = parser.parseStatement(statement).getTransactions();
+        assertEquals(List.of("Název protiúčtu", "Zpráva pro příjemce"), new ArrayList<>(trans.get(0).getAdditionals().keySet()));
+        assertEquals(List.of("Zpráva pro příjemce", "Název protiúčtu"), new ArrayList<>(trans.get(1).getAdditionals().keySet()));
+        assertEquals("{Zpráva pro příjemce=Záloha, Název protiúčtu=Svoboda}", trans.get(1).getAdditionals().toString());
+    }
+
+    @Test
+    void parseStatement_serializable() throws IOException, ClassNotFoundException {
+        RawBankTransactionList tranList = parser.parseStatement(STATEMENT);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(tranList);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            RawBankTransactionList deserializedTranList = (RawBankTransactionList) in.readObject();
+            assertEquals(tranList.getTransactions().get(0).getAdditionals(), deserializedTranList.getTransactions().get(0).getAdditionals());
+            testHelper.assertJsonEquals(tranList, deserializedTranList);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl;
+
+import com.brinvex.util.fiobank.api.model.Country;
+import com.brinvex.util.fiobank.api.model.Currency;
+import com.brinvex.util.fiobank.api.model.Transaction;
+import com.brinvex.util.fiobank.api.model.TransactionType;
+import com.brinvex.util.fiobank.impl.broker.BrokerTransactionIdGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BrokerTransactionIdGeneratorTest {
+
+    private static final DateTimeFormatter ID_DATE_FORMAT = DateTimeFormatter.ofPattern("yyMMddhhmmss");
+
+    @Test
+    void generateTranId() {
+        BrokerTransactionIdGenerator idGenerator = new BrokerTransactionIdGenerator();
+        Random random = new Random(1);
+        Transaction prevTran = null;
+        for (int i = 0; i < 100_000; i++) {
+            Transaction tran = random.nextInt(4) == 0 && prevTran != null ? copyKey(prevTran) : newRandomTran(random);
+            String expectedId = formatTranId(tran, prevTran);
+            assertEquals(expectedId, idGenerator.generateTranId(tran, prevTran));
+            tran.setId(expectedId);
+            prevTran = random.nextInt(10) == 0 ? null : tran;
+        }
+    }
+
+    @Test
+    void generateTranId_sameIdAsPrevious() {
+        BrokerTransactionIdGenerator idGenerator = new BrokerTransactionIdGenerator();
+        Transaction prevTran = newRandomTran(new Random(2));
+        prevTran.setId(formatTranId(prevTran, null));
+        Transaction tran = copyKey(prevTran);
+        tran.setGrossValue(prevTran.getGrossValue());
+        tran.setQty(prevTran.getQty());
+        tran.setPrice(prevTran.getPrice());
+        tran.setNote(prevTran.getNote());
+        assertEquals(prevTran.getId() + "/" + Objects.hash(prevTran.getId()), idGenerator.generateTranId(tran, prevTran));
+    }
+
+    private static Transaction newRandomTran(Random random) {
+        Transaction tran = new Transaction();
+        LocalDateTime date = LocalDateTime.of(1995 + random.nextInt(110), 1 + random.nextInt(12), 1 + random.nextInt(28),
+                random.nextInt(24), random.nextInt(60), random.nextInt(60));
+        tran.setDate(date.atZone(ZoneId.of("Europe/Prague")));
+        tran.setType(randomElement(random, TransactionType.values()));
+        tran.setCcy(randomElement(random, Currency.values()));
+        tran.setCountry(randomElement(random, Country.values()));
+        tran.setSymbol(random.nextInt(5) == 0 ? null : "S" + random.nextInt(100));
+        tran.setGrossValue(randomDecimal(random));
+        tran.setQty(randomDecimal(random));
+        tran.setPrice(randomDecimal(random));
+        tran.setNote(random.nextInt(5) == 0 ? null : "Note " + random.nextInt(1000));
+        return tran;
+    }
+
+    private static Transaction copyKey(Transaction source) {
+        Transaction tran = new Transaction();
+        tran.setDate(source.getDate());
+        tran.setType(source.getType());
+        tran.setCcy(source.getCcy());
+        tran.setCountry(source.getCountry());
+        tran.setSymbol(source.getSymbol());
+        return tran;
+    }
+
+    private static <T> T randomElement(Random random, T[] values) {
+        int i = random.nextInt(values.length + 1);
+        return i == values.length ? null : values[i];
+    }
+
+    private static BigDecimal randomDecimal(Random random) {
+        switch (random.nextInt(5)) {
+            case 0:
+                return null;
+            case 1:
+                return new BigDecimal(new BigInteger(100, random).negate(), random.nextInt(10));
+            case 2:
+                return BigDecimal.valueOf(random.nextInt(2000) - 1000, random.nextInt(5) - 2);
+            default:
+                return BigDecimal.valueOf(random.nextLong(), random.nextInt(8));
+        }
+    }
+
+    private static String formatTranId(Transaction tran, Transaction prevTran) {
+        BigDecimal qty = tran.getQty();
+        BigDecimal price = tran.getPrice();
+        BigDecimal grossValue = tran.getGrossValue();
+        String id = String.format("%s/%s/%s/%s/%s/%s/%s/%s/%s",
+                ID_DATE_FORMAT.format(tran.getDate()),
+                tran.getType(),
+                tran.getCcy(),
+                tran.getCountry(),
+                tran.getSymbol(),
+                grossValue == null ? "" : grossValue.unscaledValue(),
+                qty == null ? "" : qty.unscaledValue(),
+                price == null ? "" : price.unscaledValue(),
+                Objects.hashCode(tran.getNote())
+        );
+        if (prevTran != null) {
+            String prevId = prevTran.getId();
+            if (id.equals(prevId) ||
+                (tran.getDate().isEqual(prevTran.getDate())
+                 && Objects.equals(tran.getType(), prevTran.getType())
+                 && Objects.equals(tran.getCcy(), prevTran.getCcy())
+                 && Objects.equals(tran.getCountry(), prevTran.getCountry())
+                 && Objects.equals(tran.getSymbol(), prevTran.getSymbol())
+                )
+            ) {
+                id = id + "/" + Objects.hash(prevId);
+            }
+        }
+        return id;
+    }
+}
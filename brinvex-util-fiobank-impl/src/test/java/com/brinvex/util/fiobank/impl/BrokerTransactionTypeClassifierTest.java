@@ -0,0 +1,209 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl;
+
+import com.brinvex.util.fiobank.api.model.Lang;
+import com.brinvex.util.fiobank.api.model.RawBrokerTranDirection;
+import com.brinvex.util.fiobank.api.model.RawBrokerTransaction;
+import com.brinvex.util.fiobank.api.model.TransactionType;
+import com.brinvex.util.fiobank.api.service.exception.FiobankServiceException;
+import com.brinvex.util.fiobank.impl.broker.BrokerTransactionTypeClassifier;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static com.brinvex.util.fiobank.api.model.RawBrokerTranDirection.BANK_TRANSFER;
+import static com.brinvex.util.fiobank.api.model.RawBrokerTranDirection.BUY;
+import static com.brinvex.util.fiobank.api.model.RawBrokerTranDirection.CURRENCY_CONVERSION;
+import static com.brinvex.util.fiobank.api.model.RawBrokerTranDirection.SELL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Pins the type of representative rows of each language, including the order of precedence of the rules.
+ */
+@SuppressWarnings("SpellCheckingInspection")
+class BrokerTransactionTypeClassifierTest {
+
+    private static final Map<Lang, String> FEE_MARKETS = Map.of(Lang.CZ, "Poplatek", Lang.EN, "Fee", Lang.SK, "Poplatok");
+
+    private static final Map<Lang, String> TRANSFORMATION_MARKETS = Map.of(Lang.CZ, "Transformace", Lang.EN, "Transformation", Lang.SK, "Transformácia");
+
+    private final BrokerTransactionTypeClassifier classifier = new BrokerTransactionTypeClassifier();
+
+    @Test
+    void detectTranType_noDirection() {
+        for (Lang lang : Lang.values()) {
+            assertType(TransactionType.DEPOSIT, lang, null, null, "Vloženo na účet z 1234567890/2010 Bezhotovostní vklad", "");
+            assertType(TransactionType.DEPOSIT, lang, null, null, "Vklad Bezhotovostní vklad", "");
+            assertType(TransactionType.DEPOSIT, lang, null, null, "v Bezhotovostní vklad", "");
+            assertType(TransactionType.DEPOSIT, lang, null, null, "Převod z účtu 1234567890", "");
+            assertType(TransactionType.FEE, lang, null, null, "Poplatek za on-line data 01/2022", "");
+            assertType(TransactionType.RECLAMATION, lang, null, null, "Reklamace poplatku", "");
+
+            assertType(TransactionType.CASH_DIVIDEND, lang, null, "AAPL", "AAPL - Dividenda", "");
+            assertType(TransactionType.CASH_DIVIDEND, lang, null, "AAPL", "AAPL - Divi. 0.23 USD", "");
+            assertType(TransactionType.TAX, lang, null, "AAPL", "AAPL - Daň z divid. zaplacená", "");
+            assertType(TransactionType.TAX, lang, null, "AAPL", "AAPL - Daň z dividend zaplacená", "");
+            assertType(TransactionType.CAPITAL_DIVIDEND, lang, null, "AAPL", "AAPL - Return of Principal", "");
+            assertType(TransactionType.STOCK_DIVIDEND, lang, null, "AAPL", "AAPL - Stock Dividend", "");
+            assertType(TransactionType.STOCK_DIVIDEND, lang, null, "AAPL", "AAPL - Finanční kompenzace - Stock Dividend", "");
+            assertType(TransactionType.DIVIDEND_REVERSAL, lang, null, "AAPL", "AAPL - Oprava dividendy z 12.5.2022", "");
+            assertType(TransactionType.TAX_REFUND, lang, null, "AAPL", "AAPL - Tax Refund", "");
+            assertType(TransactionType.TAX_REFUND, lang, null, "AAPL", "AAPL - Oprava daně z dividendy", "");
+            assertType(TransactionType.TAX_REFUND, lang, null, "AAPL", "AAPL - Refundable U.S. Fed Tax Reclassified By Issuer", "");
+            assertType(TransactionType.FEE, lang, null, "AAPL", "AAPL - ADR Fee", "");
+            assertType(TransactionType.LIQUIDATION, lang, null, "AAPL", "AAPL - Security Liquidated", "");
+        }
+    }
+
+    @Test
+    void detectTranType_spinoff() {
+        assertType(TransactionType.SPINOFF_PARENT, Lang.CZ, null, "GE", "GE - Spin-off GEHC", "");
+        assertType(TransactionType.SPINOFF_VALUE, Lang.CZ, null, "GE", "GE - Spin-off Fair Market Value", "");
+        assertType(TransactionType.TAX, Lang.CZ, null, "GE", "GE - Spin-off - daň zaplacená", "");
+        // The plain spin-off is excluded by the value or the tax mentioned anywhere in the text
+        assertNoType(Lang.CZ, null, "GE", "GE - Spin-off GEHC (Fair Market Value)", "");
+        assertNoType(Lang.CZ, null, "GE", "GE - Spin-off GEHC daň zaplacená", "");
+        assertType(TransactionType.FEE, Lang.CZ, null, "GE", "GE - Spin-off GEHC daň zaplacená", "Poplatek");
+    }
+
+    @Test
+    void detectTranType_symbol() {
+        // The text must start with the symbol of the row, a null symbol is written as "null"
+        assertNoType(Lang.CZ, null, "AAPL", "MSFT - Dividenda", "");
+        assertNoType(Lang.CZ, null, "AAPL", "AAPL-Dividenda", "");
+        assertNoType(Lang.CZ, null, null, "AAPL - Dividenda", "");
+        assertType(TransactionType.CASH_DIVIDEND, Lang.CZ, null, null, "null - Dividenda", "");
+        assertType(TransactionType.TAX, Lang.CZ, null, "A", "A - Daň z dividend zaplacená", "");
+        // The symbol texts apply only to the rows without direction
+        assertNoType(Lang.CZ, BUY, "AAPL", "AAPL - Dividenda", "");
+    }
+
+    @Test
+    void detectTranType_direction() {
+        for (Lang lang : Lang.values()) {
+            assertType(TransactionType.WITHDRAWAL, lang, BANK_TRANSFER, null, "Převod na účet 1234567890", "");
+            assertType(TransactionType.FX_BUY, lang, CURRENCY_CONVERSION, "USD", "Nákup", "");
+            assertType(TransactionType.FX_SELL, lang, CURRENCY_CONVERSION, "USD", "Prodej", "");
+            assertType(TransactionType.BUY, lang, BUY, "AAPL", "Nákup", "NASDAQ");
+            assertType(TransactionType.SELL, lang, SELL, "AAPL", "Prodej", "NASDAQ");
+            assertType(TransactionType.LIQUIDATION, lang, SELL, "AAPL", "Security Liquidated", "");
+            assertNoType(lang, BUY, "AAPL", "Prodej", "NASDAQ");
+            assertNoType(lang, BUY, "AAPL", "Security Liquidated", "");
+            assertNoType(lang, BANK_TRANSFER, null, "Převod z účtu 1234567890", "");
+        }
+    }
+
+    @Test
+    void detectTranType_feeMarket() {
+        for (Lang lang : Lang.values()) {
+            String feeMarket = FEE_MARKETS.get(lang);
+            assertType(TransactionType.FEE, lang, null, "AAPL", "Poplatek za připsání dividend", feeMarket);
+            assertType(TransactionType.FEE, lang, BUY, "AAPL", "Poplatek", feeMarket);
+            // The text and direction rules take precedence over the market
+            assertType(TransactionType.CASH_DIVIDEND, lang, null, "AAPL", "AAPL - Dividenda", feeMarket);
+            assertType(TransactionType.BUY, lang, BUY, "AAPL", "Nákup", feeMarket);
+            for (Lang otherLang : Lang.values()) {
+                if (otherLang != lang) {
+                    assertNoType(otherLang, null, "AAPL", "Poplatek za připsání dividend", feeMarket);
+                }
+            }
+        }
+    }
+
+    @Test
+    void detectTranType_transformationMarket() {
+        for (Lang lang : Lang.values()) {
+            String market = TRANSFORMATION_MARKETS.get(lang);
+            assertType(TransactionType.INSTRUMENT_CHANGE_PARENT, lang, SELL, "FB", "Ticker Change: FB > META", market);
+            assertType(TransactionType.INSTRUMENT_CHANGE_CHILD, lang, BUY, "META", "Ticker Change: FB > META", market);
+            assertType(TransactionType.INSTRUMENT_CHANGE_PARENT, lang, SELL, "X", "Change of Listing: X", market);
+            assertType(TransactionType.INSTRUMENT_CHANGE_CHILD, lang, BUY, "X", "X - Change in Security ID (ISIN Change)", market);
+            assertType(TransactionType.SPLIT, lang, BUY, "AAPL", "AAPL - Split 4:1", market);
+            assertType(TransactionType.SPLIT, lang, null, "AAPL", "AAPL - Split 4:1", market);
+            assertType(TransactionType.MERGER_PARENT, lang, SELL, "X", "X - Stock Merger Y", market);
+            assertType(TransactionType.MERGER_CHILD, lang, BUY, "Y", "X - Stock Merger Y", market);
+            assertType(TransactionType.LIQUIDATION, lang, SELL, "X", "X - Security Deleted As Worthless", market);
+            assertType(TransactionType.INSTRUMENT_CHANGE_PARENT, lang, SELL, "X", "X - Reorganization", "X*", market);
+            assertType(TransactionType.INSTRUMENT_CHANGE_CHILD, lang, BUY, "X", "X - Reorganization", "X", market);
+
+            // An instrument change takes precedence over a split, a split over a merger, a merger over a worthless security
+            assertType(TransactionType.INSTRUMENT_CHANGE_PARENT, lang, SELL, "X", "Ticker Change: X > Y, Split 2:1", market);
+            assertType(TransactionType.SPLIT, lang, null, "X", "Ticker Change: X > Y, Split 2:1", market);
+            assertType(TransactionType.SPLIT, lang, SELL, "X", "Stock Merger Y, Split 2:1", market);
+            assertType(TransactionType.MERGER_PARENT, lang, SELL, "X", "Stock Merger Y, Security Deleted As Worthless", market);
+            assertType(TransactionType.LIQUIDATION, lang, null, "X", "Stock Merger Y, Security Deleted As Worthless", market);
+
+            assertNoType(lang, null, "X", "Ticker Change: X > Y", market);
+            assertNoType(lang, null, "X", "X - Stock Merger Y", market);
+            assertNoType(lang, SELL, "X", "X - Reorganization", "X", market);
+            assertNoType(lang, BUY, "X", "X - Reorganization", "X*", market);
+            assertNoType(lang, SELL, "X", "X - Reorganization", "X**", market);
+            assertNoType(lang, SELL, "X", "X - Reorganization ", "X*", market);
+            assertType(TransactionType.INSTRUMENT_CHANGE_PARENT, lang, SELL, null, "null - Reorganization", "null*", market);
+            for (Lang otherLang : Lang.values()) {
+                if (otherLang != lang) {
+                    assertNoType(otherLang, SELL, "FB", "Ticker Change: FB > META", market);
+                }
+            }
+        }
+    }
+
+    private void assertType(TransactionType expectedType, Lang lang, RawBrokerTranDirection direction, String symbol, String text, String market) {
+        assertType(expectedType, lang, direction, symbol, text, symbol, market);
+    }
+
+    private void assertType(
+            TransactionType expectedType,
+            Lang lang,
+            RawBrokerTranDirection direction,
+            String symbol,
+            String text,
+            String rawSymbol,
+            String market
+    ) {
+        RawBrokerTransaction rawTran = newRawTran(lang, direction, symbol, text, rawSymbol, market);
+        assertEquals(expectedType, classifier.detectTranType(rawTran), rawTran::toString);
+    }
+
+    private void assertNoType(Lang lang, RawBrokerTranDirection direction, String symbol, String text, String market) {
+        assertNoType(lang, direction, symbol, text, symbol, market);
+    }
+
+    private void assertNoType(Lang lang, RawBrokerTranDirection direction, String symbol, String text, String rawSymbol, String market) {
+        RawBrokerTransaction rawTran = newRawTran(lang, direction, symbol, text, rawSymbol, market);
+        assertThrows(FiobankServiceException.class, () -> classifier.detectTranType(rawTran), rawTran::toString);
+    }
+
+    private static RawBrokerTransaction newRawTran(
+            Lang lang,
+            RawBrokerTranDirection direction,
+            String symbol,
+            String text,
+            String rawSymbol,
+            String market
+    ) {
+        RawBrokerTransaction rawTran = new RawBrokerTransaction();
+        rawTran.setLang(lang);
+        rawTran.setDirection(direction);
+        rawTran.setSymbol(symbol);
+        rawTran.setRawSymbol(rawSymbol);
+        rawTran.setText(text);
+        rawTran.setMarket(market);
+        return rawTran;
+    }
+}
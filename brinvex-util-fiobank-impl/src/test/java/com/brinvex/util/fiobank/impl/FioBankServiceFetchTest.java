@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl;
+
+import com.brinvex.util.fiobank.api.model.BankStatementFormat;
+import com.brinvex.util.fiobank.api.model.RawBankTransactionList;
+import com.brinvex.util.fiobank.api.service.exception.FiobankServiceException;
+import com.brinvex.util.fiobank.impl.bank.FioBankServiceImpl;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Fetches the statements from a local server standing in for the Fio API.
+ */
+class FioBankServiceFetchTest {
+
+    private static final LocalDate FROM_DAY = LocalDate.parse("2023-01-01");
+
+    private static final LocalDate TO_DAY = LocalDate.parse("2023-01-31");
+
+    private static HttpServer server;
+
+    private static ExecutorService executor;
+
+    private static TestHelper testHelper;
+
+    private static FioBankServiceImpl bankSvc;
+
+    private static String urlPrefix;
+
+    @BeforeAll
+    static void beforeAll() throws IOException {
+        testHelper = new TestHelper();
+        executor = Executors.newFixedThreadPool(2);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", FioBankServiceFetchTest::handle);
+        server.setExecutor(executor);
+        server.start();
+        urlPrefix = "http://localhost:" + server.getAddress().getPort() + "/";
+        bankSvc = newBankService(HttpClient.newHttpClient(), Duration.ofSeconds(1));
+    }
+
+    private static FioBankServiceImpl newBankService(HttpClient httpClient, Duration requestTimeout) {
+        return new FioBankServiceImpl(null, httpClient, requestTimeout) {
+            @Override
+            protected String statementUrl(String apiKey, LocalDate fromDayIncl, LocalDate toDayIncl, BankStatementFormat format) {
+                return urlPrefix + apiKey + "/" + format;
+            }
+        };
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        server.stop(0);
+        executor.shutdownNow();
+        testHelper.close();
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        String[] path = exchange.getRequestURI().getPath().split("/");
+        String apiKey = path[1];
+        BankStatementFormat format = BankStatementFormat.valueOf(path[2]);
+        if (apiKey.equals("slow")) {
+            try {
+                Thread.sleep(3000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        String statement;
+        Charset charset;
+        switch (format) {
+            case XML:
+                statement = BankStatementParserTest.STATEMENT;
+                charset = StandardCharsets.UTF_8;
+                break;
+            case JSON:
+                statement = JsonBankStatementParserTest.STATEMENT;
+                charset = StandardCharsets.UTF_8;
+                break;
+            default:
+                statement = GpcBankStatementParserTest.STATEMENT;
+                charset = Charset.forName("windows-1250");
+        }
+        byte[] body = statement.getBytes(charset);
+        int statusCode = apiKey.equals("conflict") ? 409 : 200;
+        exchange.sendResponseHeaders(statusCode, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Test
+    void fetchStatement() {
+        for (BankStatementFormat format : BankStatementFormat.values()) {
+            String statement = bankSvc.fetchStatement("apiKey", FROM_DAY, TO_DAY, format);
+            RawBankTransactionList tranList = bankSvc.parseStatements(Stream.of(statement), format);
+            assertEquals(2, tranList.getTransactions().size());
+        }
+        assertEquals(GpcBankStatementParserTest.STATEMENT, bankSvc.fetchStatement("apiKey", FROM_DAY, TO_DAY, BankStatementFormat.GPC));
+    }
+
+    @Test
+    void fetchStatementAsync() {
+        for (BankStatementFormat format : BankStatementFormat.values()) {
+            String statement = bankSvc.fetchStatementAsync("apiKey", FROM_DAY, TO_DAY, format).join();
+            assertEquals(bankSvc.fetchStatement("apiKey", FROM_DAY, TO_DAY, format), statement);
+        }
+    }
+
+    @Test
+    void fetchTransactions() {
+        for (BankStatementFormat format : BankStatementFormat.values()) {
+            String statement = bankSvc.fetchStatement("apiKey", FROM_DAY, TO_DAY, format);
+            RawBankTransactionList expectedTranList = bankSvc.parseStatements(Stream.of(statement), format);
+            testHelper.assertJsonEquals(expectedTranList, bankSvc.fetchTransactions("apiKey", FROM_DAY, TO_DAY, format));
+        }
+    }
+
+    @Test
+    void fetchTransactionsAsync() {
+        List<RawBankTransactionList> tranLists = Stream.of(BankStatementFormat.values())
+                .map(format -> bankSvc.fetchTransactionsAsync("apiKey", FROM_DAY, TO_DAY, format, executor))
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+        testHelper.assertJsonEquals(tranLists.get(0), tranLists.get(1));
+        assertEquals(2, tranLists.get(2).getTransactions().size());
+    }
+
+    @Test
+    void fetch_unexpectedStatus() {
+        FiobankServiceException e = assertThrows(FiobankServiceException.class,
+                () -> bankSvc.fetchStatement("conflict", FROM_DAY, TO_DAY, BankStatementFormat.XML));
+        assertEquals("Unexpected HTTP status 409, period: '2023-01-01 - 2023-01-31'", e.getMessage());
+        assertThrows(FiobankServiceException.class,
+                () -> bankSvc.fetchTransactions("conflict", FROM_DAY, TO_DAY, BankStatementFormat.JSON));
+        CompletionException ce = assertThrows(CompletionException.class,
+                () -> bankSvc.fetchTransactionsAsync("conflict", FROM_DAY, TO_DAY, BankStatementFormat.JSON, executor).join());
+        assertInstanceOf(FiobankServiceException.class, ce.getCause());
+    }
+
+    @Test
+    void fetch_defaults() {
+        FioBankServiceImpl defaultBankSvc = newBankService(null, null);
+        assertEquals(GpcBankStatementParserTest.STATEMENT, defaultBankSvc.fetchStatement("apiKey", FROM_DAY, TO_DAY, BankStatementFormat.GPC));
+        assertEquals(2, defaultBankSvc.fetchTransactions("apiKey", FROM_DAY, TO_DAY, BankStatementFormat.XML).getTransactions().size());
+    }
+
+    @Test
+    void fetch_timeout() {
+        UncheckedIOException e = assertThrows(UncheckedIOException.class,
+                () -> bankSvc.fetchStatement("slow", FROM_DAY, TO_DAY, BankStatementFormat.XML));
+        assertInstanceOf(HttpTimeoutException.class, e.getCause());
+    }
+}
@@ -15,24 +15,34 @@
  */
 package com.brinvex.util.fiobank.impl;
 
+import com.brinvex.util.fiobank.api.model.BankStatementFormat;
+import com.brinvex.util.fiobank.api.model.Currency;
 import com.brinvex.util.fiobank.api.model.Portfolio;
 import com.brinvex.util.fiobank.api.model.RawBankTransactionList;
 import com.brinvex.util.fiobank.api.model.Transaction;
+import com.brinvex.util.fiobank.api.model.TransactionType;
 import com.brinvex.util.fiobank.api.service.FioBankService;
 import com.brinvex.util.fiobank.api.service.FioServiceFactory;
+import com.brinvex.util.fiobank.api.service.exception.FiobankServiceException;
 import com.brinvex.util.fiobank.impl.util.IOUtil;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class FioBankServiceTest {
 
@@ -64,6 +74,21 @@ class FioBankServiceTest {
         }
     }
 
+    @Test
+    void parseStatements_parallel() {
+        List<Path> testFilePaths = testHelper.getTestFilePaths(f -> f.startsWith("Fio_Bank_Transactions_") && f.endsWith(".xml"));
+        if (!testFilePaths.isEmpty()) {
+            RawBankTransactionList tranList = bankSvc.parseStatements(testFilePaths);
+            ForkJoinPool executor = new ForkJoinPool(4);
+            try {
+                RawBankTransactionList parallelTranList = bankSvc.parseStatements(testFilePaths, executor, 4);
+                testHelper.assertJsonEquals(tranList, parallelTranList);
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
     @Test
     void processStatements_base() {
         List<Path> testFilePaths = testHelper.getTestFilePaths(f ->
@@ -82,6 +107,37 @@ class FioBankServiceTest {
         }
     }
 
+    @Test
+    void processStatements_gpc() {
+        Portfolio ptf = bankSvc.processStatements("apiKey", LocalDate.parse("2023-01-01"), LocalDate.parse("2023-01-31"),
+                BankStatementFormat.GPC, url -> {
+                    assertTrue(url.endsWith("/apiKey/2023-01-01/2023-01-31/transactions.gpc"), url);
+                    return GpcBankStatementParserTest.STATEMENT;
+                });
+        List<Transaction> trans = ptf.getTransactions();
+        assertEquals(2, trans.size());
+        assertEquals(TransactionType.WITHDRAWAL, trans.get(0).getType());
+        assertEquals(TransactionType.DEPOSIT, trans.get(1).getType());
+        assertEquals("{SS=42}", trans.get(1).getNote());
+        assertEquals(0, new BigDecimal("-950.50").compareTo(ptf.getCash().get(Currency.CZK)));
+    }
+
+    @Test
+    void processStatements_missingType() {
+        String xml = BankStatementParserTest.STATEMENT.replace(
+                "      <column_8 name=\"Typ\" id=\"8\">Bezhotovostní příjem</column_8>\n", "");
+        assertFalse(xml.contains("Bezhotovostní příjem"));
+        FiobankServiceException e = assertThrows(FiobankServiceException.class, () -> bankSvc.processStatements(Stream.of(xml)));
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+
+        String json = JsonBankStatementParserTest.STATEMENT.replace(
+                ",\"column8\":{\"value\":\"Bezhotovostní příjem\",\"name\":\"Typ\",\"id\":8}", "");
+        assertFalse(json.contains("Bezhotovostní příjem"));
+        e = assertThrows(FiobankServiceException.class, () -> bankSvc.processStatements("apiKey", LocalDate.parse("2023-01-01"),
+                LocalDate.parse("2023-01-31"), BankStatementFormat.JSON, url -> json));
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+    }
+
     @Test
     void fetch() {
         Path testFilePath = testHelper.getTestFilePath(f -> f.equals("Fio_Bank_apiKey"));
@@ -27,13 +27,20 @@ import com.brinvex.util.fiobank.api.service.FioServiceFactory;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -51,6 +58,9 @@ class FioBrokerServiceTest {
 
     private static TestHelper testHelper;
 
+    @TempDir
+    Path tempDir;
+
     @BeforeAll
     static void beforeAll() {
         testHelper = new TestHelper();
@@ -126,6 +136,83 @@ class FioBrokerServiceTest {
         }
     }
 
+    @Test
+    void parseStatements_parallel() {
+        List<Path> testFilePaths = testHelper.getTestFilePaths(fileName ->
+                fileName.endsWith(".csv") && !fileName.contains("_B_") && !fileName.contains("Vyvoj")
+        );
+        if (!testFilePaths.isEmpty()) {
+            RawBrokerTransactionList rawTranList = brokerSvc.parseTransactionStatements(testFilePaths);
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                for (int parallelism : new int[]{1, 2, 4}) {
+                    RawBrokerTransactionList parallelRawTranList = brokerSvc.parseTransactionStatements(testFilePaths, executor, parallelism);
+                    testHelper.assertJsonEquals(rawTranList, parallelRawTranList);
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void parseStatement_streaming() {
+        List<Path> testFilePaths = testHelper.getTestFilePaths(fileName ->
+                fileName.endsWith(".csv") && !fileName.contains("_B_") && !fileName.contains("Vyvoj")
+        );
+        for (Path testFilePath : testFilePaths) {
+            RawBrokerTransactionList rawTranList = brokerSvc.parseTransactionStatements(List.of(testFilePath));
+            List<RawBrokerTransaction> streamedRawTrans = new ArrayList<>();
+            RawBrokerTransactionList streamedRawTranList = brokerSvc.parseTransactionStatement(testFilePath, streamedRawTrans::add);
+            assertNull(streamedRawTranList.getTransactions());
+            assertEquals(rawTranList.getAccountNumber(), streamedRawTranList.getAccountNumber());
+            assertEquals(rawTranList.getPeriodFrom(), streamedRawTranList.getPeriodFrom());
+            assertEquals(rawTranList.getPeriodTo(), streamedRawTranList.getPeriodTo());
+
+            Collections.reverse(streamedRawTrans);
+            streamedRawTranList.setTransactions(streamedRawTrans
+                    .stream()
+                    .sorted(comparing(RawBrokerTransaction::getTradeDate))
+                    .collect(Collectors.toList()));
+            testHelper.assertJsonEquals(rawTranList, streamedRawTranList);
+        }
+    }
+
+    /**
+     * A UTF-8 statement whose first bytes windows-1250 cannot decode, those of "ň", come only after 100 KiB.
+     */
+    @Test
+    void parseStatements_utf8DetectedLate() throws IOException {
+        StringBuilder statement = new StringBuilder()
+                .append("Přehled transakcí;\"Číslo účtu: 1234567890\"\n")
+                .append("Vytvořeno: 02.01.2020 09:00\n")
+                .append("Období: 1.1.2019 - 31.12.2019\n")
+                .append("\n")
+                .append("Datum obchodu;Směr;Symbol;Cena;Počet;Měna;Objem v CZK;Poplatky v CZK;Objem v USD;Poplatky v USD;" +
+                        "Objem v EUR;Poplatky v EUR;Trh;Název CP;Datum vypořádání;Stav;Pokyn ID;Text FIO;Uživatelská identifikace\n");
+        int rowCount = 2000;
+        for (int i = 0; i < rowCount; i++) {
+            String instrumentName = i == rowCount - 1 ? "CEZ daň" : "CEZ";
+            statement.append("31.12.2019 20:23;Nákup;CEZ;500,00;1;CZK;-500,00;1,05;;;;;BCPP;")
+                    .append(instrumentName)
+                    .append(";2.1.2020;Provedeno;")
+                    .append(100_000 + i)
+                    .append(";Nákup;\n");
+        }
+        byte[] content = statement.toString().getBytes(StandardCharsets.UTF_8);
+        assertTrue(statement.indexOf("ň") > 100 * 1024);
+        Path filePath = Files.write(tempDir.resolve("Fio_Broker_Transactions_2019_CZ.csv"), content);
+
+        RawBrokerTransactionList rawTranList = brokerSvc.parseTransactionStatements(List.of(filePath));
+        assertEquals("1234567890", rawTranList.getAccountNumber());
+        assertEquals(rowCount, rawTranList.getTransactions().size());
+        assertTrue(rawTranList.getTransactions().stream().anyMatch(t -> t.getInstrumentName().equals("CEZ daň")));
+
+        List<RawBrokerTransaction> streamedRawTrans = new ArrayList<>();
+        brokerSvc.parseTransactionStatement(filePath, streamedRawTrans::add);
+        assertEquals("CEZ daň", streamedRawTrans.get(rowCount - 1).getInstrumentName());
+    }
+
     @Test
     void parseStatements_duplicate() {
         List<Path> testFilePaths1 = testHelper.getTestFilePaths(fileName ->
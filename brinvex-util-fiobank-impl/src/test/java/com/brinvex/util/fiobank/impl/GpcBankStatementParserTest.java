@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl;
+
+import com.brinvex.util.fiobank.api.model.Currency;
+import com.brinvex.util.fiobank.api.model.RawBankTransaction;
+import com.brinvex.util.fiobank.api.model.RawBankTransactionList;
+import com.brinvex.util.fiobank.api.service.exception.FiobankServiceException;
+import com.brinvex.util.fiobank.impl.bank.parser.GpcBankStatementParser;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SuppressWarnings("SpellCheckingInspection")
+class GpcBankStatementParserTest {
+
+    private static final String HEADER = "074" + "0000001234567890" + "Jan Novák           " + "311222"
+                                         + "00000001000000" + "+" + "00000001030050" + "+"
+                                         + "00000000125050" + "0" + "00000000155100" + "0"
+                                         + "001" + "310123" + "              ";
+
+    private static final String DEBIT = "075" + "0000001234567890" + "0000000123456789" + "0020000000001"
+                                        + "000000125050" + "1" + "0000007001" + "0001000308" + "0000000000"
+                                        + "020123" + "Novák & syn         " + "0" + "0203" + "020123";
+
+    private static final String CREDIT = "075" + "0000001234567890" + "0000000000000000" + "0020000000002"
+                                         + "000000030000" + "2" + "0000000000" + "0000000000" + "0000000042"
+                                         + "020123" + "                    " + "0" + "0203" + "020123";
+
+    static final String STATEMENT = HEADER + "\r\n" + DEBIT + "\r\n" + CREDIT + "\r\n";
+
+    private final GpcBankStatementParser parser = new GpcBankStatementParser();
+
+    @Test
+    void parseStatement() {
+        RawBankTransactionList tranList = parser.parseStatement(STATEMENT);
+        assertEquals("1234567890", tranList.getAccountNumber());
+        assertEquals(LocalDate.parse("2023-01-01"), tranList.getPeriodFrom());
+        assertEquals(LocalDate.parse("2023-01-31"), tranList.getPeriodTo());
+
+        List<RawBankTransaction> trans = tranList.getTransactions();
+        assertEquals(2, trans.size());
+        RawBankTransaction tran = trans.get(0);
+        assertEquals("20000000001", tran.getId());
+        assertEquals(LocalDate.parse("2023-01-02"), tran.getDate());
+        assertEquals(new BigDecimal("-1250.50"), tran.getVolume());
+        assertEquals(Currency.CZK, tran.getCcy());
+        assertNull(tran.getType());
+        assertEquals(Map.of(
+                "Protiúčet", "123456789",
+                "Kód banky", "0100",
+                "Název protiúčtu", "Novák & syn",
+                "KS", "0308",
+                "VS", "7001"
+        ), tran.getAdditionals());
+
+        RawBankTransaction tran2 = trans.get(1);
+        assertEquals(new BigDecimal("300.00"), tran2.getVolume());
+        assertEquals(Map.of("SS", "42"), tran2.getAdditionals());
+    }
+
+    @Test
+    void parseStatement_unixLineEnds() {
+        RawBankTransactionList tranList = parser.parseStatement(HEADER + "\n" + DEBIT + "\n" + CREDIT);
+        assertEquals(2, tranList.getTransactions().size());
+    }
+
+    @Test
+    void parseStatement_invalid() {
+        assertThrows(FiobankServiceException.class, () -> parser.parseStatement(DEBIT));
+        assertThrows(FiobankServiceException.class, () -> parser.parseStatement(HEADER + "\n" + DEBIT.substring(1)));
+        assertThrows(FiobankServiceException.class, () -> parser.parseStatement(HEADER + "\n" + DEBIT.replace("0203", "0999")));
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl;
+
+import com.brinvex.util.fiobank.impl.util.IOUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IOUtilTest {
+
+    private static final Charset WINDOWS_1250 = Charset.forName("windows-1250");
+
+    private static final String CZ_LINE = "Přehled pokynů;Řád;Kůň;\"1 000,50\";😀\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readTextFileContent() throws IOException {
+        for (int lines : new int[]{0, 1, 10_000}) {
+            String content = CZ_LINE.replace("😀", "").repeat(lines);
+            assertEquals(content, IOUtil.readTextFileContent(write(content, WINDOWS_1250), WINDOWS_1250, StandardCharsets.UTF_8));
+
+            String utf8Content = CZ_LINE.repeat(lines);
+            assertEquals(utf8Content, IOUtil.readTextFileContent(write(utf8Content, StandardCharsets.UTF_8), WINDOWS_1250, StandardCharsets.UTF_8));
+        }
+        Path malformedFilePath = write(new byte[]{'a', (byte) 0x98, (byte) 0xFF});
+        assertThrows(UncheckedIOException.class, () -> IOUtil.readTextFileContent(malformedFilePath, WINDOWS_1250, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void detectCharset() throws IOException {
+        String utf8Content = CZ_LINE.repeat(10_000);
+        ByteBuffer content = IOUtil.readFileContent(write(utf8Content, StandardCharsets.UTF_8));
+        assertEquals(StandardCharsets.UTF_8, IOUtil.detectCharset(content, WINDOWS_1250, StandardCharsets.UTF_8));
+        assertEquals(0, content.position());
+
+        String cp1250Content = CZ_LINE.replace("😀", "").repeat(10_000);
+        content = IOUtil.mapFileContent(write(cp1250Content, WINDOWS_1250));
+        assertEquals(WINDOWS_1250, IOUtil.detectCharset(content, WINDOWS_1250, StandardCharsets.UTF_8));
+
+        // The UTF-8 bytes of "ň" (C5 88) are the first ones windows-1250 cannot decode, far beyond the start of the content
+        String lateUtf8Content = "Přehled transakcí;Kůň\n".replace("ň", "n").repeat(10_000) + "daň\n";
+        ByteBuffer lateUtf8Bytes = IOUtil.mapFileContent(write(lateUtf8Content, StandardCharsets.UTF_8));
+        assertTrue(lateUtf8Bytes.remaining() > 128 * 1024);
+        assertEquals(StandardCharsets.UTF_8, IOUtil.detectCharset(lateUtf8Bytes, WINDOWS_1250, StandardCharsets.UTF_8));
+
+        ByteBuffer truncatedContent = ByteBuffer.wrap("aŘ".getBytes(StandardCharsets.UTF_8), 0, 2).slice();
+        assertThrows(UncheckedIOException.class, () -> IOUtil.detectCharset(truncatedContent, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void parseTextContent() throws IOException {
+        AtomicInteger parseCount = new AtomicInteger();
+        Function<Reader, String> parser = reader -> {
+            parseCount.incrementAndGet();
+            String text = readAll(reader);
+            if (!text.startsWith("Přehled")) {
+                throw new IllegalArgumentException("Could not detect lang");
+            }
+            return text;
+        };
+
+        String cp1250Content = CZ_LINE.replace("😀", "").repeat(10_000);
+        ByteBuffer content = IOUtil.mapFileContent(write(cp1250Content, WINDOWS_1250));
+        assertEquals(cp1250Content, IOUtil.parseTextContent(content, parser, WINDOWS_1250, StandardCharsets.UTF_8));
+        assertEquals(1, parseCount.getAndSet(0));
+        assertEquals(0, content.position());
+
+        // The header is mis-decoded by windows-1250, which fails only far beyond it
+        String lateUtf8Content = "Přehled transakcí;Kůň\n".replace("ň", "n").repeat(10_000) + "daň\n";
+        ByteBuffer lateUtf8Bytes = IOUtil.mapFileContent(write(lateUtf8Content, StandardCharsets.UTF_8));
+        assertEquals(lateUtf8Content, IOUtil.parseTextContent(lateUtf8Bytes, parser, WINDOWS_1250, StandardCharsets.UTF_8));
+        assertEquals(2, parseCount.getAndSet(0));
+
+        // Content well-formed in the first charset fails the same way as when read by readTextFileContent
+        ByteBuffer unparsableContent = ByteBuffer.wrap("Overview".getBytes(StandardCharsets.UTF_8));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> IOUtil.parseTextContent(unparsableContent, parser, WINDOWS_1250, StandardCharsets.UTF_8));
+        assertEquals("Could not detect lang", e.getMessage());
+        assertEquals(1, parseCount.getAndSet(0));
+
+        ByteBuffer malformedContent = ByteBuffer.wrap(new byte[]{'a', (byte) 0x98, (byte) 0xFF});
+        assertThrows(UncheckedIOException.class, () -> IOUtil.parseTextContent(malformedContent, parser, WINDOWS_1250, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void readFileContent_fileReleased() throws IOException {
+        Path filePath = write(CZ_LINE.repeat(10_000), StandardCharsets.UTF_8);
+        ByteBuffer content = IOUtil.readFileContent(filePath);
+        Files.delete(filePath);
+        assertEquals(CZ_LINE.repeat(10_000), StandardCharsets.UTF_8.decode(content).toString());
+    }
+
+    @Test
+    void newReader() throws IOException {
+        String content = CZ_LINE.repeat(10_000);
+        ByteBuffer bytes = IOUtil.readFileContent(write(content, StandardCharsets.UTF_8));
+
+        StringBuilder sb = new StringBuilder();
+        try (Reader reader = IOUtil.newReader(bytes, StandardCharsets.UTF_8)) {
+            char[] buffer = new char[8191];
+            int n;
+            while ((n = reader.read(buffer)) >= 0) {
+                sb.append(buffer, 0, n);
+            }
+        }
+        assertEquals(content, sb.toString());
+
+        sb.setLength(0);
+        try (Reader reader = IOUtil.newReader(bytes, StandardCharsets.UTF_8)) {
+            int c;
+            while ((c = reader.read()) >= 0) {
+                sb.append((char) c);
+            }
+        }
+        assertEquals(content, sb.toString());
+
+        try (Reader reader = IOUtil.newReader(ByteBuffer.wrap(new byte[]{'a', (byte) 0xFF}), StandardCharsets.UTF_8)) {
+            assertThrows(CharacterCodingException.class, () -> reader.read(new char[16]));
+        }
+    }
+
+    private static String readAll(Reader reader) {
+        StringBuilder sb = new StringBuilder();
+        char[] buffer = new char[8192];
+        int n;
+        try {
+            while ((n = reader.read(buffer)) >= 0) {
+                sb.append(buffer, 0, n);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    private Path write(String content, Charset charset) throws IOException {
+        return write(content.getBytes(charset));
+    }
+
+    private Path write(byte[] content) throws IOException {
+        return Files.write(Files.createTempFile(tempDir, "statement", ".csv"), content);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl;
+
+import com.brinvex.util.fiobank.api.model.Currency;
+import com.brinvex.util.fiobank.api.model.RawBankTransaction;
+import com.brinvex.util.fiobank.api.model.RawBankTransactionList;
+import com.brinvex.util.fiobank.api.service.exception.FiobankServiceException;
+import com.brinvex.util.fiobank.impl.bank.parser.BankStatementParser;
+import com.brinvex.util.fiobank.impl.bank.parser.JsonBankStatementParser;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SuppressWarnings("SpellCheckingInspection")
+class JsonBankStatementParserTest {
+
+    static final String STATEMENT = "{\"accountStatement\":{\"info\":{\"accountId\":\"1234567890\",\"bankId\":\"2010\",\"currency\":\"CZK\"," +
+                                    "\"openingBalance\":0.00,\"closingBalance\":-950.50,\"dateStart\":\"2023-01-01+0100\",\"dateEnd\":\"2023-01-31+0100\"," +
+                                    "\"yearList\":null,\"idList\":null,\"idFrom\":20000000001,\"idTo\":20000000002,\"idLastDownload\":null},\n" +
+                                    "\"transactionList\":{\"transaction\":[\n" +
+                                    "{\"column22\":{\"value\":20000000001,\"name\":\"ID pohybu\",\"id\":22}," +
+                                    "\"column0\":{\"value\":\"2023-01-02+0100\",\"name\":\"Datum\",\"id\":0}," +
+                                    "\"column1\":{\"value\":-1250.50,\"name\":\"Objem\",\"id\":1}," +
+                                    "\"column14\":{\"value\":\"CZK\",\"name\":\"Měna\",\"id\":14}," +
+                                    "\"column2\":null," +
+                                    "\"column10\":{\"value\":\"Novák & syn\",\"name\":\"Název protiúčtu\",\"id\":10}," +
+                                    "\"column16\":{\"value\":\"Faktura \\u010d. 7\",\"name\":\"Zpráva pro příjemce\",\"id\":16}," +
+                                    "\"column8\":{\"value\":\"Bezhotovostní platba\",\"name\":\"Typ\",\"id\":8}},\n" +
+                                    "{\"column22\":{\"value\":20000000002,\"name\":\"ID pohybu\",\"id\":22}," +
+                                    "\"column0\":{\"value\":\"2023-01-02+0100\",\"name\":\"Datum\",\"id\":0}," +
+                                    "\"column1\":{\"value\":300,\"name\":\"Objem\",\"id\":1}," +
+                                    "\"column14\":{\"value\":\"CZK\",\"name\":\"Měna\",\"id\":14}," +
+                                    "\"column8\":{\"value\":\"Bezhotovostní příjem\",\"name\":\"Typ\",\"id\":8}}\n" +
+                                    "]}}}\n";
+
+    private static TestHelper testHelper;
+
+    private final JsonBankStatementParser parser = new JsonBankStatementParser();
+
+    @BeforeAll
+    static void beforeAll() {
+        testHelper = new TestHelper();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        testHelper.close();
+    }
+
+    @Test
+    void parseStatement() {
+        RawBankTransactionList tranList = parser.parseStatement(STATEMENT);
+        assertEquals("1234567890", tranList.getAccountNumber());
+        assertEquals(LocalDate.parse("2023-01-01"), tranList.getPeriodFrom());
+        assertEquals(LocalDate.parse("2023-01-31"), tranList.getPeriodTo());
+
+        List<RawBankTransaction> trans = tranList.getTransactions();
+        assertEquals(2, trans.size());
+        RawBankTransaction tran = trans.get(0);
+        assertEquals("20000000001", tran.getId());
+        assertEquals(LocalDate.parse("2023-01-02"), tran.getDate());
+        assertEquals(new BigDecimal("-1250.50"), tran.getVolume());
+        assertEquals(Currency.CZK, tran.getCcy());
+        assertEquals("Bezhotovostní platba", tran.getType());
+        assertEquals(Map.of("Název protiúčtu", "Novák & syn", "Zpráva pro příjemce", "Faktura č. 7"), tran.getAdditionals());
+        assertEquals(new BigDecimal("300"), trans.get(1).getVolume());
+        assertEquals(Map.of(), trans.get(1).getAdditionals());
+    }
+
+    @Test
+    void parseStatement_sameAsXml() {
+        RawBankTransactionList xmlTranList = new BankStatementParser().parseStatement(BankStatementParserTest.STATEMENT);
+        testHelper.assertJsonEquals(xmlTranList, parser.parseStatement(STATEMENT));
+    }
+
+    @Test
+    void parseStatement_inputStream() {
+        RawBankTransactionList tranList = parser.parseStatement(STATEMENT);
+        RawBankTransactionList streamTranList = parser.parseStatement(new ByteArrayInputStream(STATEMENT.getBytes(StandardCharsets.UTF_8)));
+        testHelper.assertJsonEquals(tranList, streamTranList);
+    }
+
+    @Test
+    void parseStatement_invalid() {
+        assertThrows(FiobankServiceException.class, () -> parser.parseStatement(STATEMENT.substring(0, STATEMENT.length() - 3)));
+        assertThrows(FiobankServiceException.class, () -> parser.parseStatement(STATEMENT.replace("\"id\":22},", "\"id\":22}")));
+        assertThrows(FiobankServiceException.class, () -> parser.parseStatement(STATEMENT.replace("[\n", "[,\n")));
+        assertThrows(FiobankServiceException.class, () -> parser.parseStatement(STATEMENT + "{}"));
+    }
+
+    @Test
+    void parseStatement_additionalColumnNames() {
+        RawBankTransactionList tranList = new JsonBankStatementParser(List.of("Název protiúčtu")).parseStatement(STATEMENT);
+        assertEquals(Map.of("Název protiúčtu", "Novák & syn"), tranList.getTransactions().get(0).getAdditionals());
+    }
+}
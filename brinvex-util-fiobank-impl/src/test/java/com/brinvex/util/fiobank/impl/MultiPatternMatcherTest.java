@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl;
+
+import com.brinvex.util.fiobank.impl.util.MultiPatternMatcher;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MultiPatternMatcherTest {
+
+    private static final List<String> PATTERNS = List.of("aab", "ab", "b", "bab", "ča", "abba", "bč");
+
+    @Test
+    void match() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(PATTERNS);
+        assertEquals(0, matcher.match(""));
+        assertEquals(0b10, matcher.matchPrefixes("xab", 1));
+
+        Random random = new Random(1);
+        char[] alphabet = {'a', 'b', 'č', 'x'};
+        for (int i = 0; i < 10_000; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = random.nextInt(12); j > 0; j--) {
+                sb.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            String text = sb.toString();
+            int offset = text.isEmpty() ? 0 : random.nextInt(text.length());
+
+            long expectedFound = 0;
+            long expectedPrefixes = 0;
+            for (int j = 0; j < PATTERNS.size(); j++) {
+                if (text.contains(PATTERNS.get(j))) {
+                    expectedFound |= 1L << j;
+                }
+                if (text.startsWith(PATTERNS.get(j), offset)) {
+                    expectedPrefixes |= 1L << j;
+                }
+            }
+            assertEquals(expectedFound, matcher.match(text), text);
+            assertEquals(expectedPrefixes, matcher.matchPrefixes(text, offset), text);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl;
+
+import com.brinvex.util.fiobank.impl.broker.parser.ParsingUtil;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParsingUtilTest {
+
+    @Test
+    void toDecimal() {
+        assertNull(ParsingUtil.toDecimal(null));
+        assertNull(ParsingUtil.toDecimal(" "));
+        assertDecimal("0", "0");
+        assertDecimal("1234.50", "1 234,50");
+        assertDecimal("1234.50", "1\u00A0234,50");
+        assertDecimal("1234.50", "1\u202F234,50");
+        assertDecimal("1234567.5", "1 234 567,5");
+        assertDecimal("-1234.50", "-1 234,50");
+        assertDecimal("-0.00", "-0,00");
+        assertDecimal("12.3", "+12.3");
+        assertDecimal("0.25", ",25");
+        assertDecimal("7", "7,");
+        assertDecimal("123456789012345678901234.5678", "123 456 789 012 345 678 901 234,5678");
+        assertDecimal("1E+5", "1E5");
+        assertThrows(NumberFormatException.class, () -> ParsingUtil.toDecimal("-"));
+        assertThrows(NumberFormatException.class, () -> ParsingUtil.toDecimal("1,2,3"));
+        assertThrows(NumberFormatException.class, () -> ParsingUtil.toDecimal("12-"));
+        assertThrows(NumberFormatException.class, () -> ParsingUtil.toDecimal("12 CZK"));
+    }
+
+    @Test
+    void toFioDateTime() {
+        assertNull(ParsingUtil.toFioDateTime(null));
+        assertNull(ParsingUtil.toFioDateTime(" "));
+        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+        for (LocalDateTime dt = LocalDateTime.parse("2019-12-30T00:00"); dt.getYear() < 2021; dt = dt.plusMinutes(397)) {
+            String s = dtf.format(dt);
+            assertEquals(dt, ParsingUtil.toFioDateTime(s));
+            assertEquals(dt, ParsingUtil.toFioDateTime(s));
+        }
+        for (String s : List.of(
+                "31.02.2020 10:00", "29.02.2019 10:00", "31.04.2020 10:00", "24:00.2020 10:00", "01.01.2020 24:00",
+                "00.01.2020 10:00", "32.01.2020 10:00", "01.13.2020 10:00", "01.01.2020 10:60", "01.01.0000 10:00",
+                "1.1.2020 10:00", "01.01.20201 10:00", "01.01.2020 1:00", "01.01.2020T10:00", "+1.01.2020 10:00")) {
+            assertSameOutcome(() -> LocalDateTime.parse(s, dtf), () -> ParsingUtil.toFioDateTime(s));
+        }
+    }
+
+    @Test
+    void toFioDate() {
+        assertNull(ParsingUtil.toFioDate(null));
+        assertNull(ParsingUtil.toFioDate(" "));
+        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("d.M.yyyy");
+        for (LocalDate d = LocalDate.parse("2019-12-30"); d.getYear() < 2021; d = d.plusDays(1)) {
+            for (String s : List.of(dtf.format(d), DateTimeFormatter.ofPattern("dd.MM.yyyy").format(d))) {
+                assertEquals(d, ParsingUtil.toFioDate(s));
+                assertEquals(d, ParsingUtil.toFioDate(s));
+            }
+        }
+        for (String s : List.of(
+                "31.2.2020", "29.2.2019", "31.4.2020", "0.1.2020", "32.1.2020", "1.13.2020", "1.0.2020", "1.1.0000",
+                "001.1.2020", "1.001.2020", "1.1.20", "1.1.20201", "1.1.-2020", "1-1-2020", "1..2020", "1.1.2020 ")) {
+            assertSameOutcome(() -> LocalDate.parse(s, dtf), () -> ParsingUtil.toFioDate(s));
+        }
+    }
+
+    private static void assertSameOutcome(Supplier<?> expected, Supplier<?> actual) {
+        Object expectedResult;
+        try {
+            expectedResult = expected.get();
+        } catch (RuntimeException e) {
+            expectedResult = e.getClass();
+        }
+        Object actualResult;
+        try {
+            actualResult = actual.get();
+        } catch (RuntimeException e) {
+            actualResult = e.getClass();
+        }
+        assertEquals(expectedResult, actualResult);
+    }
+
+    private static void assertDecimal(String expected, String s) {
+        BigDecimal expectedDecimal = new BigDecimal(expected);
+        BigDecimal actualDecimal = ParsingUtil.toDecimal(s);
+        assertEquals(expectedDecimal, actualDecimal);
+        assertEquals(expectedDecimal.scale(), actualDecimal.scale());
+    }
+}
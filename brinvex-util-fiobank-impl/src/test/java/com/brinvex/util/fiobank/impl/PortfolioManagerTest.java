@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl;
+
+import com.brinvex.util.fiobank.api.model.Country;
+import com.brinvex.util.fiobank.api.model.Currency;
+import com.brinvex.util.fiobank.api.model.Portfolio;
+import com.brinvex.util.fiobank.api.model.Position;
+import com.brinvex.util.fiobank.api.model.Transaction;
+import com.brinvex.util.fiobank.api.model.TransactionType;
+import com.brinvex.util.fiobank.api.service.exception.FiobankServiceException;
+import com.brinvex.util.fiobank.impl.broker.PortfolioManager;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+
+import static java.math.BigDecimal.ZERO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PortfolioManagerTest {
+
+    private final PortfolioManager ptfManager = new PortfolioManager();
+
+    @Test
+    void applyTransaction_idConflict() {
+        Portfolio ptf = newPortfolio();
+        addAndApply(ptf, newDeposit("1"));
+        addAndApply(ptf, newDeposit("2"));
+        assertThrows(FiobankServiceException.class, () -> addAndApply(ptf, newDeposit("1")));
+    }
+
+    @Test
+    void applyTransaction_idConflictAfterDeserialization() throws IOException, ClassNotFoundException {
+        Portfolio ptf = newPortfolio();
+        addAndApply(ptf, newDeposit("1"));
+        addAndApply(ptf, newDeposit("2"));
+
+        Portfolio deserializedPtf = deserialize(serialize(ptf));
+        assertThrows(FiobankServiceException.class, () -> addAndApply(deserializedPtf, newDeposit("2")));
+
+        Portfolio deserializedPtf2 = deserialize(serialize(ptf));
+        addAndApply(deserializedPtf2, newDeposit("3"));
+        assertEquals(new BigDecimal("300.00"), deserializedPtf2.getCash().get(Currency.CZK));
+    }
+
+    @Test
+    void applyTransaction_idConflictAfterSetTransactions() {
+        Portfolio ptf = newPortfolio();
+        addAndApply(ptf, newDeposit("1"));
+        ptf.setTransactions(new ArrayList<>());
+        addAndApply(ptf, newDeposit("1"));
+        assertThrows(FiobankServiceException.class, () -> addAndApply(ptf, newDeposit("1")));
+    }
+
+    @Test
+    void applyTransaction_idConflictAfterInPlaceChange() {
+        Portfolio ptf = newPortfolio();
+        addAndApply(ptf, newDeposit("1"));
+        addAndApply(ptf, newDeposit("2"));
+        ptf.getTransactions().set(0, newDeposit("3"));
+        ptf.setTransactions(ptf.getTransactions());
+        addAndApply(ptf, newDeposit("1"));
+        assertThrows(FiobankServiceException.class, () -> addAndApply(ptf, newDeposit("3")));
+    }
+
+    @Test
+    void applyTransaction_idConflictAfterSameSizeChange() {
+        Portfolio ptf = newPortfolio();
+        addAndApply(ptf, newDeposit("1"));
+        addAndApply(ptf, newDeposit("2"));
+        ptf.getTransactions().remove(1);
+        ptf.getTransactions().add(newDeposit("3"));
+        addAndApply(ptf, newDeposit("2"));
+        assertThrows(FiobankServiceException.class, () -> addAndApply(ptf, newDeposit("3")));
+
+        ptf.getTransactions().set(ptf.getTransactions().size() - 1, newDeposit("4"));
+        addAndApply(ptf, newDeposit("2-1"));
+        assertThrows(FiobankServiceException.class, () -> addAndApply(ptf, newDeposit("4")));
+    }
+
+    @Test
+    void applyTransaction_invalid() {
+        Portfolio ptf = newPortfolio();
+        Transaction invalidTran = newDeposit("1").setNetValue(new BigDecimal("-100.00"));
+        assertThrows(FiobankServiceException.class, () -> addAndApply(ptf, invalidTran));
+        assertTrue(ptf.getCash().isEmpty());
+    }
+
+    @Test
+    void findPosition() throws IOException, ClassNotFoundException {
+        Portfolio ptf = newPortfolio();
+        ptf.getPositions().add(newPosition(Country.US, "ABC"));
+        assertEquals(Country.US, ptfManager.findPosition(ptf, "ABC").getCountry());
+        assertThrows(FiobankServiceException.class, () -> ptfManager.findPosition(ptf, "XYZ"));
+
+        Portfolio deserializedPtf = deserialize(serialize(ptf));
+        assertEquals(Country.US, ptfManager.findPosition(deserializedPtf, "ABC").getCountry());
+
+        ptf.getPositions().add(newPosition(Country.DE, "ABC"));
+        assertThrows(FiobankServiceException.class, () -> ptfManager.findPosition(ptf, "ABC"));
+    }
+
+    @Test
+    void findPosition_afterInPlaceChange() {
+        Portfolio ptf = newPortfolio();
+        ptf.getPositions().add(newPosition(Country.US, "ABC"));
+        assertEquals(Country.US, ptfManager.findPosition(ptf, "ABC").getCountry());
+
+        ptf.getPositions().set(0, newPosition(Country.DE, "XYZ"));
+        ptf.setPositions(ptf.getPositions());
+        assertEquals(Country.DE, ptfManager.findPosition(ptf, "XYZ").getCountry());
+        assertThrows(FiobankServiceException.class, () -> ptfManager.findPosition(ptf, "ABC"));
+    }
+
+    @Test
+    void findPosition_afterSameSizeChange() {
+        Portfolio ptf = newPortfolio();
+        ptf.getPositions().add(newPosition(Country.US, "ABC"));
+        assertEquals(Country.US, ptfManager.findPosition(ptf, "ABC").getCountry());
+
+        ptf.getPositions().set(0, newPosition(Country.DE, "XYZ"));
+        assertEquals(Country.DE, ptfManager.findPosition(ptf, "XYZ").getCountry());
+        assertThrows(FiobankServiceException.class, () -> ptfManager.findPosition(ptf, "ABC"));
+    }
+
+    private Portfolio newPortfolio() {
+        return ptfManager.initPortfolio("1234567890", LocalDate.parse("2022-01-01"), LocalDate.parse("2022-12-31"));
+    }
+
+    private void addAndApply(Portfolio ptf, Transaction tran) {
+        ptf.getTransactions().add(tran);
+        ptfManager.applyTransaction(ptf, tran);
+    }
+
+    private static Transaction newDeposit(String id) {
+        BigDecimal value = new BigDecimal("100.00");
+        LocalDate day = LocalDate.parse("2022-01-03");
+        return new Transaction()
+                .setId(id)
+                .setType(TransactionType.DEPOSIT)
+                .setDate(day.atStartOfDay(ZoneId.of("Europe/Prague")))
+                .setSettlementDate(day)
+                .setCcy(Currency.CZK)
+                .setGrossValue(value)
+                .setNetValue(value)
+                .setQty(ZERO)
+                .setFees(ZERO);
+    }
+
+    private static Position newPosition(Country country, String symbol) {
+        Position position = new Position();
+        position.setCountry(country);
+        position.setSymbol(symbol);
+        position.setQty(BigDecimal.ONE);
+        return position;
+    }
+
+    private static byte[] serialize(Portfolio ptf) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(ptf);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Portfolio deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (Portfolio) in.readObject();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2023 Brinvex (dev@brinvex.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.brinvex.util.fiobank.impl;
+
+import com.brinvex.util.fiobank.api.model.Currency;
+import com.brinvex.util.fiobank.api.model.RawBrokerTranDirection;
+import com.brinvex.util.fiobank.api.model.RawBrokerTransaction;
+import com.brinvex.util.fiobank.api.model.RawBrokerTransactionList;
+import com.brinvex.util.fiobank.impl.broker.FioBrokerServiceImpl;
+import com.brinvex.util.fiobank.impl.broker.RawBrokerTransactionKeySet;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RawBrokerTransactionKeySetTest {
+
+    @Test
+    void putIfAbsent() {
+        RawBrokerTransactionKeySet keys = new RawBrokerTransactionKeySet();
+        assertEquals(-1, keys.putIfAbsent(newRawTran("AAPL", "1.5"), 0));
+        assertEquals(0, keys.putIfAbsent(newRawTran("AAPL", "1.5"), 1));
+        // BigDecimal scale is a part of the key as in BigDecimal.equals
+        assertEquals(-1, keys.putIfAbsent(newRawTran("AAPL", "1.50"), 1));
+        assertEquals(-1, keys.putIfAbsent(newRawTran(null, null), 2));
+        assertEquals(2, keys.putIfAbsent(newRawTran(null, null), 3));
+
+        RawBrokerTransaction rawTran = newRawTran("AAPL", "1.5");
+        rawTran.setText("Different text is not a part of the key");
+        assertEquals(0, keys.putIfAbsent(rawTran, 4));
+        rawTran.setFeesEur(BigDecimal.ONE);
+        assertEquals(-1, keys.putIfAbsent(rawTran, 4));
+        assertEquals(4, keys.size());
+    }
+
+    @Test
+    void growAndClear() {
+        RawBrokerTransactionKeySet keys = new RawBrokerTransactionKeySet();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 10_000; i++) {
+                assertEquals(-1, keys.putIfAbsent(newRawTran("S" + i, String.valueOf(i % 7)), i));
+            }
+            for (int i = 0; i < 10_000; i++) {
+                assertEquals(i, keys.putIfAbsent(newRawTran("S" + i, String.valueOf(i % 7)), -2));
+            }
+            assertEquals(10_000, keys.size());
+            keys.clear();
+            assertEquals(0, keys.size());
+        }
+    }
+
+    @Test
+    void mergeTransactionLists_keySetOverridden() {
+        RawBrokerTransaction rawTran1 = newRawTran("AAPL", "1.5");
+        rawTran1.setOrderId("1");
+        RawBrokerTransaction rawTran1Repeated = newRawTran("AAPL", "1.5");
+        rawTran1Repeated.setOrderId("1");
+        RawBrokerTransaction rawTran1Corrected = newRawTran("AAPL", "1.6");
+        rawTran1Corrected.setOrderId("1");
+        RawBrokerTransaction rawTran2 = newRawTran("MSFT", "2.5");
+        rawTran2.setOrderId("2");
+        List<RawBrokerTransactionList> rawTranLists = List.of(
+                newRawTranList("2022-01-01", "2022-03-31", rawTran1),
+                newRawTranList("2022-03-01", "2022-04-30", rawTran2, rawTran1Corrected, rawTran1Repeated)
+        );
+
+        MergingBrokerService defaultSvc = new MergingBrokerService();
+        assertEquals(List.of(rawTran1, rawTran1Corrected, rawTran2), defaultSvc.merge(rawTranLists).getTransactions());
+
+        MergingBrokerService orderIdKeySvc = new MergingBrokerService() {
+            @Override
+            protected RawBrokerTransactionKeySet newRawTransactionKeySet() {
+                return new RawBrokerTransactionKeySet() {
+                    @Override
+                    protected long hash(RawBrokerTransaction tran) {
+                        return Objects.hash(tran.getTradeDate(), tran.getOrderId());
+                    }
+
+                    @Override
+                    protected boolean sameKey(RawBrokerTransaction tran1, RawBrokerTransaction tran2) {
+                        return tran1.getTradeDate().equals(tran2.getTradeDate()) && tran1.getOrderId().equals(tran2.getOrderId());
+                    }
+                };
+            }
+        };
+        RawBrokerTransactionList rawTranList = orderIdKeySvc.merge(rawTranLists);
+        assertEquals(List.of(rawTran1, rawTran2), rawTranList.getTransactions());
+        assertEquals(LocalDate.parse("2022-04-30"), rawTranList.getPeriodTo());
+    }
+
+    private static class MergingBrokerService extends FioBrokerServiceImpl {
+        private RawBrokerTransactionList merge(List<RawBrokerTransactionList> rawTranLists) {
+            return mergeTransactionLists(rawTranLists.stream());
+        }
+    }
+
+    private static RawBrokerTransactionList newRawTranList(String periodFrom, String periodTo, RawBrokerTransaction... rawTrans) {
+        RawBrokerTransactionList rawTranList = new RawBrokerTransactionList();
+        rawTranList.setAccountNumber("1234567890");
+        rawTranList.setPeriodFrom(LocalDate.parse(periodFrom));
+        rawTranList.setPeriodTo(LocalDate.parse(periodTo));
+        rawTranList.setTransactions(new ArrayList<>(List.of(rawTrans)));
+        return rawTranList;
+    }
+
+    private static RawBrokerTransaction newRawTran(String symbol, String price) {
+        RawBrokerTransaction rawTran = new RawBrokerTransaction();
+        rawTran.setTradeDate(LocalDateTime.parse("2022-03-04T10:15"));
+        rawTran.setDirection(RawBrokerTranDirection.BUY);
+        rawTran.setSymbol(symbol);
+        rawTran.setPrice(price == null ? null : new BigDecimal(price));
+        rawTran.setShares(BigDecimal.TEN);
+        rawTran.setCcy(Currency.USD);
+        rawTran.setVolumeUsd(price == null ? null : new BigDecimal(price).multiply(BigDecimal.TEN).negate());
+        return rawTran;
+    }
+}
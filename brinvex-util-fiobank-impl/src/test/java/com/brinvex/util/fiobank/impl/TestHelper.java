@@ -24,6 +24,7 @@ import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -34,7 +35,14 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class TestHelper implements AutoCloseable {
 
-    private static final String TEST_DATA_FOLDER = "c:/prj/bx-util/bx-util-fiobank/test-data";
+    /**
+     * The folder with real (private) statements, see {@link #getTestFilePaths(Predicate)}.
+     * It can be overridden by the system property {@value #TEST_DATA_FOLDER_PROPERTY},
+     * e.g. to point at statements written by the benchmark module's {@code StatementFileGenerator}.
+     */
+    private static final String TEST_DATA_FOLDER_PROPERTY = "brinvex.util.fiobank.testDataFolder";
+
+    private static final String DEFAULT_TEST_DATA_FOLDER = "c:/prj/bx-util/bx-util-fiobank/test-data";
 
     private final Jsonb jsonb = JsonbBuilder.create();
 
@@ -56,13 +64,14 @@ public class TestHelper implements AutoCloseable {
     }
 
     public List<Path> getTestFilePaths(Predicate<String> fileNameFilter) {
-        String testDataFolder = TEST_DATA_FOLDER;
+        String testDataFolder = System.getProperty(TEST_DATA_FOLDER_PROPERTY, DEFAULT_TEST_DATA_FOLDER);
 
         List<Path> testStatementFilePaths;
         Path testFolderPath = Paths.get(testDataFolder);
         File testFolder = testFolderPath.toFile();
         if (!testFolder.exists() || !testFolder.isDirectory()) {
-            out.printf(String.format("Test data folder not found: '%s'", testDataFolder));
+            out.printf(String.format("Test data folder not found: '%s'%n", testDataFolder));
+            return Collections.emptyList();
         }
         try (Stream<Path> filePaths = Files.walk(testFolderPath)) {
             testStatementFilePaths = filePaths
@@ -73,7 +82,7 @@ public class TestHelper implements AutoCloseable {
             throw new UncheckedIOException(e);
         }
         if (testStatementFilePaths.isEmpty()) {
-            out.printf(String.format("No files found in test data folder: '%s'", testDataFolder));
+            out.printf(String.format("No files found in test data folder: '%s'%n", testDataFolder));
         }
         return testStatementFilePaths;
     }